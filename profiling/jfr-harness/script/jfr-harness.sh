@@ -0,0 +1,15 @@
+#!/bin/bash
+
+# Runs a profiling application with JFR under load and reports on the recording, building the harness on first use.
+# Run it from the module of the application, so the recording uses its jfr/settings_for_heap.jfc, for example:
+#   ../jfr-harness/script/jfr-harness.sh --duration 60 --load "script/burst.sh" -- java -jar target/app.jar
+# The recording and the text and JSON reports are written in target/jfr. JVM options can be given with JAVA_OPTS.
+
+HARNESS_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+HARNESS_JAR="$HARNESS_DIR/target/jfr-harness.jar"
+
+if [ ! -f "$HARNESS_JAR" ]; then
+  (cd "$HARNESS_DIR" && mvn -q -B package) || exit 1
+fi
+
+exec java $JAVA_OPTS -jar "$HARNESS_JAR" "$@"
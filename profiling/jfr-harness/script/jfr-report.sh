@@ -0,0 +1,13 @@
+#!/bin/bash
+
+# Reports on an existing recording, such as the jfr/output.jfr of an application run with the jfr profile:
+#   ../jfr-harness/script/jfr-report.sh jfr/output.jfr --json jfr/report.json
+
+HARNESS_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+HARNESS_JAR="$HARNESS_DIR/target/jfr-harness.jar"
+
+if [ ! -f "$HARNESS_JAR" ]; then
+  (cd "$HARNESS_DIR" && mvn -q -B package) || exit 1
+fi
+
+exec java $JAVA_OPTS -cp "$HARNESS_JAR" org.apache.camel.profiling.jfr.JfrReport "$@"
@@ -0,0 +1,14 @@
+#!/bin/bash
+
+# Reports on the startup of Camel from the recordings of the JFR startup recorder, turned on with
+# camel.main.startup-recorder = jfr, side by side when there are several, for example:
+#   ../jfr-harness/script/startup-report.sh camel-recording-*.jfr --top 10 --json target/startup.json
+
+HARNESS_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+HARNESS_JAR="$HARNESS_DIR/target/jfr-harness.jar"
+
+if [ ! -f "$HARNESS_JAR" ]; then
+  (cd "$HARNESS_DIR" && mvn -q -B package) || exit 1
+fi
+
+exec java $JAVA_OPTS -cp "$HARNESS_JAR" org.apache.camel.profiling.jfr.StartupReport "$@"
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.jfr;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+
+/**
+ * The bytes allocated by site, the first frame of the stack outside the JDK, and by class.
+ * <p/>
+ * The bytes are the estimates of JFR: the weight of the jdk.ObjectAllocationSample events of the settings of JDK 16
+ * and later, or the size of the new TLAB or of the object of the jdk.ObjectAllocationInNewTLAB and
+ * jdk.ObjectAllocationOutsideTLAB events enabled by settings_for_heap.jfc. They are samples, so the shares of the
+ * sites are what counts, not the totals.
+ */
+final class AllocationSites implements Section {
+    private static final String[] JDK_PACKAGES = { "java.", "javax.", "jdk.", "sun.", "com.sun." };
+
+    private final int top;
+    private final Weights sampled = new Weights("jdk.ObjectAllocationSample");
+    private final Weights tlab = new Weights("jdk.ObjectAllocationInNewTLAB, jdk.ObjectAllocationOutsideTLAB");
+
+    AllocationSites(int top) {
+        this.top = top;
+    }
+
+    @Override
+    public void accept(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case "jdk.ObjectAllocationSample":
+                sampled.add(event, event.getLong("weight"));
+                break;
+            case "jdk.ObjectAllocationInNewTLAB":
+                tlab.add(event, event.getLong("tlabSize"));
+                break;
+            case "jdk.ObjectAllocationOutsideTLAB":
+                tlab.add(event, event.getLong("allocationSize"));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * The events of both kinds estimate the same allocations, and both are in the recording when another recording of
+     * the JVM enables the other kind, so the report uses the kind with the most events
+     */
+    private Weights weights() {
+        return sampled.events >= tlab.events ? sampled : tlab;
+    }
+
+    @Override
+    public void appendText(StringBuilder sb, Duration recording) {
+        Weights weights = weights();
+        if (weights.events == 0) {
+            sb.append("Allocations: no allocation event in the recording\n");
+            return;
+        }
+        sb.append(String.format(Locale.ROOT, "Allocations: %s estimated from %d events of %s, %s/s%n",
+                JfrReport.bytes(weights.bytes), weights.events, weights.source,
+                JfrReport.bytes(JfrReport.perSecond(weights.bytes, recording))));
+        sb.append("\nTop allocation sites, by the first frame outside the JDK\n");
+        appendTop(sb, weights.sites, weights.bytes, "Site");
+        sb.append("\nTop allocated classes\n");
+        appendTop(sb, weights.classes, weights.bytes, "Class");
+    }
+
+    private void appendTop(StringBuilder sb, Map<String, Long> bytes, long total, String label) {
+        sb.append(String.format(Locale.ROOT, "%12s %7s  %s%n", "Bytes", "%", label));
+        for (Map.Entry<String, Long> entry : JfrReport.top(bytes, top)) {
+            sb.append(String.format(Locale.ROOT, "%12s %6.2f%%  %s%n", JfrReport.bytes(entry.getValue()),
+                    JfrReport.percent(entry.getValue(), total), entry.getKey()));
+        }
+    }
+
+    @Override
+    public Map<String, Object> toJson(Duration recording) {
+        Weights weights = weights();
+        Map<String, Object> answer = new LinkedHashMap<>();
+        answer.put("source", weights.source);
+        answer.put("events", weights.events);
+        answer.put("bytes", weights.bytes);
+        answer.put("bytesPerSecond", JfrReport.perSecond(weights.bytes, recording));
+        answer.put("sites", topJson(weights.sites, weights.bytes, "site"));
+        answer.put("classes", topJson(weights.classes, weights.bytes, "class"));
+        return answer;
+    }
+
+    private List<Object> topJson(Map<String, Long> bytes, long total, String key) {
+        List<Object> answer = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : JfrReport.top(bytes, top)) {
+            Map<String, Object> site = new LinkedHashMap<>();
+            site.put(key, entry.getKey());
+            site.put("bytes", entry.getValue());
+            site.put("percent", JfrReport.percent(entry.getValue(), total));
+            answer.add(site);
+        }
+        return answer;
+    }
+
+    /**
+     * The first frame outside the JDK, or the top frame when the stack is all in the JDK, as truncated stacks can be
+     */
+    static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "<no stack trace>";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame() && !isJdk(frame.getMethod().getType().getName())) {
+                return frame(frame);
+            }
+        }
+        return frame(stackTrace.getFrames().get(0));
+    }
+
+    private static boolean isJdk(String className) {
+        for (String prefix : JDK_PACKAGES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String frame(RecordedFrame frame) {
+        String method = frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+        return frame.getLineNumber() > 0 ? method + ":" + frame.getLineNumber() : method;
+    }
+
+    private static final class Weights {
+        private final String source;
+        private final Map<String, Long> sites = new HashMap<>();
+        private final Map<String, Long> classes = new HashMap<>();
+        private long bytes;
+        private long events;
+
+        Weights(String source) {
+            this.source = source;
+        }
+
+        void add(RecordedEvent event, long weight) {
+            sites.merge(site(event.getStackTrace()), weight, Long::sum);
+            classes.merge(event.getClass("objectClass").getName(), weight, Long::sum);
+            bytes += weight;
+            events++;
+        }
+    }
+}
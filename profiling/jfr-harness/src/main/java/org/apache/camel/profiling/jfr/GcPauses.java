@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.jfr;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+
+/**
+ * The distribution of the pauses of the garbage collections by collector, from the jdk.GarbageCollection events: the
+ * pause of a collection is the sum of its pauses, as a concurrent collection pauses more than once.
+ */
+final class GcPauses implements Section {
+    private static final double[] PERCENTILES = { 50, 90, 99 };
+
+    private final Map<String, List<Long>> pauses = new TreeMap<>();
+
+    @Override
+    public void accept(RecordedEvent event) {
+        if ("jdk.GarbageCollection".equals(event.getEventType().getName())) {
+            pauses.computeIfAbsent(event.getString("name"), name -> new ArrayList<>())
+                    .add(event.getDuration("sumOfPauses").toNanos());
+        }
+    }
+
+    @Override
+    public void appendText(StringBuilder sb, Duration recording) {
+        long[] all = all();
+        long total = Arrays.stream(all).sum();
+        sb.append(String.format(Locale.ROOT, "GC pauses: %d collections, %.1f ms paused, %.2f%% of the recording%n",
+                all.length, total / 1e6, JfrReport.percent(total, recording.toNanos())));
+        if (all.length == 0) {
+            return;
+        }
+        sb.append(String.format(Locale.ROOT, "%-20s %8s %12s %10s %10s %10s %10s%n",
+                "Collector", "Count", "Total (ms)", "p50 (ms)", "p90 (ms)", "p99 (ms)", "Max (ms)"));
+        for (Map.Entry<String, List<Long>> entry : pauses.entrySet()) {
+            appendRow(sb, entry.getKey(), sorted(entry.getValue()));
+        }
+        if (pauses.size() > 1) {
+            appendRow(sb, "all", all);
+        }
+    }
+
+    private static void appendRow(StringBuilder sb, String collector, long[] sorted) {
+        sb.append(String.format(Locale.ROOT, "%-20s %8d %12.1f %10.2f %10.2f %10.2f %10.2f%n",
+                collector, sorted.length, Arrays.stream(sorted).sum() / 1e6, percentile(sorted, 50) / 1e6,
+                percentile(sorted, 90) / 1e6, percentile(sorted, 99) / 1e6, sorted[sorted.length - 1] / 1e6));
+    }
+
+    @Override
+    public Map<String, Object> toJson(Duration recording) {
+        long[] all = all();
+        long total = Arrays.stream(all).sum();
+        Map<String, Object> answer = new LinkedHashMap<>();
+        answer.put("collections", all.length);
+        answer.put("pausedMillis", total / 1e6);
+        answer.put("pausedPercent", JfrReport.percent(total, recording.toNanos()));
+        Map<String, Object> collectors = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Long>> entry : pauses.entrySet()) {
+            collectors.put(entry.getKey(), distribution(sorted(entry.getValue())));
+        }
+        answer.put("collectors", collectors);
+        if (all.length > 0) {
+            answer.put("all", distribution(all));
+        }
+        return answer;
+    }
+
+    private static Map<String, Object> distribution(long[] sorted) {
+        Map<String, Object> answer = new LinkedHashMap<>();
+        answer.put("count", sorted.length);
+        answer.put("totalMillis", Arrays.stream(sorted).sum() / 1e6);
+        for (double percentile : PERCENTILES) {
+            answer.put("p" + (int) percentile + "Millis", percentile(sorted, percentile) / 1e6);
+        }
+        answer.put("maxMillis", sorted[sorted.length - 1] / 1e6);
+        return answer;
+    }
+
+    private long[] all() {
+        return sorted(pauses.values().stream().flatMap(List::stream).toList());
+    }
+
+    private static long[] sorted(List<Long> values) {
+        long[] answer = values.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(answer);
+        return answer;
+    }
+
+    /**
+     * The nearest rank percentile of the sorted values
+     */
+    static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
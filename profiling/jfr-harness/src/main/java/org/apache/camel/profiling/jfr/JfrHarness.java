@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.jfr;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a profiling application with JFR under load for a fixed time, and reports on the recording, so a profiling
+ * session gives the same text and JSON report every time instead of a manual session in Mission Control.
+ * <p/>
+ * The application is the command given after --, started with the JFR options in JDK_JAVA_OPTIONS, so it can be any
+ * java command. The recording uses the settings_for_heap.jfc of the module run from, starts after the warmup, and is
+ * dumped when the application exits, on the SIGTERM sent at the end of the run. The load, when there is one, is a
+ * shell command run from the start until the end, such as the burst script of a Kafka application.
+ */
+public final class JfrHarness {
+    public static final String DEFAULT_SETTINGS = "jfr/settings_for_heap.jfc";
+
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private JfrHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String settings = Files.exists(Paths.get(DEFAULT_SETTINGS)) ? DEFAULT_SETTINGS : "profile";
+        long warmup = 10;
+        long duration = 60;
+        String load = null;
+        Path output = Paths.get("target", "jfr");
+        int top = JfrReport.DEFAULT_TOP;
+        List<String> command = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--settings".equals(args[i]) && i + 1 < args.length) {
+                settings = args[++i];
+            } else if ("--warmup".equals(args[i]) && i + 1 < args.length) {
+                warmup = Long.parseLong(args[++i]);
+            } else if ("--duration".equals(args[i]) && i + 1 < args.length) {
+                duration = Long.parseLong(args[++i]);
+            } else if ("--load".equals(args[i]) && i + 1 < args.length) {
+                load = args[++i];
+            } else if ("--output".equals(args[i]) && i + 1 < args.length) {
+                output = Paths.get(args[++i]);
+            } else if ("--top".equals(args[i]) && i + 1 < args.length) {
+                top = Integer.parseInt(args[++i]);
+            } else if ("--".equals(args[i])) {
+                command.addAll(Arrays.asList(args).subList(i + 1, args.length));
+                break;
+            } else {
+                System.err.println("Unexpected argument: " + args[i]);
+                command.clear();
+                break;
+            }
+        }
+        if (command.isEmpty()) {
+            System.err.println("Usage: JfrHarness [--settings <jfc file>|profile|default] [--warmup <seconds>] "
+                               + "[--duration <seconds>] [--load <shell command>] [--output <directory>] "
+                               + "[--top <entries>] -- <java command of the application>");
+            System.exit(2);
+        }
+
+        Files.createDirectories(output);
+        Path recording = output.resolve("recording.jfr").toAbsolutePath();
+        Files.deleteIfExists(recording);
+        if (Files.exists(Paths.get(settings))) {
+            settings = Paths.get(settings).toAbsolutePath().toString();
+        }
+
+        ProcessBuilder builder = new ProcessBuilder(command).inheritIO();
+        String options = builder.environment().get("JDK_JAVA_OPTIONS");
+        builder.environment().put("JDK_JAVA_OPTIONS", (options != null ? options + " " : "")
+                                                      + flightRecorderOption(settings, warmup, recording));
+        Process application = builder.start();
+        Process loader = load != null ? new ProcessBuilder("/bin/sh", "-c", load).inheritIO().start() : null;
+        Thread hook = new Thread(() -> {
+            stop(loader);
+            stop(application);
+        });
+        Runtime.getRuntime().addShutdownHook(hook);
+
+        System.out.println("Started the application, recording " + duration + " seconds after " + warmup
+                           + " seconds of warmup with the " + settings + " settings");
+        try {
+            if (application.waitFor(warmup + duration, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("The application exited with " + application.exitValue()
+                                                + " before the end of the run");
+            }
+        } finally {
+            System.out.println("Stopping the application and the load");
+            stop(application);
+            stop(loader);
+            Runtime.getRuntime().removeShutdownHook(hook);
+        }
+
+        if (!Files.exists(recording)) {
+            throw new IllegalStateException("No recording in " + recording + ", the application has to exit on "
+                                            + "SIGTERM for the recording to be dumped");
+        }
+        JfrReport report = JfrReport.read(recording, top);
+        Files.writeString(output.resolve("report.txt"), report.toText(), StandardCharsets.UTF_8);
+        Files.writeString(output.resolve("report.json"), report.toJson(), StandardCharsets.UTF_8);
+        System.out.println();
+        System.out.print(report.toText());
+        System.out.println();
+        System.out.println("The recording and the reports are in " + output.toAbsolutePath());
+    }
+
+    /**
+     * The option of the java command starting the recording, dumped when the JVM exits
+     */
+    static String flightRecorderOption(String settings, long delaySeconds, Path recording) {
+        if (settings.contains(",") || settings.contains(" ") || recording.toString().contains(",")
+                || recording.toString().contains(" ")) {
+            throw new IllegalArgumentException("The settings and the output cannot have commas or spaces in their "
+                                               + "path: " + settings + ", " + recording);
+        }
+        return "-XX:StartFlightRecording=" + (delaySeconds > 0 ? "delay=" + delaySeconds + "s," : "")
+               + "settings=" + settings + ",filename=" + recording + ",dumponexit=true";
+    }
+
+    /**
+     * Sends SIGTERM to the process and to its children, as the command can be a script, then kills what is left
+     */
+    private static void stop(Process process) {
+        if (process == null || !process.isAlive()) {
+            return;
+        }
+        List<ProcessHandle> handles = new ArrayList<>();
+        process.descendants().forEach(handles::add);
+        handles.add(process.toHandle());
+        handles.forEach(ProcessHandle::destroy);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(STOP_TIMEOUT_SECONDS);
+        for (ProcessHandle handle : handles) {
+            try {
+                handle.onExit().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                handle.destroyForcibly();
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.jfr;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * A report of a JFR recording, read with the jdk.jfr.consumer API: the top allocation sites and classes, the
+ * distribution of the GC pauses and how the CPU splits between the threads. It is written as text, to read, and as
+ * JSON, to compare two runs.
+ * <p/>
+ * It can report on any recording, such as the jfr/output.jfr of the applications run with the jfr profile, with
+ * {@link #main(String[])}.
+ */
+public final class JfrReport {
+    public static final int DEFAULT_TOP = 20;
+
+    private final Path recording;
+    private final List<Section> sections = new ArrayList<>();
+    private Instant start;
+    private Instant end;
+    private long events;
+
+    private JfrReport(Path recording, int top) {
+        this.recording = recording;
+        sections.add(new AllocationSites(top));
+        sections.add(new GcPauses());
+        sections.add(new ThreadCpu(top));
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path recording = null;
+        int top = DEFAULT_TOP;
+        Path json = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--top".equals(args[i]) && i + 1 < args.length) {
+                top = Integer.parseInt(args[++i]);
+            } else if ("--json".equals(args[i]) && i + 1 < args.length) {
+                json = Paths.get(args[++i]);
+            } else if (recording == null && !args[i].startsWith("--")) {
+                recording = Paths.get(args[i]);
+            } else {
+                System.err.println("Unexpected argument: " + args[i]);
+                recording = null;
+                break;
+            }
+        }
+        if (recording == null) {
+            System.err.println("Usage: JfrReport <recording.jfr> [--top <entries>] [--json <file>]");
+            System.exit(2);
+        }
+
+        JfrReport report = read(recording, top);
+        System.out.print(report.toText());
+        if (json != null) {
+            Files.writeString(json, report.toJson(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Reads the recording, keeping the given number of entries in the tables of the report
+     */
+    public static JfrReport read(Path recording, int top) throws IOException {
+        JfrReport report = new JfrReport(recording, top);
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                report.accept(file.readEvent());
+            }
+        }
+        return report;
+    }
+
+    private void accept(RecordedEvent event) {
+        events++;
+        if (start == null || event.getStartTime().isBefore(start)) {
+            start = event.getStartTime();
+        }
+        if (end == null || event.getEndTime().isAfter(end)) {
+            end = event.getEndTime();
+        }
+        for (Section section : sections) {
+            section.accept(event);
+        }
+    }
+
+    /**
+     * The time from the first to the last event of the recording
+     */
+    public Duration getDuration() {
+        return start != null ? Duration.between(start, end) : Duration.ZERO;
+    }
+
+    public String toText() {
+        Duration duration = getDuration();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Recording: %s, %.1f s, %d events%n", recording,
+                duration.toMillis() / 1000.0, events));
+        for (Section section : sections) {
+            sb.append('\n');
+            section.appendText(sb, duration);
+        }
+        return sb.toString();
+    }
+
+    public String toJson() {
+        Duration duration = getDuration();
+        Map<String, Object> answer = new LinkedHashMap<>();
+        answer.put("recording", recording.toString());
+        answer.put("durationSeconds", duration.toMillis() / 1000.0);
+        answer.put("events", events);
+        answer.put("allocations", sections.get(0).toJson(duration));
+        answer.put("gcPauses", sections.get(1).toJson(duration));
+        answer.put("threadCpu", sections.get(2).toJson(duration));
+        return Json.write(answer);
+    }
+
+    static List<Map.Entry<String, Long>> top(Map<String, Long> values, int top) {
+        List<Map.Entry<String, Long>> answer = new ArrayList<>(values.entrySet());
+        answer.sort(Map.Entry.<String, Long> comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        return answer.size() > top ? answer.subList(0, top) : answer;
+    }
+
+    static double percent(long value, long total) {
+        return total > 0 ? value * 100.0 / total : 0;
+    }
+
+    static long perSecond(long value, Duration duration) {
+        return duration.toMillis() > 0 ? value * 1000 / duration.toMillis() : 0;
+    }
+
+    static String bytes(long bytes) {
+        if (bytes >= 1L << 30) {
+            return String.format(Locale.ROOT, "%.2f GB", bytes / (double) (1L << 30));
+        } else if (bytes >= 1L << 20) {
+            return String.format(Locale.ROOT, "%.1f MB", bytes / (double) (1L << 20));
+        } else if (bytes >= 1L << 10) {
+            return String.format(Locale.ROOT, "%.1f KB", bytes / (double) (1L << 10));
+        }
+        return bytes + " B";
+    }
+}
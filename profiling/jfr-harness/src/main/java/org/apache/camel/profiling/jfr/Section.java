@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.jfr;
+
+import java.time.Duration;
+import java.util.Map;
+
+import jdk.jfr.consumer.RecordedEvent;
+
+/**
+ * A part of a {@link JfrReport}, built from the events of the recording one at a time.
+ */
+interface Section {
+
+    /**
+     * Takes the event into account, when it is one of the events of the section
+     */
+    void accept(RecordedEvent event);
+
+    /**
+     * Appends the section as text, the recording lasting the given duration
+     */
+    void appendText(StringBuilder sb, Duration recording);
+
+    /**
+     * The section as the maps, lists, strings and numbers written by {@link Json}
+     */
+    Map<String, Object> toJson(Duration recording);
+}
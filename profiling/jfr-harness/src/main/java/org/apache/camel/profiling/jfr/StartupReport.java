@@ -0,0 +1,357 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.jfr;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * A report of the startup of Camel from the recording of the JFR startup recorder, turned on with
+ * {@code camel.main.startup-recorder = jfr}: every startup step of Camel is a {@code org.apache.camel.spi.CamelEvent}
+ * event, with the step it is nested in.
+ * <p/>
+ * The steps are ranked by their self time, the time of a step without the steps nested in it, summed by kind of step,
+ * such as the resolution of the components, the setup of the type converters or the creation of the routes, so the
+ * ranking adds up to the startup and nothing is counted twice. The recordings of several runs, such as with
+ * {@code camel.main.lightweight} on and off, are reported side by side.
+ */
+public final class StartupReport {
+    public static final String EVENT = "org.apache.camel.spi.CamelEvent";
+
+    private final Path recording;
+    private final List<Step> steps = new ArrayList<>();
+
+    private StartupReport(Path recording) {
+        this.recording = recording;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Path> recordings = new ArrayList<>();
+        List<String> labels = null;
+        int top = JfrReport.DEFAULT_TOP;
+        Path json = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--top".equals(args[i]) && i + 1 < args.length) {
+                top = Integer.parseInt(args[++i]);
+            } else if ("--labels".equals(args[i]) && i + 1 < args.length) {
+                labels = Arrays.asList(args[++i].split(","));
+            } else if ("--json".equals(args[i]) && i + 1 < args.length) {
+                json = Paths.get(args[++i]);
+            } else if (!args[i].startsWith("--")) {
+                recordings.add(Paths.get(args[i]));
+            } else {
+                System.err.println("Unexpected argument: " + args[i]);
+                recordings.clear();
+                break;
+            }
+        }
+        if (recordings.isEmpty() || labels != null && labels.size() != recordings.size()) {
+            System.err.println("Usage: StartupReport <recording.jfr>... [--labels <label>,...] [--top <entries>] "
+                               + "[--json <file>]");
+            System.exit(2);
+        }
+
+        List<StartupReport> reports = new ArrayList<>();
+        for (Path recording : recordings) {
+            StartupReport report = read(recording);
+            if (report.steps.isEmpty()) {
+                System.err.println("No startup step in " + recording + ", was it recorded with "
+                                   + "camel.main.startup-recorder = jfr?");
+                System.exit(1);
+            }
+            reports.add(report);
+        }
+        if (labels == null) {
+            labels = new ArrayList<>();
+            for (Path recording : recordings) {
+                labels.add(recording.getFileName().toString().replace(".jfr", ""));
+            }
+        }
+
+        if (reports.size() == 1) {
+            System.out.print(reports.get(0).toText(top));
+        } else {
+            // the recordings of the same label are averaged
+            Map<String, List<StartupReport>> runs = new LinkedHashMap<>();
+            for (int i = 0; i < reports.size(); i++) {
+                StartupReport report = reports.get(i);
+                runs.computeIfAbsent(labels.get(i), label -> new ArrayList<>()).add(report);
+                System.out.println(String.format(Locale.ROOT, "%s: %s, %d startup steps, %.1f ms in the steps",
+                        labels.get(i), report.recording, report.steps.size(), report.getStepsNanos() / 1e6));
+            }
+            System.out.println();
+            System.out.print(compare(runs, top));
+        }
+        if (json != null) {
+            List<Object> answer = new ArrayList<>();
+            for (int i = 0; i < reports.size(); i++) {
+                answer.add(reports.get(i).toJson(labels.get(i)));
+            }
+            Files.writeString(json, Json.write(Map.of("recordings", answer)), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Reads the startup steps of the recording
+     */
+    public static StartupReport read(Path recording) throws IOException {
+        StartupReport report = new StartupReport(recording);
+        Map<Integer, Step> byId = new HashMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (EVENT.equals(event.getEventType().getName())) {
+                    Step step = new Step(event);
+                    report.steps.add(step);
+                    byId.put(step.id, step);
+                }
+            }
+        }
+        // the events of the nested steps are committed before the event of their parent
+        report.steps.sort(Comparator.comparing((Step step) -> step.start).thenComparingInt(step -> step.depth));
+        for (Step step : report.steps) {
+            step.parent = byId.get(step.parentId);
+            if (step.parent != null) {
+                step.parent.selfNanos -= step.nanos;
+            }
+        }
+        return report;
+    }
+
+    /**
+     * The time of the steps that are not nested in another one, which is the time of the startup spent in the steps
+     */
+    public long getStepsNanos() {
+        return steps.stream().filter(step -> step.parent == null).mapToLong(step -> step.nanos).sum();
+    }
+
+    /**
+     * The time from the start of the first step to the end of the last one, which includes the time between the steps
+     */
+    public Duration getDuration() {
+        Instant first = steps.get(0).start;
+        Instant last = first;
+        for (Step step : steps) {
+            Instant end = step.start.plusNanos(step.nanos);
+            if (end.isAfter(last)) {
+                last = end;
+            }
+        }
+        return Duration.between(first, last);
+    }
+
+    /**
+     * The kinds of steps by their self time, the most first, each with its count, self and inclusive time in nanos
+     */
+    private List<Map.Entry<String, long[]>> kinds() {
+        Map<String, long[]> kinds = new LinkedHashMap<>();
+        for (Step step : steps) {
+            long[] kind = kinds.computeIfAbsent(step.kind(), k -> new long[3]);
+            kind[0]++;
+            kind[1] += Math.max(0, step.selfNanos);
+            if (!step.isNestedInSameKind()) {
+                kind[2] += step.nanos;
+            }
+        }
+        List<Map.Entry<String, long[]>> answer = new ArrayList<>(kinds.entrySet());
+        answer.sort(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[1]).reversed());
+        return answer;
+    }
+
+    public String toText(int top) {
+        long total = getStepsNanos();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Recording: %s, %d startup steps, %.1f ms in the steps, %.1f ms from the "
+                                             + "first to the last%n",
+                recording, steps.size(), total / 1e6, getDuration().toNanos() / 1e6));
+
+        sb.append(String.format(Locale.ROOT, "%nPhases, the steps not nested in another one%n"));
+        sb.append(String.format(Locale.ROOT, "%10s %7s  %s%n", "Time (ms)", "%", "Phase"));
+        for (Step step : steps) {
+            if (step.parent == null) {
+                sb.append(String.format(Locale.ROOT, "%10.1f %6.2f%%  %s%n", step.nanos / 1e6,
+                        JfrReport.percent(step.nanos, total), step.kind()));
+            }
+        }
+
+        List<Map.Entry<String, long[]>> kinds = kinds();
+        sb.append(String.format(Locale.ROOT, "%nSteps by self time, without the steps nested in them%n"));
+        sb.append(String.format(Locale.ROOT, "%10s %7s %6s %10s  %s%n", "Self (ms)", "%", "Count", "Incl (ms)",
+                "Step"));
+        for (Map.Entry<String, long[]> entry : kinds.subList(0, Math.min(top, kinds.size()))) {
+            long[] kind = entry.getValue();
+            sb.append(String.format(Locale.ROOT, "%10.1f %6.2f%% %6d %10.1f  %s%n", kind[1] / 1e6,
+                    JfrReport.percent(kind[1], total), kind[0], kind[2] / 1e6, entry.getKey()));
+        }
+
+        List<Step> slowest = new ArrayList<>(steps);
+        slowest.sort(Comparator.comparingLong((Step step) -> step.selfNanos).reversed());
+        sb.append(String.format(Locale.ROOT, "%nSlowest steps by self time%n"));
+        sb.append(String.format(Locale.ROOT, "%10s %10s  %s%n", "Self (ms)", "Incl (ms)", "Step"));
+        for (Step step : slowest.subList(0, Math.min(top, slowest.size()))) {
+            sb.append(String.format(Locale.ROOT, "%10.1f %10.1f  %s%s%n", step.selfNanos / 1e6, step.nanos / 1e6,
+                    step.kind(), step.name != null ? ": " + step.name : ""));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The self time of the kinds of steps side by side, averaged over the recordings of every label, in the order of
+     * the first label, and the difference of the last label with the first
+     */
+    static String compare(Map<String, List<StartupReport>> runs, int top) {
+        List<String> headers = new ArrayList<>();
+        int width = 10;
+        for (Map.Entry<String, List<StartupReport>> entry : runs.entrySet()) {
+            String header = entry.getValue().size() > 1
+                    ? entry.getKey() + " (" + entry.getValue().size() + ")" : entry.getKey();
+            headers.add(header);
+            width = Math.max(width, header.length());
+        }
+        String column = " %" + width + "s";
+        String value = " %" + width + ".1f";
+
+        // the mean self time of every kind of step, and the mean time of all the steps under null
+        List<Map<String, Double>> means = new ArrayList<>();
+        List<String> order = new ArrayList<>();
+        for (List<StartupReport> reports : runs.values()) {
+            Map<String, Double> mean = new HashMap<>();
+            for (StartupReport report : reports) {
+                mean.merge(null, report.getStepsNanos() / (double) reports.size(), Double::sum);
+                for (Map.Entry<String, long[]> entry : report.kinds()) {
+                    mean.merge(entry.getKey(), entry.getValue()[1] / (double) reports.size(), Double::sum);
+                    if (!order.contains(entry.getKey())) {
+                        order.add(entry.getKey());
+                    }
+                }
+            }
+            means.add(mean);
+        }
+        Map<String, Double> first = means.get(0);
+        order.sort(Comparator.comparingDouble((String kind) -> first.getOrDefault(kind, 0.0)).reversed());
+        order.add(0, null);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Self time of the steps (ms), side by side%n"));
+        for (String header : headers) {
+            sb.append(String.format(Locale.ROOT, column, header));
+        }
+        sb.append(String.format(Locale.ROOT, " %10s  %s%n", "Difference", "Step"));
+        for (String kind : order.subList(0, Math.min(top + 1, order.size()))) {
+            for (Map<String, Double> mean : means) {
+                Double nanos = mean.get(kind);
+                sb.append(nanos != null ? String.format(Locale.ROOT, value, nanos / 1e6)
+                        : String.format(Locale.ROOT, column, "-"));
+            }
+            double difference = means.get(means.size() - 1).getOrDefault(kind, 0.0) - first.getOrDefault(kind, 0.0);
+            sb.append(String.format(Locale.ROOT, " %+10.1f  %s%n", difference / 1e6,
+                    kind != null ? kind : "all the steps"));
+        }
+        return sb.toString();
+    }
+
+    public Map<String, Object> toJson(String label) {
+        Map<String, Object> answer = new LinkedHashMap<>();
+        answer.put("label", label);
+        answer.put("recording", recording.toString());
+        answer.put("steps", steps.size());
+        answer.put("stepsMillis", getStepsNanos() / 1e6);
+        answer.put("durationMillis", getDuration().toNanos() / 1e6);
+        List<Object> phases = new ArrayList<>();
+        for (Step step : steps) {
+            if (step.parent == null) {
+                Map<String, Object> phase = new LinkedHashMap<>();
+                phase.put("phase", step.kind());
+                phase.put("millis", step.nanos / 1e6);
+                phases.add(phase);
+            }
+        }
+        answer.put("phases", phases);
+        List<Object> kinds = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : kinds()) {
+            Map<String, Object> kind = new LinkedHashMap<>();
+            kind.put("step", entry.getKey());
+            kind.put("count", entry.getValue()[0]);
+            kind.put("selfMillis", entry.getValue()[1] / 1e6);
+            kind.put("inclusiveMillis", entry.getValue()[2] / 1e6);
+            kinds.add(kind);
+        }
+        answer.put("stepsBySelfTime", kinds);
+        return answer;
+    }
+
+    /**
+     * A startup step of Camel
+     */
+    private static final class Step {
+        private final int id;
+        private final int parentId;
+        private final int depth;
+        private final String type;
+        private final String description;
+        private final String name;
+        private final Instant start;
+        private final long nanos;
+        private long selfNanos;
+        private Step parent;
+
+        private Step(RecordedEvent event) {
+            id = event.getInt("id");
+            parentId = event.getInt("parentId");
+            depth = event.getInt("depth");
+            type = event.getString("type");
+            description = event.getString("description");
+            name = event.getString("name");
+            start = event.getStartTime();
+            nanos = event.getDuration().toNanos();
+            selfNanos = nanos;
+        }
+
+        /**
+         * The kind of the step, its description and type, such as {@code Resolve Component (Component)}
+         */
+        private String kind() {
+            return description + " (" + type + ")";
+        }
+
+        private boolean isNestedInSameKind() {
+            for (Step ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+                if (ancestor.kind().equals(kind())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
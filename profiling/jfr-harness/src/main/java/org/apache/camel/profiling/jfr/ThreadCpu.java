@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.jfr;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+
+/**
+ * How the CPU splits between the threads: the average of the jdk.ThreadCPULoad events of every thread, in percent of
+ * all the CPUs of the machine, and the share of the jdk.ExecutionSample events, which only sample the threads running
+ * Java code.
+ */
+final class ThreadCpu implements Section {
+    private final int top;
+    private final Map<String, Load> threads = new HashMap<>();
+    private long executionSamples;
+
+    ThreadCpu(int top) {
+        this.top = top;
+    }
+
+    @Override
+    public void accept(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case "jdk.ThreadCPULoad":
+                Load load = load(event.getThread());
+                load.user += event.getFloat("user");
+                load.system += event.getFloat("system");
+                load.loads++;
+                break;
+            case "jdk.ExecutionSample":
+                load(event.getThread("sampledThread")).executionSamples++;
+                executionSamples++;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private Load load(RecordedThread thread) {
+        String name = thread == null ? "<unknown>"
+                : thread.getJavaName() != null ? thread.getJavaName() : thread.getOSName();
+        return threads.computeIfAbsent(name, Load::new);
+    }
+
+    private List<Load> top() {
+        List<Load> answer = new ArrayList<>(threads.values());
+        answer.sort(Comparator.comparingDouble(Load::total).thenComparingLong(load -> load.executionSamples)
+                .reversed());
+        return answer.size() > top ? answer.subList(0, top) : answer;
+    }
+
+    @Override
+    public void appendText(StringBuilder sb, Duration recording) {
+        double user = 0;
+        double system = 0;
+        for (Load load : threads.values()) {
+            user += load.user();
+            system += load.system();
+        }
+        sb.append(String.format(Locale.ROOT, "Thread CPU: %d threads, %.2f%% user and %.2f%% system of the machine, "
+                                             + "%d execution samples%n",
+                threads.size(), user, system, executionSamples));
+        if (threads.isEmpty()) {
+            return;
+        }
+        sb.append(String.format(Locale.ROOT, "%8s %9s %9s %9s  %s%n", "User %", "System %", "Samples", "Samples %",
+                "Thread"));
+        for (Load load : top()) {
+            sb.append(String.format(Locale.ROOT, "%8.2f %9.2f %9d %9.2f  %s%n", load.user(), load.system(),
+                    load.executionSamples, JfrReport.percent(load.executionSamples, executionSamples), load.name));
+        }
+    }
+
+    @Override
+    public Map<String, Object> toJson(Duration recording) {
+        Map<String, Object> answer = new LinkedHashMap<>();
+        answer.put("threads", threads.size());
+        answer.put("executionSamples", executionSamples);
+        List<Object> list = new ArrayList<>();
+        for (Load load : top()) {
+            Map<String, Object> thread = new LinkedHashMap<>();
+            thread.put("thread", load.name);
+            thread.put("userPercent", load.user());
+            thread.put("systemPercent", load.system());
+            thread.put("executionSamples", load.executionSamples);
+            thread.put("executionSamplesPercent", JfrReport.percent(load.executionSamples, executionSamples));
+            list.add(thread);
+        }
+        answer.put("top", list);
+        return answer;
+    }
+
+    private static final class Load {
+        private final String name;
+        private double user;
+        private double system;
+        private int loads;
+        private long executionSamples;
+
+        Load(String name) {
+            this.name = name;
+        }
+
+        double user() {
+            return loads > 0 ? user * 100 / loads : 0;
+        }
+
+        double system() {
+            return loads > 0 ? system * 100 / loads : 0;
+        }
+
+        double total() {
+            return user() + system();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.jfr;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AllocationSitesTest {
+    // keeps the arrays reachable, so the allocations cannot be optimized away
+    private final List<Object> allocated = new ArrayList<>();
+
+    @Test
+    public void testNoStackTrace() {
+        assertEquals("<no stack trace>", AllocationSites.site(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSiteIsTheFirstFrameOutsideTheJdk(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("allocations.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.ObjectAllocationOutsideTLAB").withStackTrace();
+            recording.enable("jdk.ObjectAllocationInNewTLAB").withStackTrace();
+            recording.start();
+            allocate();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        AllocationSites sites = new AllocationSites(5);
+        List<String> fromTest = new ArrayList<>();
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                sites.accept(event);
+                if (event.getStackTrace() != null
+                        && event.getThread() != null && Thread.currentThread().getName()
+                                .equals(event.getThread().getJavaName())) {
+                    fromTest.add(AllocationSites.site(event.getStackTrace()));
+                }
+            }
+        }
+
+        // the element arrays are allocated in the ArrayList constructor, the site is the caller outside the JDK
+        String allocate = AllocationSitesTest.class.getName() + ".allocate:";
+        assertFalse(fromTest.isEmpty(), "the allocations of the test are recorded");
+        assertTrue(fromTest.stream().allMatch(site -> site.startsWith(allocate)),
+                "the site of the allocations is the test: " + fromTest);
+
+        Map<String, Object> json = sites.toJson(Duration.ofSeconds(1));
+        List<Map<String, Object>> top = (List<Map<String, Object>>) json.get("sites");
+        assertTrue(top.size() <= 5, "the top is kept");
+        assertTrue((Long) json.get("bytes") > 0);
+    }
+
+    private void allocate() {
+        for (int i = 0; i < 64; i++) {
+            // the byte arrays are larger than a TLAB
+            List<byte[]> list = new ArrayList<>(1);
+            list.add(new byte[4 * 1024 * 1024]);
+            allocated.add(list);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.jfr;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GcPausesTest {
+
+    @Test
+    public void testPercentileIsNearestRank() {
+        long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+
+        assertEquals(1, GcPauses.percentile(sorted, 0));
+        assertEquals(50, GcPauses.percentile(sorted, 50));
+        assertEquals(90, GcPauses.percentile(sorted, 90));
+        assertEquals(99, GcPauses.percentile(sorted, 99));
+        assertEquals(100, GcPauses.percentile(sorted, 99.9));
+        assertEquals(100, GcPauses.percentile(sorted, 100));
+    }
+
+    @Test
+    public void testPercentileOfFewValues() {
+        assertEquals(7, GcPauses.percentile(new long[] { 7 }, 50));
+        assertEquals(7, GcPauses.percentile(new long[] { 7 }, 99));
+        assertEquals(1, GcPauses.percentile(new long[] { 1, 2, 3, 4 }, 25));
+        assertEquals(2, GcPauses.percentile(new long[] { 1, 2, 3, 4 }, 50));
+        assertEquals(4, GcPauses.percentile(new long[] { 1, 2, 3, 4 }, 90));
+    }
+
+    @Test
+    public void testNoCollection() {
+        GcPauses pauses = new GcPauses();
+
+        StringBuilder sb = new StringBuilder();
+        pauses.appendText(sb, Duration.ofSeconds(1));
+        Map<String, Object> json = pauses.toJson(Duration.ofSeconds(1));
+
+        assertEquals("GC pauses: 0 collections, 0.0 ms paused, 0.00% of the recording\n", sb.toString());
+        assertEquals(0, json.get("collections"));
+        assertEquals(Map.of(), json.get("collectors"));
+        assertFalse(json.containsKey("all"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRecordedCollections(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("gc.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.GarbageCollection");
+            recording.start();
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        GcPauses pauses = new GcPauses();
+        int collections = 0;
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                if ("jdk.GarbageCollection".equals(event.getEventType().getName())) {
+                    collections++;
+                }
+                pauses.accept(event);
+            }
+        }
+        Map<String, Object> json = pauses.toJson(Duration.ofSeconds(1));
+
+        assertTrue(collections >= 3, "System.gc() is recorded");
+        assertEquals(collections, json.get("collections"));
+        Map<String, Object> all = (Map<String, Object>) json.get("all");
+        assertEquals(collections, all.get("count"));
+        double p50 = (Double) all.get("p50Millis");
+        double p99 = (Double) all.get("p99Millis");
+        double max = (Double) all.get("maxMillis");
+        assertTrue(p50 <= p99 && p99 <= max, "the percentiles are ordered");
+        assertFalse(((Map<String, Object>) json.get("collectors")).isEmpty());
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.jfr;
+
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JfrHarnessTest {
+
+    @Test
+    public void testFlightRecorderOption() {
+        assertEquals("-XX:StartFlightRecording=delay=30s,settings=profile,filename=target/jfr/recording.jfr,"
+                     + "dumponexit=true",
+                JfrHarness.flightRecorderOption("profile", 30, Paths.get("target/jfr/recording.jfr")));
+    }
+
+    @Test
+    public void testFlightRecorderOptionWithoutWarmup() {
+        assertEquals("-XX:StartFlightRecording=settings=jfr/settings_for_heap.jfc,filename=out.jfr,dumponexit=true",
+                JfrHarness.flightRecorderOption("jfr/settings_for_heap.jfc", 0, Paths.get("out.jfr")));
+    }
+
+    @Test
+    public void testFlightRecorderOptionRejectsSeparators() {
+        assertThrows(IllegalArgumentException.class,
+                () -> JfrHarness.flightRecorderOption("my settings.jfc", 0, Paths.get("out.jfr")));
+        assertThrows(IllegalArgumentException.class,
+                () -> JfrHarness.flightRecorderOption("profile", 0, Paths.get("a,b.jfr")));
+    }
+}
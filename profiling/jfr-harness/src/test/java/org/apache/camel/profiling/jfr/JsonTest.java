@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.jfr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JsonTest {
+
+    @Test
+    public void testValues() {
+        assertEquals("1\n", Json.write(1));
+        assertEquals("12345678901\n", Json.write(12345678901L));
+        assertEquals("1.500\n", Json.write(1.5));
+        assertEquals("0.333\n", Json.write(1.0 / 3));
+        assertEquals("true\n", Json.write(true));
+        assertEquals("null\n", Json.write(null));
+        assertEquals("\"text\"\n", Json.write("text"));
+    }
+
+    @Test
+    public void testNotFiniteNumbersAreNull() {
+        assertEquals("null\n", Json.write(Double.NaN));
+        assertEquals("null\n", Json.write(Double.POSITIVE_INFINITY));
+        assertEquals("null\n", Json.write(Float.NaN));
+    }
+
+    @Test
+    public void testEscapes() {
+        assertEquals("\"a\\\"b\\\\c\\nd\\re\\tf\\u0001g\"\n", Json.write("a\"b\\c\nd\re\tf\u0001g"));
+        assertEquals("\"java.util.HashMap.resize:700\"\n", Json.write("java.util.HashMap.resize:700"));
+    }
+
+    @Test
+    public void testEmptyMapAndList() {
+        assertEquals("{}\n", Json.write(Map.of()));
+        assertEquals("[]\n", Json.write(List.of()));
+    }
+
+    @Test
+    public void testNestedIndentedInOrder() {
+        Map<String, Object> site = new LinkedHashMap<>();
+        site.put("site", "Foo.bar:12");
+        site.put("bytes", 2048L);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("events", 3);
+        report.put("sites", List.of(site));
+        report.put("empty", new ArrayList<>());
+        report.put("values", Arrays.asList(1, null));
+
+        assertEquals("{\n"
+                     + "  \"events\": 3,\n"
+                     + "  \"sites\": [\n"
+                     + "    {\n"
+                     + "      \"site\": \"Foo.bar:12\",\n"
+                     + "      \"bytes\": 2048\n"
+                     + "    }\n"
+                     + "  ],\n"
+                     + "  \"empty\": [],\n"
+                     + "  \"values\": [\n"
+                     + "    1,\n"
+                     + "    null\n"
+                     + "  ]\n"
+                     + "}\n",
+                Json.write(report));
+    }
+}
@@ -0,0 +1,15 @@
+#!/bin/bash
+
+# Runs a Kafka pipeline with the pooled exchange factory at every capacity of the pool for every count of consumers,
+# building the harness on first use. It needs a Kafka broker, for example the one of the kafka-embedded-broker module:
+#   ../kafka-embedded-broker/script/broker.sh
+# Run it with --help to list all the options. JVM options can be given with JAVA_OPTS.
+
+HARNESS_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+HARNESS_JAR="$HARNESS_DIR/target/exchange-pooling-harness.jar"
+
+if [ ! -f "$HARNESS_JAR" ]; then
+  (cd "$HARNESS_DIR" && mvn -q -B package) || exit 1
+fi
+
+cd "$HARNESS_DIR" && exec java $JAVA_OPTS -cp "$HARNESS_JAR" org.apache.camel.profiling.pooling.CapacitySweep "$@"
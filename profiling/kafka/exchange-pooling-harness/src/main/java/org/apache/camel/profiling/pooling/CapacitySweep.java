@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.pooling;
+
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Runs a Kafka pipeline with the pooled exchange factory at every capacity of the pool for every count of Kafka
+ * consumers, and charts the share of the exchanges taken from the pool against the allocation and the records per
+ * second, with the prototype factory as the baseline of every count of consumers.
+ * <p/>
+ * The Kafka consumers of a route share the exchange factory of the route, so the pool serves as many threads as there
+ * are consumers. An exchange given back to a full pool is discarded, and the next one missing from the pool is created
+ * again, so the sweep reports for every count of consumers the smallest capacity reaching the target hit ratio without
+ * discarding any exchange. It writes every run in a CSV file to chart it elsewhere.
+ */
+public final class CapacitySweep {
+    private static final int BAR_WIDTH = 20;
+
+    private CapacitySweep() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path modules = Paths.get("..");
+        Pipeline pipeline = Pipeline.KAFKA;
+        String server = null;
+        int records = 50000;
+        int warmup = 1;
+        List<Integer> consumerCounts = List.of(1, 2, 4, 8, 16);
+        List<Integer> capacities = List.of(1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024);
+        double target = 0.99;
+        Path csv = Paths.get("target", "capacity-sweep.csv");
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--modules".equals(args[i]) && i + 1 < args.length) {
+                modules = Paths.get(args[++i]);
+            } else if ("--pipeline".equals(args[i]) && i + 1 < args.length) {
+                pipeline = Pipeline.of(args[++i]);
+            } else if ("--server".equals(args[i]) && i + 1 < args.length) {
+                server = args[++i];
+            } else if ("--records".equals(args[i]) && i + 1 < args.length) {
+                records = Integer.parseInt(args[++i]);
+            } else if ("--warmup".equals(args[i]) && i + 1 < args.length) {
+                warmup = Integer.parseInt(args[++i]);
+            } else if ("--consumers".equals(args[i]) && i + 1 < args.length) {
+                consumerCounts = integers(args[++i]);
+            } else if ("--capacities".equals(args[i]) && i + 1 < args.length) {
+                capacities = integers(args[++i]);
+            } else if ("--target-hit-ratio".equals(args[i]) && i + 1 < args.length) {
+                target = Double.parseDouble(args[++i]);
+            } else if ("--csv".equals(args[i]) && i + 1 < args.length) {
+                csv = Paths.get(args[++i]);
+            } else {
+                System.err.println("Unexpected argument: " + args[i]);
+                System.err.println("Usage: CapacitySweep [--modules <Kafka modules directory>] "
+                                   + "[--pipeline kafka|kafka-s3|kafka-mongo] [--server <S3 server>] "
+                                   + "[--records <records>] [--warmup <runs>] [--consumers 1,2,4,8,16] "
+                                   + "[--capacities 1,2,4,...,1024] [--target-hit-ratio <0..1>] [--csv <file>]");
+                System.exit(2);
+            }
+        }
+        if (server == null) {
+            server = pipeline.getDefaultServer();
+        }
+        int maxConsumers = Collections.max(consumerCounts);
+
+        TopicLoad load = new TopicLoad(records, maxConsumers);
+        String groupId = "exchange-pooling-sweep-" + System.currentTimeMillis();
+
+        int run = 0;
+        for (int i = 1; i <= warmup; i++) {
+            for (FactoryMode mode : FactoryMode.values()) {
+                FactoryResult result = ExchangePoolingHarness.run(pipeline, modules, server, load,
+                        groupId + "-" + ++run, maxConsumers, mode, maxConsumers);
+                System.out.println("Warmup " + i + ", " + maxConsumers + " consumers, " + result);
+            }
+        }
+
+        if (csv.getParent() != null) {
+            Files.createDirectories(csv.getParent());
+        }
+        List<String> recommendations = new ArrayList<>();
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv, UTF_8))) {
+            out.println("consumers,factory,capacity,records,seconds,records_per_second,allocated_mb_per_second,"
+                        + "allocated_bytes_per_record,gc_collections,gc_millis,created,acquired,released,discarded,"
+                        + "hit_ratio");
+            for (int consumers : consumerCounts) {
+                List<FactoryResult> results = new ArrayList<>();
+                FactoryResult baseline = ExchangePoolingHarness.run(pipeline, modules, server, load,
+                        groupId + "-" + ++run, consumers, FactoryMode.PROTOTYPE, 0);
+                System.out.println(consumers + " consumers, " + baseline);
+                csv(out, consumers, 0, baseline);
+                for (int capacity : capacities) {
+                    FactoryResult result = ExchangePoolingHarness.run(pipeline, modules, server, load,
+                            groupId + "-" + ++run, consumers, FactoryMode.POOLED, capacity);
+                    System.out.println(consumers + " consumers, capacity " + capacity + ", " + result);
+                    csv(out, consumers, capacity, result);
+                    results.add(result);
+                }
+                out.flush();
+
+                System.out.println();
+                System.out.print(chart(pipeline, consumers, capacities, baseline, results));
+                System.out.println();
+                recommendations.add(recommendation(consumers, capacities, results, target));
+            }
+        }
+
+        System.out.println("Smallest capacity with a hit ratio of " + percent(target) + " or more and no exchange "
+                           + "discarded:");
+        recommendations.forEach(System.out::println);
+        System.out.println("Every run is in " + csv);
+    }
+
+    /**
+     * The runs of a count of consumers as a table, with the hit ratio and the bytes allocated per record as bars, the
+     * latter relative to the prototype factory
+     */
+    static String chart(
+            Pipeline pipeline, int consumers, List<Integer> capacities, FactoryResult baseline,
+            List<FactoryResult> results) {
+        StringBuilder answer = new StringBuilder();
+        answer.append("The ").append(pipeline).append(" pipeline with ").append(consumers).append(" consumers\n");
+        answer.append(String.format(Locale.ROOT, "%-9s %9s %-" + BAR_WIDTH + "s %9s %-" + BAR_WIDTH
+                                                 + "s %9s %9s %8s %9s %9s%n",
+                "Capacity", "Hit ratio", "", "B/record", "", "Records/s", "MB/s", "GC (ms)", "Created", "Discarded"));
+        double scale = baseline.getAllocatedBytesPerRecord();
+        for (FactoryResult result : results) {
+            scale = Math.max(scale, result.getAllocatedBytesPerRecord());
+        }
+        answer.append(row("prototype", baseline, scale));
+        for (int i = 0; i < results.size(); i++) {
+            answer.append(row(Integer.toString(capacities.get(i)), results.get(i), scale));
+        }
+        return answer.toString();
+    }
+
+    private static String row(String capacity, FactoryResult result, double scale) {
+        return String.format(Locale.ROOT, "%-9s %9s %-" + BAR_WIDTH + "s %9d %-" + BAR_WIDTH
+                                          + "s %9.0f %9.1f %8d %9d %9d%n",
+                capacity, percent(result.getHitRatio()), bar(result.getHitRatio()), result.getAllocatedBytesPerRecord(),
+                bar(scale > 0 ? result.getAllocatedBytesPerRecord() / scale : 0), result.getRecordsPerSecond(),
+                result.getAllocatedMegabytesPerSecond(), result.getCollectionMillis(), result.getCreated(),
+                result.getDiscarded());
+    }
+
+    private static String recommendation(
+            int consumers, List<Integer> capacities, List<FactoryResult> results, double target) {
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).getHitRatio() >= target && results.get(i).getDiscarded() == 0) {
+                return String.format(Locale.ROOT, "%5d consumers: %d", consumers, capacities.get(i));
+            }
+        }
+        return String.format(Locale.ROOT, "%5d consumers: none of the capacities", consumers);
+    }
+
+    private static void csv(PrintWriter out, int consumers, int capacity, FactoryResult result) {
+        out.println(String.format(Locale.ROOT, "%d,%s,%d,%d,%.3f,%.0f,%.1f,%d,%d,%d,%d,%d,%d,%d,%.4f",
+                consumers, result.getMode(), capacity, result.getRecords(), result.getNanos() / 1e9,
+                result.getRecordsPerSecond(), result.getAllocatedMegabytesPerSecond(),
+                result.getAllocatedBytesPerRecord(), result.getCollections(), result.getCollectionMillis(),
+                result.getCreated(), result.getAcquired(), result.getReleased(), result.getDiscarded(),
+                result.getHitRatio()));
+    }
+
+    private static String bar(double ratio) {
+        int width = (int) Math.round(Math.max(0, Math.min(1, ratio)) * BAR_WIDTH);
+        StringBuilder answer = new StringBuilder(BAR_WIDTH);
+        for (int i = 0; i < BAR_WIDTH; i++) {
+            answer.append(i < width ? '#' : '.');
+        }
+        return answer.toString();
+    }
+
+    private static String percent(double ratio) {
+        return String.format(Locale.ROOT, "%.2f%%", ratio * 100);
+    }
+
+    private static List<Integer> integers(String values) {
+        List<Integer> answer = new ArrayList<>();
+        for (String value : values.split(",")) {
+            answer.add(Integer.parseInt(value.trim()));
+        }
+        return answer;
+    }
+}
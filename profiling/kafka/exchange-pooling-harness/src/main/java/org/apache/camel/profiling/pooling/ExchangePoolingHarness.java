@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.pooling;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Endpoint;
+import org.apache.camel.component.kafka.KafkaEndpoint;
+import org.apache.camel.main.Main;
+import org.apache.camel.spi.PooledObjectFactory;
+
+/**
+ * Runs the routes of a Kafka profiling application with the prototype and the pooled exchange factories, and reports
+ * the records per second, the allocation, the collections and the exchange factory statistics of both side by side.
+ * <p/>
+ * Every run loads the data/sources/routes.yaml of the application with its kamelets. The records are sent once to the
+ * topic of the routes, then every run reads all of them from the start with a new consumer group, so both factories
+ * get the same load. The factory is set with the camel.main.exchange-factory options, those the
+ * CAMEL_MAIN_EXCHANGEFACTORY* environment variables of the application images set. The runs alternate between the
+ * factories, in the reverse order every other round, and the first rounds warm up the JVM without being reported.
+ */
+public final class ExchangePoolingHarness {
+    private static final long STALL_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private ExchangePoolingHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path modules = Paths.get("..");
+        Pipeline pipeline = Pipeline.KAFKA;
+        String server = null;
+        int records = 100000;
+        int partitions = 1;
+        int consumers = 1;
+        int warmup = 1;
+        int rounds = 3;
+        int capacity = 25;
+        List<FactoryMode> modes = new ArrayList<>(Arrays.asList(FactoryMode.values()));
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--modules".equals(args[i]) && i + 1 < args.length) {
+                modules = Paths.get(args[++i]);
+            } else if ("--pipeline".equals(args[i]) && i + 1 < args.length) {
+                pipeline = Pipeline.of(args[++i]);
+            } else if ("--server".equals(args[i]) && i + 1 < args.length) {
+                server = args[++i];
+            } else if ("--records".equals(args[i]) && i + 1 < args.length) {
+                records = Integer.parseInt(args[++i]);
+            } else if ("--partitions".equals(args[i]) && i + 1 < args.length) {
+                partitions = Integer.parseInt(args[++i]);
+            } else if ("--consumers".equals(args[i]) && i + 1 < args.length) {
+                consumers = Integer.parseInt(args[++i]);
+            } else if ("--warmup".equals(args[i]) && i + 1 < args.length) {
+                warmup = Integer.parseInt(args[++i]);
+            } else if ("--rounds".equals(args[i]) && i + 1 < args.length) {
+                rounds = Integer.parseInt(args[++i]);
+            } else if ("--capacity".equals(args[i]) && i + 1 < args.length) {
+                capacity = Integer.parseInt(args[++i]);
+            } else if ("--modes".equals(args[i]) && i + 1 < args.length) {
+                modes.clear();
+                for (String mode : args[++i].split(",")) {
+                    modes.add(FactoryMode.of(mode));
+                }
+            } else {
+                System.err.println("Unexpected argument: " + args[i]);
+                System.err.println("Usage: ExchangePoolingHarness [--modules <Kafka modules directory>] "
+                                   + "[--pipeline kafka|kafka-s3|kafka-mongo] [--server <S3 server>] "
+                                   + "[--records <records>] [--partitions <partitions>] [--consumers <consumers>] "
+                                   + "[--warmup <rounds>] [--rounds <rounds>] [--capacity <exchanges>] "
+                                   + "[--modes prototype,pooled]");
+                System.exit(2);
+            }
+        }
+        if (server == null) {
+            server = pipeline.getDefaultServer();
+        }
+        if (partitions < consumers) {
+            // a consumer without partition stays idle
+            partitions = consumers;
+        }
+
+        TopicLoad load = new TopicLoad(records, partitions);
+        String groupId = "exchange-pooling-" + System.currentTimeMillis();
+        Map<FactoryMode, FactoryResult> totals = new LinkedHashMap<>();
+        for (int round = 1; round <= warmup + rounds; round++) {
+            boolean measured = round > warmup;
+            List<FactoryMode> order = new ArrayList<>(modes);
+            if (round % 2 == 0) {
+                Collections.reverse(order);
+            }
+            for (FactoryMode mode : order) {
+                FactoryResult result = run(pipeline, modules, server, load, groupId + "-" + round + "-" + mode,
+                        consumers, mode, capacity);
+                System.out.println((measured ? "Round " + (round - warmup) : "Warmup " + round) + ", " + result);
+                if (measured) {
+                    totals.merge(mode, result, FactoryResult::plus);
+                }
+            }
+        }
+
+        List<FactoryResult> results = new ArrayList<>();
+        for (FactoryMode mode : modes) {
+            if (totals.containsKey(mode)) {
+                results.add(totals.get(mode));
+            }
+        }
+        System.out.println();
+        System.out.println("The " + pipeline + " pipeline over " + rounds + " rounds of " + load.getTotal()
+                           + " records, " + consumers + " consumers, capacity " + capacity);
+        System.out.print(FactoryResult.sideBySide(results));
+    }
+
+    /**
+     * Reads all the records of the topic of the routes of the pipeline with a new consumer group of the given consumers
+     * and the given exchange factory, returning once they are all out of the sink. The records are sent to the topic
+     * before the first run.
+     */
+    public static FactoryResult run(
+            Pipeline pipeline, Path modules, String server, TopicLoad load, String groupId, int consumers,
+            FactoryMode mode, int capacity)
+            throws Exception {
+        PipelineMeter meter = new PipelineMeter();
+        Main main = new Main();
+        main.configure()
+                .withExchangeFactory(mode.toString())
+                .withExchangeFactoryCapacity(capacity)
+                .withExchangeFactoryStatisticsEnabled(true)
+                .withRoutesIncludePattern(pipeline.routes(modules))
+                .withAutoStartup(false);
+        // the options of the kamelets that the routes leave to their defaults
+        main.addOverrideProperty("camel.kamelet.kafka-not-secured-source.consumerGroup", groupId);
+        main.addOverrideProperty("camel.kamelet.kafka-not-secured-source.autoOffsetReset", "earliest");
+        main.addOverrideProperty("camel.component.kafka.consumers-count", Integer.toString(consumers));
+        pipeline.sinkProperties(server).forEach(main::addOverrideProperty);
+        main.bind("pipelineMeter", meter);
+        main.start();
+        try {
+            CamelContext camel = main.getCamelContext();
+            KafkaEndpoint source = kafkaEndpoint(camel);
+            long records = load.prepare(source.getConfiguration().getBrokers(), source.getConfiguration().getTopic());
+            meter.setRecords(records);
+            camel.getRouteController().startAllRoutes();
+            awaitRecords(meter, records);
+            JvmSnapshot first = meter.getFirst();
+            JvmSnapshot last = meter.getLast();
+            PooledObjectFactory.Statistics statistics
+                    = camel.getCamelContextExtension().getExchangeFactoryManager().getStatistics();
+            return new FactoryResult(
+                    mode, records, last.nanosSince(first), last.allocatedBytesSince(first),
+                    last.collectionsSince(first), last.collectionMillisSince(first), statistics.getCreatedCounter(),
+                    statistics.getAcquiredCounter(), statistics.getReleasedCounter(),
+                    statistics.getDiscardedCounter());
+        } finally {
+            main.stop();
+        }
+    }
+
+    /**
+     * The endpoint of the Kafka consumer of the routes, created by the kafka-not-secured-source kamelet
+     */
+    private static KafkaEndpoint kafkaEndpoint(CamelContext camel) {
+        for (Endpoint endpoint : camel.getEndpoints()) {
+            if (endpoint instanceof KafkaEndpoint) {
+                return (KafkaEndpoint) endpoint;
+            }
+        }
+        throw new IllegalStateException("The routes have no Kafka endpoint: " + camel.getEndpoints());
+    }
+
+    private static void awaitRecords(PipelineMeter meter, long records) throws InterruptedException {
+        long processed = meter.getProcessed();
+        long progress = System.nanoTime();
+        while (meter.getLast() == null) {
+            if (meter.getFailure() != null) {
+                throw new IllegalStateException("The pipeline failed", meter.getFailure());
+            }
+            if (System.nanoTime() - progress > STALL_TIMEOUT_NANOS) {
+                throw new IllegalStateException("No record was processed for 60 seconds, " + processed + " of "
+                                                + records);
+            }
+            Thread.sleep(1);
+            long current = meter.getProcessed();
+            if (current > processed) {
+                processed = current;
+                progress = System.nanoTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.pooling;
+
+/**
+ * The exchange factory of a run, as set with camel.main.exchange-factory: a new exchange for every message, or the
+ * exchanges of the consumers taken from and given back to a pool.
+ */
+public enum FactoryMode {
+    PROTOTYPE("prototype"),
+    POOLED("pooled");
+
+    private final String name;
+
+    FactoryMode(String name) {
+        this.name = name;
+    }
+
+    public static FactoryMode of(String name) {
+        for (FactoryMode mode : values()) {
+            if (mode.name.equals(name)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown exchange factory: " + name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.pooling;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * What a pipeline achieved with an exchange factory, over one run or the sum of several: the records per second, the
+ * allocation and the collections of the JVM, and the statistics of the exchange factories of the consumers.
+ */
+public final class FactoryResult {
+    private final FactoryMode mode;
+    private final long records;
+    private final long nanos;
+    private final long allocatedBytes;
+    private final long collections;
+    private final long collectionMillis;
+    private final long created;
+    private final long acquired;
+    private final long released;
+    private final long discarded;
+
+    public FactoryResult(FactoryMode mode, long records, long nanos, long allocatedBytes, long collections,
+                         long collectionMillis, long created, long acquired, long released, long discarded) {
+        this.mode = mode;
+        this.records = records;
+        this.nanos = nanos;
+        this.allocatedBytes = allocatedBytes;
+        this.collections = collections;
+        this.collectionMillis = collectionMillis;
+        this.created = created;
+        this.acquired = acquired;
+        this.released = released;
+        this.discarded = discarded;
+    }
+
+    /**
+     * The sum of this result and another of the same factory
+     */
+    public FactoryResult plus(FactoryResult other) {
+        return new FactoryResult(
+                mode, records + other.records, nanos + other.nanos, allocatedBytes + other.allocatedBytes,
+                collections + other.collections, collectionMillis + other.collectionMillis, created + other.created,
+                acquired + other.acquired, released + other.released, discarded + other.discarded);
+    }
+
+    public FactoryMode getMode() {
+        return mode;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * The time from the first record taken by the consumer until the last one out of the sink
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getRecordsPerSecond() {
+        return nanos > 0 ? records * (double) TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+    }
+
+    /**
+     * The bytes allocated by all the threads of the JVM during the run
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public double getAllocatedMegabytesPerSecond() {
+        return nanos > 0 ? allocatedBytes / 1e6 * TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+    }
+
+    public long getAllocatedBytesPerRecord() {
+        return records > 0 ? allocatedBytes / records : 0;
+    }
+
+    public long getCollections() {
+        return collections;
+    }
+
+    /**
+     * The time spent in the collections of all the garbage collectors, in milliseconds
+     */
+    public long getCollectionMillis() {
+        return collectionMillis;
+    }
+
+    /**
+     * The exchanges the factories had to create
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * The exchanges the factories took from their pools
+     */
+    public long getAcquired() {
+        return acquired;
+    }
+
+    /**
+     * The share of the exchanges taken from the pools rather than created, 0 without pool
+     */
+    public double getHitRatio() {
+        return created + acquired > 0 ? acquired / (double) (created + acquired) : 0;
+    }
+
+    /**
+     * The exchanges given back to the factories once done
+     */
+    public long getReleased() {
+        return released;
+    }
+
+    /**
+     * The exchanges given back to the factories, but dropped as their pools were full
+     */
+    public long getDiscarded() {
+        return discarded;
+    }
+
+    /**
+     * The results of the factories side by side, one column per factory
+     */
+    public static String sideBySide(List<FactoryResult> results) {
+        StringBuilder answer = new StringBuilder(String.format(Locale.ROOT, "%-26s", ""));
+        for (FactoryResult result : results) {
+            answer.append(String.format(Locale.ROOT, " %12s", result.mode));
+        }
+        answer.append('\n');
+        row(answer, results, "Records", result -> Long.toString(result.records));
+        row(answer, results, "Seconds", result -> String.format(Locale.ROOT, "%.2f", result.nanos / 1e9));
+        row(answer, results, "Records/s", result -> String.format(Locale.ROOT, "%.0f", result.getRecordsPerSecond()));
+        row(answer, results, "Allocated (MB/s)",
+            result -> String.format(Locale.ROOT, "%.1f", result.getAllocatedMegabytesPerSecond()));
+        row(answer, results, "Allocated/record (B)", result -> Long.toString(result.getAllocatedBytesPerRecord()));
+        row(answer, results, "GC collections", result -> Long.toString(result.collections));
+        row(answer, results, "GC time (ms)", result -> Long.toString(result.collectionMillis));
+        row(answer, results, "Exchanges created", result -> Long.toString(result.created));
+        row(answer, results, "Exchanges acquired", result -> Long.toString(result.acquired));
+        row(answer, results, "Exchanges released", result -> Long.toString(result.released));
+        row(answer, results, "Exchanges discarded", result -> Long.toString(result.discarded));
+        return answer.toString();
+    }
+
+    private static void row(
+            StringBuilder answer, List<FactoryResult> results, String name, Function<FactoryResult, String> value) {
+        answer.append(String.format(Locale.ROOT, "%-26s", name));
+        for (FactoryResult result : results) {
+            answer.append(String.format(Locale.ROOT, " %12s", value.apply(result)));
+        }
+        answer.append('\n');
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%s: %d records in %.2f s, %.0f records/s, %.1f MB/s allocated, %d B/record, %d collections in %d ms, "
+                                         + "%d exchanges created, %d acquired, %d released, %d discarded",
+                mode, records, nanos / 1e9, getRecordsPerSecond(), getAllocatedMegabytesPerSecond(),
+                getAllocatedBytesPerRecord(), collections, collectionMillis, created, acquired, released, discarded);
+    }
+}
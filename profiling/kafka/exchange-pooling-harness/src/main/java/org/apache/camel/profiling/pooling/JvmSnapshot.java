@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.pooling;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * The counters of the JVM a run is measured with: the time, the bytes allocated so far by every live thread, and the
+ * collections of all the garbage collectors. The threads that end during a run are not counted, the threads of Camel
+ * and of the Kafka clients live as long as the run.
+ */
+final class JvmSnapshot {
+    private final long nanos;
+    private final Map<Long, Long> allocatedBytes;
+    private final long collections;
+    private final long collectionMillis;
+
+    private JvmSnapshot(long nanos, Map<Long, Long> allocatedBytes, long collections, long collectionMillis) {
+        this.nanos = nanos;
+        this.allocatedBytes = allocatedBytes;
+        this.collections = collections;
+        this.collectionMillis = collectionMillis;
+    }
+
+    static JvmSnapshot now() {
+        long collections = 0;
+        long collectionMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections += Math.max(0, gc.getCollectionCount());
+            collectionMillis += Math.max(0, gc.getCollectionTime());
+        }
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<Long, Long> allocatedBytes = new HashMap<>();
+        for (long id : threads.getAllThreadIds()) {
+            long bytes = threads.getThreadAllocatedBytes(id);
+            if (bytes >= 0) {
+                allocatedBytes.put(id, bytes);
+            }
+        }
+        return new JvmSnapshot(System.nanoTime(), allocatedBytes, collections, collectionMillis);
+    }
+
+    long nanosSince(JvmSnapshot start) {
+        return nanos - start.nanos;
+    }
+
+    long allocatedBytesSince(JvmSnapshot start) {
+        long answer = 0;
+        for (Map.Entry<Long, Long> entry : allocatedBytes.entrySet()) {
+            answer += entry.getValue() - start.allocatedBytes.getOrDefault(entry.getKey(), 0L);
+        }
+        return answer;
+    }
+
+    long collectionsSince(JvmSnapshot start) {
+        return collections - start.collections;
+    }
+
+    long collectionMillisSince(JvmSnapshot start) {
+        return collectionMillis - start.collectionMillis;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.pooling;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The pipeline run behind the Kafka consumer, named as the application whose routes it runs, with the server of its
+ * sink. The sinks talk to the in-JVM stand-ins of the other modules by default, so no cloud account is needed.
+ * <p/>
+ * The routes are those of the application, its data/sources/routes.yaml, so the harness runs the same kamelets as its
+ * image. The options the routes leave to the kamelet defaults are set with properties, to point the sink at the
+ * stand-in; the options given in the routes, as the topic and the brokers, are used as they are.
+ */
+public enum Pipeline {
+    /**
+     * The kafka-not-secured-source kamelet alone, the messages are given to a log endpoint that is off
+     */
+    KAFKA("kafka", null),
+    /**
+     * The routes of kafka-s3, every message is an object of the bucket, keyed by its file header, written to the S3
+     * stub
+     */
+    KAFKA_S3("kafka-s3", "http://localhost:9000"),
+    /**
+     * The routes of kafka-mongo, every message is a document inserted in the log collection, written to the MongoDB
+     * stand-in on the hosts of the routes
+     */
+    KAFKA_MONGO("kafka-mongo", null);
+
+    private final String name;
+    private final String defaultServer;
+
+    Pipeline(String name, String defaultServer) {
+        this.name = name;
+        this.defaultServer = defaultServer;
+    }
+
+    public static Pipeline of(String name) {
+        for (Pipeline pipeline : values()) {
+            if (pipeline.name.equals(name)) {
+                return pipeline;
+            }
+        }
+        throw new IllegalArgumentException("Unknown pipeline: " + name);
+    }
+
+    /**
+     * The server of the sink when none is given, null when the routes give it or the pipeline has no sink
+     */
+    public String getDefaultServer() {
+        return defaultServer;
+    }
+
+    /**
+     * The routes of the pipeline, those of the application in the given directory of the Kafka modules
+     */
+    String routes(Path modules) {
+        if (this == KAFKA) {
+            return "classpath:pipelines/kafka.yaml";
+        }
+        return "file:" + modules.resolve(name).resolve("data/sources/routes.yaml").toAbsolutePath().normalize();
+    }
+
+    /**
+     * The options of the kamelet of the sink that the routes leave to their defaults, pointing it at the given server
+     */
+    Map<String, String> sinkProperties(String server) {
+        Map<String, String> answer = new LinkedHashMap<>();
+        switch (this) {
+            case KAFKA_S3:
+                answer.put("camel.kamelet.aws-s3-sink.overrideEndpoint", "true");
+                answer.put("camel.kamelet.aws-s3-sink.uriEndpointOverride", server);
+                answer.put("camel.kamelet.aws-s3-sink.forcePathStyle", "true");
+                break;
+            case KAFKA_MONGO:
+                answer.put("camel.kamelet.mongodb-sink.ssl", "false");
+                answer.put("camel.kamelet.mongodb-sink.createCollection", "true");
+                break;
+            default:
+                break;
+        }
+        return answer;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.pooling;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.NamedNode;
+import org.apache.camel.Route;
+import org.apache.camel.model.RouteDefinition;
+import org.apache.camel.spi.RoutePolicy;
+import org.apache.camel.spi.RoutePolicyFactory;
+import org.apache.camel.support.RoutePolicySupport;
+
+/**
+ * Counts the records of the routes of a pipeline, as they are done with the route of the Kafka consumer that the
+ * kafka-not-secured-source kamelet creates, the sink being called from that route.
+ * <p/>
+ * The JVM is measured from the first record taken by the consumer to the last one out of the sink, so the time the
+ * consumer takes to join its group is left out. It is a route policy rather than an event notifier, which would
+ * allocate events for every exchange and blur the allocation of the exchange factories.
+ */
+final class PipelineMeter extends RoutePolicySupport implements RoutePolicyFactory {
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicReference<JvmSnapshot> first = new AtomicReference<>();
+    private final AtomicReference<JvmSnapshot> last = new AtomicReference<>();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private volatile long records = Long.MAX_VALUE;
+
+    @Override
+    public RoutePolicy createRoutePolicy(CamelContext camelContext, String routeId, NamedNode route) {
+        String uri = ((RouteDefinition) route).getInput().getEndpointUri();
+        return uri.startsWith("kafka:") ? this : null;
+    }
+
+    @Override
+    public void onExchangeBegin(Route route, Exchange exchange) {
+        if (first.get() == null) {
+            first.compareAndSet(null, JvmSnapshot.now());
+        }
+    }
+
+    @Override
+    public void onExchangeDone(Route route, Exchange exchange) {
+        if (exchange.getException() != null) {
+            failure.compareAndSet(null, exchange.getException());
+        }
+        if (processed.incrementAndGet() == records) {
+            last.set(JvmSnapshot.now());
+        }
+    }
+
+    /**
+     * The records the run reads, the last snapshot being taken once they are all done
+     */
+    void setRecords(long records) {
+        this.records = records;
+    }
+
+    long getProcessed() {
+        return processed.get();
+    }
+
+    /**
+     * The JVM when the first record was taken by the consumer
+     */
+    JvmSnapshot getFirst() {
+        return first.get();
+    }
+
+    /**
+     * The JVM when the last record was out of the sink, null until then
+     */
+    JvmSnapshot getLast() {
+        return last.get();
+    }
+
+    /**
+     * The first record that failed, if any
+     */
+    Exception getFailure() {
+        return failure.get();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.pooling;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.NewPartitions;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The records every run reads, sent once to the topic of the routes of the pipeline before the first run.
+ * <p/>
+ * The topic and the brokers are those of the routes, so the topic may already hold records: it is created when
+ * missing, given more partitions when it has fewer than asked, and nothing is deleted from it. Every run reads all its
+ * records from the start, those already there included, so use a broker of its own, as the embedded broker, to read
+ * only the records sent by the harness.
+ */
+public final class TopicLoad {
+    private final int records;
+    private final int partitions;
+    private long total = -1;
+
+    public TopicLoad(int records, int partitions) {
+        this.records = records;
+        this.partitions = partitions;
+    }
+
+    /**
+     * The records of the topic a run reads, -1 before the first run
+     */
+    synchronized long getTotal() {
+        return total;
+    }
+
+    /**
+     * Sends the records to the topic the first time, and returns the records of the topic a run reads
+     */
+    synchronized long prepare(String brokers, String topic) throws Exception {
+        if (total >= 0) {
+            return total;
+        }
+        Properties config = new Properties();
+        config.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, brokers);
+        try (Admin admin = Admin.create(config)) {
+            Set<String> topics = admin.listTopics().names().get();
+            if (!topics.contains(topic)) {
+                admin.createTopics(List.of(new NewTopic(topic, partitions, (short) 1))).all().get();
+            } else {
+                int existing = describe(admin, topic).partitions().size();
+                if (existing < partitions) {
+                    admin.createPartitions(Map.of(topic, NewPartitions.increaseTo(partitions))).all().get();
+                }
+            }
+            System.out.println("Sending " + records + " records to the topic " + topic + " of " + brokers);
+            send(config, topic);
+            total = count(admin, topic);
+        }
+        if (total > records) {
+            System.out.println("The topic " + topic + " already held " + (total - records) + " records, every run "
+                               + "reads all the " + total);
+        }
+        return total;
+    }
+
+    /**
+     * Sends the records, as the burst scripts do, with a file header and a JSON value
+     */
+    private void send(Properties config, String topic) {
+        Properties producerConfig = new Properties();
+        producerConfig.putAll(config);
+        producerConfig.put(ProducerConfig.LINGER_MS_CONFIG, "5");
+        producerConfig.put(ProducerConfig.BATCH_SIZE_CONFIG, "65536");
+        try (KafkaProducer<String, String> producer
+                = new KafkaProducer<>(producerConfig, new StringSerializer(), new StringSerializer())) {
+            for (int i = 0; i < records; i++) {
+                ProducerRecord<String, String> record = new ProducerRecord<>(
+                        topic, null, "{\"name\": \"user-" + i + "\", \"age\": " + (i % 100) + "}");
+                record.headers().add("file", ("file-" + i).getBytes(UTF_8));
+                producer.send(record);
+            }
+            producer.flush();
+        }
+    }
+
+    private static TopicDescription describe(Admin admin, String topic) throws Exception {
+        return admin.describeTopics(List.of(topic)).allTopicNames().get().get(topic);
+    }
+
+    private static long count(Admin admin, String topic) throws Exception {
+        Map<TopicPartition, OffsetSpec> earliest = new HashMap<>();
+        Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+        for (TopicPartitionInfo partition : describe(admin, topic).partitions()) {
+            TopicPartition topicPartition = new TopicPartition(topic, partition.partition());
+            earliest.put(topicPartition, OffsetSpec.earliest());
+            latest.put(topicPartition, OffsetSpec.latest());
+        }
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> starts = admin.listOffsets(earliest).all().get();
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends = admin.listOffsets(latest).all().get();
+        long answer = 0;
+        for (TopicPartition partition : ends.keySet()) {
+            answer += ends.get(partition).offset() - starts.get(partition).offset();
+        }
+        return answer;
+    }
+}
@@ -1,49 +1,30 @@
 #!/bin/bash
 
-POSITIONAL=()
-while [[ $# -gt 0 ]]; do
-  key="$1"
+# Sends messages to Kafka from several producers of the kafka-load-generator module, which start together and share
+# the target rate (-r). The number of messages (-n) is per producer (-s), as it was with the former multiburst.sh, e.g.
+# ./multiburst.sh -s 5 -b localhost:9092 -n 1000 -t testtopic -p "payload"
 
-  case $key in
-    -n|--number)
-      NUMBER="$2"
-      shift # past argument
-      shift # past value
-      ;;
-    -t|--topic)
-      TOPIC="$2"
-      shift # past argument
-      shift # past value
-      ;;
-    -p|--payload)
-      PAYLOAD="$2"
-      shift # past argument
-      shift # past value
-      ;;
-    -b|--broker)
-      BROKER="$2"
-      shift # past argument
-      shift # past value
-      ;;
+WORKERS=1
+ARGS=()
+while [[ $# -gt 0 ]]; do
+  case "$1" in
     -s|--script)
-      SCRIPTS="$2"
-      shift # past argument
-      shift # past value
+      WORKERS="$2"
+      shift 2
       ;;
-    --default)
-      DEFAULT=YES
-      shift # past argument
+    -n|--number)
+      NUMBER="$2"
+      shift 2
       ;;
-    *)    # unknown option
-      POSITIONAL+=("$1") # save it in an array for later
-      shift # past argument
+    *)
+      ARGS+=("$1")
+      shift
       ;;
   esac
 done
 
-set -- "${POSITIONAL[@]}" # restore positional parameters
+if [ -n "$NUMBER" ]; then
+  ARGS+=(-n $((NUMBER * WORKERS)))
+fi
 
-for i in $(seq 1 $SCRIPTS)
-do
-   sh ./burst.sh -b $BROKER -t $TOPIC -n $NUMBER -p $PAYLOAD &
-done
+exec "$(dirname "$0")/burst.sh" -w "$WORKERS" "${ARGS[@]}"
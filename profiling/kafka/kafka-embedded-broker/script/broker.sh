@@ -0,0 +1,15 @@
+#!/bin/bash
+
+# Starts the single node Kafka broker of the kafka-embedded-broker module on localhost:9092, building it on first use.
+# The data is in target/kafka-data of the module and it is deleted on every start.
+# Run it with --help to list all the options, e.g. ./broker.sh --topics testtopic --partitions 4
+# JVM options can be given with JAVA_OPTS.
+
+BROKER_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+BROKER_JAR="$BROKER_DIR/target/kafka-embedded-broker.jar"
+
+if [ ! -f "$BROKER_JAR" ]; then
+  (cd "$BROKER_DIR" && mvn -q -B package) || exit 1
+fi
+
+cd "$BROKER_DIR" && exec java $JAVA_OPTS -jar "$BROKER_JAR" "$@"
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.kafka;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import kafka.server.KafkaConfig;
+import kafka.server.KafkaRaftServer;
+import kafka.tools.StorageTool;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.Uuid;
+import org.apache.kafka.common.utils.Time;
+import org.apache.kafka.metadata.properties.MetaProperties;
+import org.apache.kafka.server.common.MetadataVersion;
+import scala.jdk.javaapi.CollectionConverters;
+
+/**
+ * A single node Kafka broker in KRaft mode, running in the JVM, for profiling the Kafka applications without a Kafka
+ * cluster.
+ * <p/>
+ * The node is both the broker and the controller, with the replication factor of the internal topics set to 1. The
+ * storage is formatted with a new cluster id on every start, so every run starts with empty topics, and the topics
+ * are created on first use. The data directory is deleted first only when the broker formatted it before, it must be
+ * empty or missing otherwise.
+ * <p/>
+ * It can be embedded in a test harness, with try-with-resources, or started on its own with {@link #main(String[])},
+ * by default on localhost:9092 where the routes of the Kafka applications expect it.
+ */
+public final class EmbeddedKafkaBroker implements AutoCloseable {
+    public static final int DEFAULT_PORT = 9092;
+    /**
+     * The file written in the data directory once formatted, the only data directories deleted on start being those
+     * holding it
+     */
+    static final String MARKER = ".embedded-kafka-broker";
+
+    private final int port;
+    private final int controllerPort;
+    private final Path dataDir;
+    private final Map<String, String> properties = new HashMap<>();
+    private KafkaRaftServer server;
+
+    public EmbeddedKafkaBroker(int port, int controllerPort, Path dataDir) {
+        this.port = port;
+        this.controllerPort = controllerPort;
+        this.dataDir = dataDir;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = DEFAULT_PORT;
+        int controllerPort = -1;
+        Path dataDir = Paths.get("target", "kafka-data");
+        int partitions = 1;
+        List<String> topics = new ArrayList<>();
+        Map<String, String> properties = new HashMap<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if ("--controller-port".equals(args[i]) && i + 1 < args.length) {
+                controllerPort = Integer.parseInt(args[++i]);
+            } else if ("--data-dir".equals(args[i]) && i + 1 < args.length) {
+                dataDir = Paths.get(args[++i]);
+            } else if ("--partitions".equals(args[i]) && i + 1 < args.length) {
+                partitions = Integer.parseInt(args[++i]);
+            } else if ("--topics".equals(args[i]) && i + 1 < args.length) {
+                topics.addAll(Arrays.asList(args[++i].split(",")));
+            } else if ("--property".equals(args[i]) && i + 1 < args.length && args[i + 1].indexOf('=') > 0) {
+                String property = args[++i];
+                properties.put(property.substring(0, property.indexOf('=')),
+                        property.substring(property.indexOf('=') + 1));
+            } else {
+                System.err.println("Unexpected argument: " + args[i]);
+                System.err.println("Usage: EmbeddedKafkaBroker [--port <port>] [--controller-port <port>] "
+                                   + "[--data-dir <dir>] [--partitions <partitions>] [--topics <topic1,topic2,...>] "
+                                   + "[--property <broker property>=<value>]...");
+                System.exit(2);
+            }
+        }
+
+        EmbeddedKafkaBroker broker
+                = new EmbeddedKafkaBroker(port, controllerPort > 0 ? controllerPort : port + 1, dataDir);
+        broker.property("num.partitions", Integer.toString(partitions));
+        properties.forEach(broker::property);
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            broker.close();
+            stopped.countDown();
+        }, "kafka-broker-shutdown"));
+
+        broker.start();
+        for (String topic : topics) {
+            broker.createTopic(topic, partitions);
+        }
+        System.out.println("Kafka broker started on " + broker.getBootstrapServers() + " with the data in "
+                           + dataDir.toAbsolutePath() + ", press Ctrl+C to stop it");
+        stopped.await();
+    }
+
+    /**
+     * Sets a broker property, overriding the defaults of the single node broker. It must be called before the broker
+     * is started.
+     */
+    public EmbeddedKafkaBroker property(String name, String value) {
+        properties.put(name, value);
+        return this;
+    }
+
+    /**
+     * Formats the storage and starts the broker, returning once it accepts the clients
+     */
+    public EmbeddedKafkaBroker start() {
+        if (server != null) {
+            throw new IllegalStateException("The broker is already started");
+        }
+
+        Map<String, String> config = new HashMap<>();
+        config.put("process.roles", "broker,controller");
+        config.put("node.id", "1");
+        config.put("controller.quorum.voters", "1@localhost:" + controllerPort);
+        config.put("listeners", "PLAINTEXT://localhost:" + port + ",CONTROLLER://localhost:" + controllerPort);
+        config.put("advertised.listeners", "PLAINTEXT://localhost:" + port);
+        config.put("controller.listener.names", "CONTROLLER");
+        config.put("listener.security.protocol.map", "PLAINTEXT:PLAINTEXT,CONTROLLER:PLAINTEXT");
+        config.put("log.dirs", dataDir.toAbsolutePath().toString());
+        config.put("offsets.topic.replication.factor", "1");
+        config.put("offsets.topic.num.partitions", "1");
+        config.put("transaction.state.log.replication.factor", "1");
+        config.put("transaction.state.log.min.isr", "1");
+        config.put("group.initial.rebalance.delay.ms", "0");
+        config.put("auto.create.topics.enable", "true");
+        config.putAll(properties);
+        KafkaConfig kafkaConfig = new KafkaConfig(config);
+
+        format(kafkaConfig);
+        server = new KafkaRaftServer(kafkaConfig, Time.SYSTEM);
+        server.startup();
+        return this;
+    }
+
+    private void format(KafkaConfig kafkaConfig) {
+        try {
+            if (Files.exists(dataDir)) {
+                clean();
+            }
+            Files.createDirectories(dataDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot clean the data directory " + dataDir, e);
+        }
+
+        MetaProperties metaProperties = StorageTool.buildMetadataProperties(Uuid.randomUuid().toString(), kafkaConfig);
+        StorageTool.formatCommand(new PrintStream(PrintStream.nullOutputStream()),
+                CollectionConverters.asScala(List.of(dataDir.toAbsolutePath().toString())).toList(),
+                metaProperties, MetadataVersion.latestProduction(), false);
+        try {
+            Files.createFile(dataDir.resolve(MARKER));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot mark the data directory " + dataDir, e);
+        }
+    }
+
+    /**
+     * Deletes the data of a previous start, refusing to delete a directory that was not formatted by this broker, as
+     * a --data-dir given by mistake
+     */
+    private void clean() throws IOException {
+        try (Stream<Path> entries = Files.list(dataDir)) {
+            if (entries.findAny().isPresent() && !Files.isRegularFile(dataDir.resolve(MARKER))) {
+                throw new IllegalStateException("The data directory " + dataDir.toAbsolutePath() + " is not empty "
+                                                + "and was not formatted by the embedded broker, it is left as is: "
+                                                + "give an empty or missing directory");
+            }
+        }
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Creates a topic with the given number of partitions, instead of letting the broker create it with the default
+     * number of partitions on first use
+     */
+    public void createTopic(String name, int partitions) throws Exception {
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, getBootstrapServers()))) {
+            admin.createTopics(List.of(new NewTopic(name, partitions, (short) 1))).all().get();
+        }
+    }
+
+    public String getBootstrapServers() {
+        return "localhost:" + port;
+    }
+
+    /**
+     * Stops the broker, the data stays in the data directory until the next start
+     */
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.shutdown();
+            server.awaitShutdown();
+            server = null;
+        }
+    }
+}
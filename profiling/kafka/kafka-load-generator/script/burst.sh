@@ -0,0 +1,14 @@
+#!/bin/bash
+
+# Sends messages to Kafka with the batching producer of the kafka-load-generator module, which is built on first use.
+# The former burst.sh options still work, e.g. ./burst.sh -b localhost:9092 -n 1000 -t testtopic -p "payload",
+# run it without arguments to list all the options. JVM options can be given with JAVA_OPTS.
+
+GENERATOR_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+GENERATOR_JAR="$GENERATOR_DIR/target/kafka-load-generator.jar"
+
+if [ ! -f "$GENERATOR_JAR" ]; then
+  (cd "$GENERATOR_DIR" && mvn -q -B package) || exit 1
+fi
+
+exec java $JAVA_OPTS -jar "$GENERATOR_JAR" "$@"
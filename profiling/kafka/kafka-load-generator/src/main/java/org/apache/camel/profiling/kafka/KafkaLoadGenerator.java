@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.kafka;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+/**
+ * Sends messages to a Kafka topic with one or more batching producers, at a fixed rate or as fast as possible, and
+ * reports the rate it achieved.
+ * <p/>
+ * Every worker has its own producer and sends its share of the messages at its share of the rate, see
+ * {@link LoadWorker}. The counts and the acknowledgement latencies of all the workers are merged every second into one
+ * {@link LoadReport}, which is printed as the run goes.
+ * <p/>
+ * The payload and the header values are created once before the run, so sending a message costs no more than handing
+ * it to the producer.
+ */
+public final class KafkaLoadGenerator {
+    private static final int HEADER_LENGTH = 20;
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private final LoadOptions options;
+    private final List<LoadWorker> workers = new ArrayList<>();
+    private final Recorder latency = new Recorder(3);
+    private final LoadReport report = new LoadReport();
+
+    public KafkaLoadGenerator(LoadOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        KafkaLoadGenerator generator = new KafkaLoadGenerator(options);
+        LoadReport report = generator.run();
+        System.out.println();
+        System.out.print(report.summary());
+        if (generator.getFirstError() != null) {
+            System.err.println("First error: " + generator.getFirstError());
+        }
+        System.exit(report.getTotal().getFailed() > 0 ? 1 : 0);
+    }
+
+    /**
+     * Runs the workers until they have sent their messages and got all the acknowledgements
+     */
+    public LoadReport run() throws Exception {
+        byte[] payload = options.getPayload() != null ? options.getPayload() : randomBytes(options.getPayloadSize());
+        Headers[] headers = createHeaders();
+
+        System.out.printf(Locale.ROOT, "Sending %s messages of %d bytes to %s on %s with %d producer(s) at %s%n",
+                options.getNumber() > 0 ? Long.toString(options.getNumber()) : "all the",
+                payload.length, options.getTopic(), options.getBroker(), options.getWorkers(),
+                options.getRate() > 0 ? options.getRate() + " msg/s" : "the highest rate");
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "load-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(options.getWorkers());
+
+        AtomicLong start = new AtomicLong();
+        Progress progress = new Progress(start);
+        CyclicBarrier barrier = new CyclicBarrier(options.getWorkers(), () -> {
+            start.set(System.nanoTime());
+            System.out.println(LoadReport.HEADER);
+            reporter.scheduleAtFixedRate(progress, 1, 1, TimeUnit.SECONDS);
+        });
+
+        try {
+            ExecutorCompletionService<LoadResult> service = new ExecutorCompletionService<>(executor);
+            for (int i = 0; i < options.getWorkers(); i++) {
+                LoadWorker worker = new LoadWorker(options, i, payload, headers, barrier, start, latency);
+                workers.add(worker);
+                service.submit(worker);
+            }
+            // wait for all the workers, and stop the others as soon as one fails
+            for (int i = 0; i < options.getWorkers(); i++) {
+                try {
+                    service.take().get();
+                } catch (ExecutionException e) {
+                    executor.shutdownNow();
+                    throw e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            reporter.shutdownNow();
+            reporter.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        // the rest of the last second
+        progress.run();
+        for (LoadWorker worker : workers) {
+            report.addWorker(worker.getResult());
+        }
+        return report;
+    }
+
+    /**
+     * The first error reported by the producers, if any
+     */
+    public Exception getFirstError() {
+        for (LoadWorker worker : workers) {
+            if (worker.getFirstError() != null) {
+                return worker.getFirstError();
+            }
+        }
+        return null;
+    }
+
+    private Headers[] createHeaders() {
+        Headers[] answer = new Headers[options.getHeaderCardinality()];
+        for (int i = 0; i < answer.length; i++) {
+            answer[i] = new RecordHeaders().add(options.getHeaderName(), randomBytes(HEADER_LENGTH));
+        }
+        return answer;
+    }
+
+    private static byte[] randomBytes(int length) {
+        Random random = new Random();
+        byte[] answer = new byte[length];
+        for (int i = 0; i < length; i++) {
+            answer[i] = (byte) LETTERS.charAt(random.nextInt(LETTERS.length()));
+        }
+        return answer;
+    }
+
+    /**
+     * Merges the counts and the latencies of the workers since the previous call into the report
+     */
+    private final class Progress implements Runnable {
+        private final AtomicLong start;
+        private long last;
+        private long lastSent;
+        private long lastAcked;
+        private long lastFailed;
+        private Histogram interval;
+
+        private Progress(AtomicLong start) {
+            this.start = start;
+        }
+
+        @Override
+        public void run() {
+            long now = System.nanoTime();
+            if (last == 0) {
+                last = start.get();
+            }
+            long sent = 0;
+            long acked = 0;
+            long failed = 0;
+            for (LoadWorker worker : workers) {
+                sent += worker.getSent();
+                acked += worker.getAcked();
+                failed += worker.getFailed();
+            }
+            interval = latency.getIntervalHistogram(interval);
+
+            LoadReport.Second second = report.addSecond(now - last, sent - lastSent, acked - lastAcked,
+                    failed - lastFailed, interval);
+            System.out.println(second);
+
+            last = now;
+            lastSent = sent;
+            lastAcked = acked;
+            lastFailed = failed;
+        }
+    }
+}
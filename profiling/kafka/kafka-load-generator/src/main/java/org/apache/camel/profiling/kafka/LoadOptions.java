@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+
+/**
+ * The options of the load generator, parsed from the command line.
+ * <p/>
+ * The broker, topic, payload and number options keep the names of the former burst.sh script, so the same command
+ * lines keep working.
+ */
+public final class LoadOptions {
+    public static final String USAGE
+            = "Usage: KafkaLoadGenerator -t <topic> [-b <broker>] [-n <number>] [-d <seconds>] [-r <msgs/sec>]\n"
+              + "       [-w <workers>] [-p <payload> | -s <payload size>]\n"
+              + "       [--header <name>] [--header-cardinality <values>]\n"
+              + "       [--batch-size <bytes>] [--linger-ms <ms>] [--acks <acks>] [--compression <type>]\n"
+              + "       [-P <producer property>=<value>]...\n"
+              + "At least one of the number of messages (-n) or the duration (-d) is required, both are shared by\n"
+              + "the workers (-w), which have a producer each and send their share of the target rate (-r).\n"
+              + "The rate (-r) is unlimited by default and a header cardinality of 0 sends no header.";
+
+    private String broker = "localhost:9092";
+    private String topic;
+    private long number;
+    private long durationSeconds;
+    private double rate;
+    private int workers = 1;
+    private byte[] payload;
+    private int payloadSize = 100;
+    private String headerName = "file";
+    private int headerCardinality = 100000;
+    private int batchSize = 128 * 1024;
+    private int lingerMs = 10;
+    private String acks = "1";
+    private String compression = "none";
+    private final Properties producerProperties = new Properties();
+
+    /**
+     * Parses the command line, throwing an {@link IllegalArgumentException} when it is not valid
+     */
+    public static LoadOptions parse(String[] args) {
+        LoadOptions options = new LoadOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "-b":
+                case "--broker":
+                    options.broker = value;
+                    break;
+                case "-t":
+                case "--topic":
+                    options.topic = value;
+                    break;
+                case "-n":
+                case "--number":
+                    options.number = Long.parseLong(value);
+                    break;
+                case "-d":
+                case "--duration":
+                    options.durationSeconds = Long.parseLong(value);
+                    break;
+                case "-r":
+                case "--rate":
+                    options.rate = Double.parseDouble(value);
+                    break;
+                case "-w":
+                case "--workers":
+                    options.workers = Integer.parseInt(value);
+                    break;
+                case "-p":
+                case "--payload":
+                    options.payload = value.getBytes(StandardCharsets.UTF_8);
+                    break;
+                case "-s":
+                case "--payload-size":
+                    options.payloadSize = Integer.parseInt(value);
+                    break;
+                case "--header":
+                    options.headerName = value;
+                    break;
+                case "--header-cardinality":
+                    options.headerCardinality = Integer.parseInt(value);
+                    break;
+                case "--batch-size":
+                    options.batchSize = Integer.parseInt(value);
+                    break;
+                case "--linger-ms":
+                    options.lingerMs = Integer.parseInt(value);
+                    break;
+                case "--acks":
+                    options.acks = value;
+                    break;
+                case "--compression":
+                    options.compression = value;
+                    break;
+                case "-P":
+                case "--producer-property":
+                    int pos = value.indexOf('=');
+                    if (pos <= 0) {
+                        throw new IllegalArgumentException("The producer property must be <name>=<value>: " + value);
+                    }
+                    options.producerProperties.setProperty(value.substring(0, pos), value.substring(pos + 1));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+        }
+
+        if (options.topic == null) {
+            throw new IllegalArgumentException("The topic is required");
+        }
+        if (options.number <= 0 && options.durationSeconds <= 0) {
+            throw new IllegalArgumentException("Either the number of messages or the duration is required");
+        }
+        if (options.workers <= 0) {
+            throw new IllegalArgumentException("There must be at least one worker");
+        }
+        if (options.rate < 0 || options.payloadSize < 0 || options.headerCardinality < 0) {
+            throw new IllegalArgumentException("The rate, payload size and header cardinality cannot be negative");
+        }
+        return options;
+    }
+
+    /**
+     * The configuration of the producer: large batches that are given some time to fill up, so the producer sends few
+     * large requests instead of one request per message. The producer properties given on the command line win.
+     */
+    public Properties producerProperties() {
+        Properties answer = new Properties();
+        answer.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker);
+        answer.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
+        answer.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
+        answer.put(ProducerConfig.BATCH_SIZE_CONFIG, Integer.toString(batchSize));
+        answer.put(ProducerConfig.LINGER_MS_CONFIG, Integer.toString(lingerMs));
+        answer.put(ProducerConfig.ACKS_CONFIG, acks);
+        answer.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+        answer.put(ProducerConfig.BUFFER_MEMORY_CONFIG, Long.toString(Math.max(32L * 1024 * 1024, 64L * batchSize)));
+        // retries can reorder and duplicate the messages of a load test, which is fine
+        answer.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "false");
+        answer.putAll(producerProperties);
+        return answer;
+    }
+
+    public String getBroker() {
+        return broker;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    /**
+     * The number of messages to send with all the workers, or 0 to send until the duration is over
+     */
+    public long getNumber() {
+        return number;
+    }
+
+    /**
+     * How long to send for, or 0 to send until the number of messages is reached
+     */
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /**
+     * The target rate of all the workers in messages per second, or 0 to send as fast as the producer allows
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * The number of producers that share the messages and the rate
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * The payload given on the command line, or null to send random payloads of {@link #getPayloadSize()} bytes
+     */
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public int getPayloadSize() {
+        return payload != null ? payload.length : payloadSize;
+    }
+
+    public String getHeaderName() {
+        return headerName;
+    }
+
+    /**
+     * The number of distinct values of the header, or 0 to send no header
+     */
+    public int getHeaderCardinality() {
+        return headerCardinality;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.kafka;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * The merged results of all the workers of a run: the messages sent, acknowledged and failed in every second, with
+ * the acknowledgement latencies of that second, and the totals of the run.
+ */
+public final class LoadReport {
+    static final String HEADER = String.format(Locale.ROOT, "%6s %10s %10s %8s %10s %10s %10s",
+            "Second", "Sent/s", "Acked/s", "Failed", "p50 (ms)", "p99 (ms)", "Max (ms)");
+
+    private final List<Second> seconds = new ArrayList<>();
+    private final Histogram latency = new Histogram(3);
+    private final List<LoadResult> workers = new ArrayList<>();
+
+    /**
+     * Adds the counts of the next interval, usually of one second, and the acknowledgement latencies in microseconds
+     * of that interval
+     */
+    Second addSecond(long intervalNanos, long sent, long acked, long failed, Histogram intervalLatency) {
+        Second second = new Second(seconds.size() + 1, intervalNanos, sent, acked, failed,
+                intervalLatency.getTotalCount() > 0 ? intervalLatency.getValueAtPercentile(50) : 0,
+                intervalLatency.getTotalCount() > 0 ? intervalLatency.getValueAtPercentile(99) : 0,
+                intervalLatency.getMaxValue());
+        seconds.add(second);
+        latency.add(intervalLatency);
+        return second;
+    }
+
+    void addWorker(LoadResult result) {
+        workers.add(result);
+    }
+
+    public List<Second> getSeconds() {
+        return seconds;
+    }
+
+    /**
+     * The acknowledgement latencies of the whole run, in microseconds
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public List<LoadResult> getWorkers() {
+        return workers;
+    }
+
+    /**
+     * The sum of the workers: the messages of all of them over the time of the slowest one
+     */
+    public LoadResult getTotal() {
+        long sent = 0;
+        long acked = 0;
+        long failed = 0;
+        long bytes = 0;
+        long sendNanos = 0;
+        long totalNanos = 0;
+        for (LoadResult worker : workers) {
+            sent += worker.getSent();
+            acked += worker.getAcked();
+            failed += worker.getFailed();
+            bytes += worker.getBytes();
+            sendNanos = Math.max(sendNanos, worker.getSendNanos());
+            totalNanos = Math.max(totalNanos, worker.getTotalNanos());
+        }
+        return new LoadResult(sent, acked, failed, bytes, sendNanos, totalNanos);
+    }
+
+    /**
+     * The per second table, the results of every worker and the totals with the latency percentiles
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(HEADER).append(System.lineSeparator());
+        for (Second second : seconds) {
+            sb.append(second).append(System.lineSeparator());
+        }
+        sb.append(System.lineSeparator());
+        sb.append(summary());
+        return sb.toString();
+    }
+
+    /**
+     * The results of every worker and the totals with the latency percentiles
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        if (workers.size() > 1) {
+            for (int i = 0; i < workers.size(); i++) {
+                sb.append(String.format(Locale.ROOT, "Worker %d: %s%n", i + 1, workers.get(i)));
+            }
+        }
+        sb.append(String.format(Locale.ROOT, "Total: %s%n", getTotal()));
+        if (latency.getTotalCount() > 0) {
+            sb.append(String.format(Locale.ROOT,
+                    "Ack latency (ms): p50 %.3f, p90 %.3f, p99 %.3f, p99.9 %.3f, max %.3f%n",
+                    latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(90) / 1000.0,
+                    latency.getValueAtPercentile(99) / 1000.0, latency.getValueAtPercentile(99.9) / 1000.0,
+                    latency.getMaxValue() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The counts of one interval of the run, with the rates per second
+     */
+    public static final class Second {
+        private final int index;
+        private final long intervalNanos;
+        private final long sent;
+        private final long acked;
+        private final long failed;
+        private final long p50;
+        private final long p99;
+        private final long max;
+
+        Second(int index, long intervalNanos, long sent, long acked, long failed, long p50, long p99, long max) {
+            this.index = index;
+            this.intervalNanos = intervalNanos;
+            this.sent = sent;
+            this.acked = acked;
+            this.failed = failed;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public long getSent() {
+            return sent;
+        }
+
+        public long getAcked() {
+            return acked;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public double getSentRate() {
+            return intervalNanos > 0 ? sent * 1e9 / intervalNanos : 0;
+        }
+
+        public double getAckedRate() {
+            return intervalNanos > 0 ? acked * 1e9 / intervalNanos : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%6d %10.0f %10.0f %8d %10.3f %10.3f %10.3f",
+                    index, getSentRate(), getAckedRate(), failed, p50 / 1000.0, p99 / 1000.0, max / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.kafka;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a load generator run achieved: the messages handed to the producer, the messages acknowledged by the broker and
+ * the achieved rates.
+ */
+public final class LoadResult {
+    private final long sent;
+    private final long acked;
+    private final long failed;
+    private final long bytes;
+    private final long sendNanos;
+    private final long totalNanos;
+
+    public LoadResult(long sent, long acked, long failed, long bytes, long sendNanos, long totalNanos) {
+        this.sent = sent;
+        this.acked = acked;
+        this.failed = failed;
+        this.bytes = bytes;
+        this.sendNanos = sendNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getAcked() {
+        return acked;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * The bytes of payload acknowledged by the broker
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * The time spent handing the messages to the producer
+     */
+    public long getSendNanos() {
+        return sendNanos;
+    }
+
+    /**
+     * The time until the last message was acknowledged
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * The messages per second handed to the producer
+     */
+    public double getSendRate() {
+        return rate(sent, sendNanos);
+    }
+
+    /**
+     * The messages per second acknowledged by the broker, which is the rate the topic was actually loaded with
+     */
+    public double getAckRate() {
+        return rate(acked, totalNanos);
+    }
+
+    private static double rate(long count, long nanos) {
+        return nanos > 0 ? count * (double) TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "Sent %d messages in %.3f s (%.1f msg/s), %d acked in %.3f s (%.1f msg/s, %.2f MB/s), %d failed",
+                sent, sendNanos / 1e9, getSendRate(), acked, totalNanos / 1e9, getAckRate(),
+                totalNanos > 0 ? bytes / 1024.0 / 1024.0 / (totalNanos / 1e9) : 0, failed);
+    }
+}
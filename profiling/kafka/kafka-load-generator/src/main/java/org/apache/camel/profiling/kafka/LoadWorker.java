@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.kafka;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Recorder;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * One producer of the load generator, which sends its share of the messages at its share of the rate.
+ * <p/>
+ * The workers start together: every worker creates its producer and fetches the metadata of the topic, then waits on
+ * the start barrier, whose action sets the common start time. The messages of all the workers are paced against that
+ * start time and interleaved, so together they send at the target rate without bursts at the start of every second.
+ */
+final class LoadWorker implements Callable<LoadResult> {
+    private final LoadOptions options;
+    private final int index;
+    private final byte[] payload;
+    private final Headers[] headers;
+    private final CyclicBarrier barrier;
+    private final AtomicLong start;
+    private final Recorder latency;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong acked = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong ackedBytes = new AtomicLong();
+    private final AtomicReference<Exception> firstError = new AtomicReference<>();
+    private volatile LoadResult result;
+
+    LoadWorker(LoadOptions options, int index, byte[] payload, Headers[] headers, CyclicBarrier barrier,
+               AtomicLong start, Recorder latency) {
+        this.options = options;
+        this.index = index;
+        this.payload = payload;
+        this.headers = headers;
+        this.barrier = barrier;
+        this.start = start;
+        this.latency = latency;
+    }
+
+    @Override
+    public LoadResult call() throws Exception {
+        int workers = options.getWorkers();
+        long number = Long.MAX_VALUE;
+        if (options.getNumber() > 0) {
+            number = options.getNumber() / workers + (index < options.getNumber() % workers ? 1 : 0);
+        }
+        // the messages of the workers take turns: worker k sends the messages k, k + workers, k + 2 * workers...
+        double nanosPerMessage = options.getRate() > 0 ? TimeUnit.SECONDS.toNanos(1) / options.getRate() : 0;
+
+        try (KafkaProducer<byte[], byte[]> producer = new KafkaProducer<>(options.producerProperties())) {
+            // fetch the metadata of the topic first, so its creation is not part of the measured run
+            producer.partitionsFor(options.getTopic());
+            barrier.await();
+
+            long begin = start.get();
+            long deadline = options.getDurationSeconds() > 0
+                    ? begin + TimeUnit.SECONDS.toNanos(options.getDurationSeconds()) : Long.MAX_VALUE;
+
+            for (long i = 0; i < number; i++) {
+                long now = System.nanoTime();
+                if (now - deadline >= 0) {
+                    break;
+                }
+                // with a target rate the latency is measured from when the message was due, so a producer that
+                // blocks does not hide its delay from the latencies
+                long due = now;
+                if (nanosPerMessage > 0) {
+                    due = begin + Math.round((i * workers + index) * nanosPerMessage);
+                    if (due - now > 0) {
+                        LockSupport.parkNanos(due - now);
+                    }
+                }
+                Headers header = headers.length > 0 ? headers[(int) ((i * workers + index) % headers.length)] : null;
+                ProducerRecord<byte[], byte[]> record
+                        = new ProducerRecord<>(options.getTopic(), null, (byte[]) null, payload, header);
+                producer.send(record, new AckCallback(due));
+                sent.incrementAndGet();
+            }
+            long sendNanos = System.nanoTime() - begin;
+
+            producer.flush();
+            long totalNanos = System.nanoTime() - begin;
+            result = new LoadResult(sent.get(), acked.get(), failed.get(), ackedBytes.get(), sendNanos, totalNanos);
+            return result;
+        }
+    }
+
+    /**
+     * The result of the worker once it is done
+     */
+    public LoadResult getResult() {
+        return result;
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public long getAcked() {
+        return acked.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * The first error reported by the producer, if any
+     */
+    public Exception getFirstError() {
+        return firstError.get();
+    }
+
+    private final class AckCallback implements Callback {
+        private final long sentNanos;
+
+        private AckCallback(long sentNanos) {
+            this.sentNanos = sentNanos;
+        }
+
+        @Override
+        public void onCompletion(RecordMetadata metadata, Exception exception) {
+            if (exception != null) {
+                failed.incrementAndGet();
+                firstError.compareAndSet(null, exception);
+            } else {
+                latency.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sentNanos)));
+                acked.incrementAndGet();
+                ackedBytes.addAndGet(payload.length);
+            }
+        }
+    }
+}
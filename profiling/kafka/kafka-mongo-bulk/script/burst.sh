@@ -0,0 +1,6 @@
+#!/bin/bash
+
+# Sends messages to Kafka with the kafka-load-generator module, e.g.
+# ./burst.sh -b localhost:9092 -n 1000 -t testtopic -p "payload"
+
+exec "$(dirname "$0")/../../kafka-load-generator/script/burst.sh" --header-cardinality 0 "$@"
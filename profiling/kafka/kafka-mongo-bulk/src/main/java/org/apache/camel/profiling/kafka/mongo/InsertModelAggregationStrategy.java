@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.kafka.mongo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.apache.camel.AggregationStrategy;
+import org.apache.camel.Exchange;
+import org.apache.camel.InvalidPayloadException;
+import org.apache.camel.RuntimeCamelException;
+import org.bson.Document;
+
+/**
+ * Aggregates the Kafka records into the list of insert models of a MongoDB bulkWrite, converting every record to a
+ * document as the mongodb-sink kamelet does for its single document inserts.
+ */
+public class InsertModelAggregationStrategy implements AggregationStrategy {
+
+    @Override
+    public Exchange aggregate(Exchange oldExchange, Exchange newExchange) {
+        InsertOneModel<Document> model;
+        try {
+            model = new InsertOneModel<>(newExchange.getMessage().getMandatoryBody(Document.class));
+        } catch (InvalidPayloadException e) {
+            throw new RuntimeCamelException(e);
+        }
+
+        if (oldExchange == null) {
+            List<WriteModel<Document>> models = new ArrayList<>();
+            models.add(model);
+            newExchange.getMessage().setBody(models);
+            return newExchange;
+        }
+        oldExchange.getMessage().getBody(List.class).add(model);
+        return oldExchange;
+    }
+}
@@ -0,0 +1,15 @@
+#!/bin/bash
+
+# Compares the single and the bulk writes of the log collection, building the harness on first use.
+# By default the documents go to a MongoDB stand-in in the same JVM, to use MongoDB instead:
+#   ./harness.sh --uri mongodb://127.0.0.1:27017
+# Run it with --help to list all the options. JVM options can be given with JAVA_OPTS.
+
+HARNESS_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+HARNESS_JAR="$HARNESS_DIR/target/kafka-mongo-harness.jar"
+
+if [ ! -f "$HARNESS_JAR" ]; then
+  (cd "$HARNESS_DIR" && mvn -q -B package) || exit 1
+fi
+
+cd "$HARNESS_DIR" && exec java $JAVA_OPTS -jar "$HARNESS_JAR" "$@"
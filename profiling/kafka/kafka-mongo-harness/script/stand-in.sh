@@ -0,0 +1,13 @@
+#!/bin/bash
+
+# Starts the MongoDB stand-in of the kafka-mongo-harness module on localhost:27017, building it on first use.
+# Run it with --help to list all the options. JVM options can be given with JAVA_OPTS.
+
+HARNESS_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+HARNESS_JAR="$HARNESS_DIR/target/kafka-mongo-harness.jar"
+
+if [ ! -f "$HARNESS_JAR" ]; then
+  (cd "$HARNESS_DIR" && mvn -q -B package) || exit 1
+fi
+
+exec java $JAVA_OPTS -cp "$HARNESS_JAR" org.apache.camel.profiling.mongo.MongoWireStandIn "$@"
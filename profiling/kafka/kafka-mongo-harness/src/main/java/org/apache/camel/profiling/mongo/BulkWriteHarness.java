@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.mongo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.sun.management.ThreadMXBean;
+import org.apache.camel.CamelContext;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.impl.DefaultCamelContext;
+
+/**
+ * Writes the same records in the log collection of the Kafka to MongoDB applications in every write mode, and reports
+ * the documents per second, the write times and the bytes allocated per document of each.
+ * <p/>
+ * By default the documents go to a {@link MongoWireStandIn} started in the same JVM, which only counts them, so the
+ * harness measures the client side of the writes: the conversions, the aggregation, the encoding of the documents and
+ * the round trips. It runs against MongoDB, or a stand-in in another JVM, with the connection string of the server.
+ */
+public final class BulkWriteHarness {
+    private static final long STALL_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private BulkWriteHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String uri = null;
+        int records = 100000;
+        int warmup = 20000;
+        List<WriteMode> modes = new ArrayList<>(Arrays.asList(WriteMode.values()));
+        int batchSize = 500;
+        long batchTimeout = 1000;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--uri".equals(args[i]) && i + 1 < args.length) {
+                uri = args[++i];
+            } else if ("--records".equals(args[i]) && i + 1 < args.length) {
+                records = Integer.parseInt(args[++i]);
+            } else if ("--warmup".equals(args[i]) && i + 1 < args.length) {
+                warmup = Integer.parseInt(args[++i]);
+            } else if ("--modes".equals(args[i]) && i + 1 < args.length) {
+                modes.clear();
+                for (String mode : args[++i].split(",")) {
+                    modes.add(WriteMode.of(mode));
+                }
+            } else if ("--batch-size".equals(args[i]) && i + 1 < args.length) {
+                batchSize = Integer.parseInt(args[++i]);
+            } else if ("--batch-timeout".equals(args[i]) && i + 1 < args.length) {
+                batchTimeout = Long.parseLong(args[++i]);
+            } else {
+                System.err.println("Unexpected argument: " + args[i]);
+                System.err.println("Usage: BulkWriteHarness [--uri <connection string>] [--records <records>] "
+                                   + "[--warmup <records>] [--modes single,insert-many,bulk-ordered,bulk-unordered] "
+                                   + "[--batch-size <records>] [--batch-timeout <ms>]");
+                System.exit(2);
+            }
+        }
+
+        MongoWireStandIn standIn = uri == null ? new MongoWireStandIn(0).start() : null;
+        try (MongoClient client = MongoClients.create(uri != null ? uri : standIn.getConnectionString())) {
+            List<WriteModeResult> results = new ArrayList<>();
+            for (WriteMode mode : modes) {
+                if (warmup > 0) {
+                    System.out.println("Warming up the " + mode + " mode with " + warmup + " records");
+                    run(client, mode, warmup, batchSize, batchTimeout);
+                }
+                System.out.println("Writing " + records + " records in the " + mode + " mode");
+                long before = standIn != null ? standIn.getDocuments() : 0;
+                WriteModeResult result = run(client, mode, records, batchSize, batchTimeout);
+                if (standIn != null && standIn.getDocuments() - before != records) {
+                    throw new IllegalStateException("Wrote " + records + " records, but the stand-in received "
+                                                    + (standIn.getDocuments() - before) + " documents");
+                }
+                results.add(result);
+            }
+
+            System.out.println();
+            System.out.println(WriteModeResult.HEADER);
+            results.forEach(System.out::println);
+            if (standIn != null) {
+                System.out.println("The stand-in received " + standIn);
+            }
+        } finally {
+            if (standIn != null) {
+                standIn.close();
+            }
+        }
+    }
+
+    /**
+     * Writes the records in the given mode, returning once they are all written
+     */
+    public static WriteModeResult run(MongoClient client, WriteMode mode, int records, int batchSize,
+                                      long batchTimeout)
+            throws Exception {
+        BulkWriteRoutes routes = new BulkWriteRoutes(mode, batchSize, batchTimeout);
+        try (CamelContext camel = new DefaultCamelContext()) {
+            camel.getRegistry().bind("mongo", client);
+            camel.addRoutes(routes);
+            camel.start();
+
+            ProducerTemplate template = camel.createProducerTemplate();
+            Map<Long, Long> allocated = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < records; i++) {
+                template.sendBody(BulkWriteRoutes.ENDPOINT, record(i));
+            }
+            awaitDocuments(routes, records);
+            long nanos = System.nanoTime() - start;
+            long allocatedBytes = 0;
+            for (Map.Entry<Long, Long> entry : allocatedBytes().entrySet()) {
+                allocatedBytes += entry.getValue() - allocated.getOrDefault(entry.getKey(), 0L);
+            }
+            return new WriteModeResult(mode, records, nanos, allocatedBytes, routes.getWrites());
+        }
+    }
+
+    private static void awaitDocuments(BulkWriteRoutes routes, long records) throws InterruptedException {
+        long documents = routes.getDocuments();
+        long progress = System.nanoTime();
+        while (documents < records) {
+            if (routes.getFailure() != null) {
+                throw new IllegalStateException("The write failed", routes.getFailure());
+            }
+            if (System.nanoTime() - progress > STALL_TIMEOUT_NANOS) {
+                throw new IllegalStateException("No document was written for 60 seconds, " + documents + " of "
+                                                + records);
+            }
+            Thread.sleep(1);
+            long current = routes.getDocuments();
+            if (current > documents) {
+                documents = current;
+                progress = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * The bytes allocated so far by every live thread but the threads of the stand-in, by thread id. The threads
+     * that end during a run are not counted, the threads of Camel and of the driver live as long as the run.
+     */
+    private static Map<Long, Long> allocatedBytes() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<Long, Long> answer = new HashMap<>();
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info != null && !info.getThreadName().startsWith(MongoWireStandIn.THREAD_PREFIX)) {
+                long bytes = threads.getThreadAllocatedBytes(info.getThreadId());
+                if (bytes >= 0) {
+                    answer.put(info.getThreadId(), bytes);
+                }
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * A record as the Kafka consumer of the applications gives it to the write, in the JSON of the burst scripts
+     */
+    private static String record(int i) {
+        return "{\"name\": \"user-" + i + "\", \"age\": " + (i % 100) + "}";
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.mongo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mongodb.MongoDbConstants;
+import org.apache.camel.model.ProcessorDefinition;
+import org.apache.camel.processor.aggregate.GroupedBodyAggregationStrategy;
+import org.bson.Document;
+
+/**
+ * The write route of the Kafka to MongoDB applications, without the Kafka consumer in front of it.
+ * <p/>
+ * Every record is converted from JSON to a document, as the mongodb-sink kamelet does, then written on its own or
+ * aggregated by size and time and written with one insertMany or one bulkWrite of insert models, as the route of
+ * kafka-mongo-bulk does.
+ */
+final class BulkWriteRoutes extends RouteBuilder {
+    static final String ENDPOINT = "seda:records?size=10000&blockWhenFull=true";
+
+    private static final String WRITE_START = "writeStart";
+
+    private final WriteMode mode;
+    private final int batchSize;
+    private final long batchTimeout;
+    private final Recorder writes = new Recorder(3);
+    private final LongAdder documents = new LongAdder();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    BulkWriteRoutes(WriteMode mode, int batchSize, long batchTimeout) {
+        this.mode = mode;
+        this.batchSize = batchSize;
+        this.batchTimeout = batchTimeout;
+    }
+
+    @Override
+    public void configure() {
+        onException(Exception.class)
+                .handled(true)
+                .process(exchange -> failure.compareAndSet(null,
+                        exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class)));
+
+        ProcessorDefinition<?> route = from(ENDPOINT).routeId("write")
+                .convertBodyTo(Document.class);
+        if (mode.isAggregated()) {
+            route = route.aggregate(constant(true), new GroupedBodyAggregationStrategy())
+                    .completionSize(batchSize)
+                    .completionTimeout(batchTimeout);
+        }
+        if (mode.isBulkWrite()) {
+            route = route.process(BulkWriteRoutes::toInsertModels)
+                    .setHeader(MongoDbConstants.BULK_ORDERED, constant(mode == WriteMode.BULK_ORDERED));
+        }
+        route.process(exchange -> exchange.setProperty(WRITE_START, System.nanoTime()))
+                .to("mongodb:mongo?database=test&collection=log&operation="
+                    + (mode.isBulkWrite() ? "bulkWrite" : "insert"))
+                .process(this::written);
+    }
+
+    private static void toInsertModels(Exchange exchange) {
+        List<?> bodies = exchange.getMessage().getBody(List.class);
+        List<WriteModel<Document>> models = new ArrayList<>(bodies.size());
+        for (Object body : bodies) {
+            models.add(new InsertOneModel<>((Document) body));
+        }
+        exchange.getMessage().setBody(models);
+    }
+
+    private void written(Exchange exchange) {
+        long nanos = System.nanoTime() - exchange.getProperty(WRITE_START, Long.class);
+        writes.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+        documents.add(mode.isAggregated() ? exchange.getProperty(Exchange.AGGREGATED_SIZE, Integer.class) : 1);
+    }
+
+    /**
+     * The documents written so far
+     */
+    long getDocuments() {
+        return documents.sum();
+    }
+
+    /**
+     * The first write that failed, if any
+     */
+    Exception getFailure() {
+        return failure.get();
+    }
+
+    /**
+     * The time of every write since the last call, in microseconds
+     */
+    Histogram getWrites() {
+        return writes.getIntervalHistogram();
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.mongo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bson.BsonArray;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonBoolean;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+/**
+ * A server speaking enough of the MongoDB wire protocol for the Java driver to connect and insert documents, which
+ * counts the documents and throws them away.
+ * <p/>
+ * It answers the handshake, the insert command with the documents inline or in a document sequence, as the driver
+ * sends insertOne, insertMany and bulkWrite, and the few commands around them, such as listCollections and create.
+ * Any other command fails with CommandNotFound. There is no authentication, so the clients must not send
+ * credentials.
+ * <p/>
+ * It can be embedded in a test harness, with try-with-resources, or started on its own with {@link #main(String[])},
+ * by default on port 27017 where the MongoDB applications expect MongoDB.
+ */
+public final class MongoWireStandIn implements AutoCloseable {
+    public static final int DEFAULT_PORT = 27017;
+
+    /**
+     * The prefix of the names of the threads of the stand-in, to leave them out of the measures of the clients
+     */
+    public static final String THREAD_PREFIX = "mongo-stand-in";
+
+    private static final int OP_REPLY = 1;
+    private static final int OP_QUERY = 2004;
+    private static final int OP_MSG = 2013;
+    private static final int CHECKSUM_PRESENT = 1;
+    private static final int MORE_TO_COME = 1 << 1;
+    private static final int MAX_WIRE_VERSION = 17;
+
+    private final int port;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger responses = new AtomicInteger();
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder documents = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+
+    public MongoWireStandIn(int port) {
+        this.port = port;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = DEFAULT_PORT;
+        int reportInterval = 10;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if ("--report-interval".equals(args[i]) && i + 1 < args.length) {
+                reportInterval = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Unexpected argument: " + args[i]);
+                System.err.println("Usage: MongoWireStandIn [--port <port>] [--report-interval <seconds>]");
+                System.exit(2);
+            }
+        }
+
+        MongoWireStandIn standIn = new MongoWireStandIn(port);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            reporter.shutdownNow();
+            standIn.close();
+            System.out.println("MongoDB stand-in stopped after " + standIn);
+            stopped.countDown();
+        }, THREAD_PREFIX + "-shutdown"));
+
+        standIn.start();
+        if (reportInterval > 0) {
+            reporter.scheduleAtFixedRate(() -> System.out.println(standIn), reportInterval, reportInterval,
+                    TimeUnit.SECONDS);
+        }
+        System.out.println("MongoDB stand-in started on " + standIn.getConnectionString()
+                           + ", press Ctrl+C to stop it");
+        stopped.await();
+    }
+
+    /**
+     * Starts accepting the connections, with a thread per connection
+     */
+    public MongoWireStandIn start() {
+        if (serverSocket != null) {
+            throw new IllegalStateException("The stand-in is already started");
+        }
+        try {
+            serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen on port " + port, e);
+        }
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, THREAD_PREFIX + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::accept);
+        return this;
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                // closed
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        int connectionId = connections.incrementAndGet();
+        try (Socket s = socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 64 * 1024));
+             OutputStream out = new BufferedOutputStream(s.getOutputStream(), 64 * 1024)) {
+            byte[] header = new byte[16];
+            while (true) {
+                try {
+                    in.readFully(header);
+                } catch (EOFException e) {
+                    return;
+                }
+                ByteBuffer headerBuffer = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+                int length = headerBuffer.getInt();
+                int requestId = headerBuffer.getInt();
+                headerBuffer.getInt();
+                int opCode = headerBuffer.getInt();
+                byte[] message = new byte[length - 16];
+                in.readFully(message);
+                bytes.add(length);
+
+                ByteBuffer buffer = ByteBuffer.wrap(message).order(ByteOrder.LITTLE_ENDIAN);
+                if (opCode == OP_MSG) {
+                    int flags = buffer.getInt();
+                    int end = message.length - ((flags & CHECKSUM_PRESENT) != 0 ? 4 : 0);
+                    BsonDocument reply = handleMessage(buffer, end, connectionId);
+                    if ((flags & MORE_TO_COME) == 0) {
+                        writeMessage(out, requestId, reply);
+                    }
+                } else if (opCode == OP_QUERY) {
+                    buffer.getInt();
+                    skipCString(buffer);
+                    buffer.getInt();
+                    buffer.getInt();
+                    BsonDocument reply = handleCommand(readDocument(buffer), 0, connectionId);
+                    writeReply(out, requestId, reply);
+                } else {
+                    throw new IOException("Unsupported opCode " + opCode);
+                }
+            }
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                System.err.println("MongoDB stand-in connection " + connectionId + " failed: " + e);
+            }
+        }
+    }
+
+    private BsonDocument handleMessage(ByteBuffer buffer, int end, int connectionId) {
+        RawBsonDocument body = null;
+        int sequenceDocuments = 0;
+        while (buffer.position() < end) {
+            byte kind = buffer.get();
+            if (kind == 0) {
+                body = readDocument(buffer);
+            } else {
+                int sectionEnd = buffer.position() + buffer.getInt();
+                skipCString(buffer);
+                while (buffer.position() < sectionEnd) {
+                    int size = buffer.getInt(buffer.position());
+                    buffer.position(buffer.position() + size);
+                    sequenceDocuments++;
+                }
+            }
+        }
+        return handleCommand(body, sequenceDocuments, connectionId);
+    }
+
+    private BsonDocument handleCommand(RawBsonDocument command, int sequenceDocuments, int connectionId) {
+        commands.increment();
+        String name = command.getFirstKey();
+        BsonDocument reply = new BsonDocument();
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "hello":
+            case "ismaster":
+                reply.put("helloOk", BsonBoolean.TRUE);
+                reply.put("ismaster", BsonBoolean.TRUE);
+                reply.put("isWritablePrimary", BsonBoolean.TRUE);
+                reply.put("maxBsonObjectSize", new BsonInt32(16 * 1024 * 1024));
+                reply.put("maxMessageSizeBytes", new BsonInt32(48000000));
+                reply.put("maxWriteBatchSize", new BsonInt32(100000));
+                reply.put("localTime", new BsonDateTime(System.currentTimeMillis()));
+                reply.put("minWireVersion", new BsonInt32(0));
+                reply.put("maxWireVersion", new BsonInt32(MAX_WIRE_VERSION));
+                reply.put("readOnly", BsonBoolean.FALSE);
+                reply.put("connectionId", new BsonInt32(connectionId));
+                break;
+            case "buildinfo":
+                reply.put("version", new BsonString("6.0.0"));
+                reply.put("versionArray", new BsonArray(
+                        List.of(new BsonInt32(6), new BsonInt32(0), new BsonInt32(0), new BsonInt32(0))));
+                break;
+            case "insert":
+                int count = sequenceDocuments;
+                BsonValue inline = command.get("documents");
+                if (inline != null && inline.isArray()) {
+                    count += inline.asArray().size();
+                }
+                inserts.increment();
+                documents.add(count);
+                reply.put("n", new BsonInt32(count));
+                break;
+            case "listcollections":
+                reply.put("cursor", cursor(command.getString("$db").getValue() + ".$cmd.listCollections"));
+                break;
+            case "find":
+            case "aggregate":
+                BsonValue collection = command.get(name);
+                reply.put("cursor", cursor(command.getString("$db").getValue() + "."
+                                           + (collection.isString() ? collection.asString().getValue() : "$cmd")));
+                break;
+            case "ping":
+            case "create":
+            case "drop":
+            case "createindexes":
+            case "endsessions":
+            case "killcursors":
+                break;
+            default:
+                reply.put("ok", new BsonDouble(0));
+                reply.put("errmsg", new BsonString("no such command: '" + name + "'"));
+                reply.put("code", new BsonInt32(59));
+                reply.put("codeName", new BsonString("CommandNotFound"));
+                return reply;
+        }
+        reply.put("ok", new BsonDouble(1));
+        return reply;
+    }
+
+    private static BsonDocument cursor(String namespace) {
+        BsonDocument cursor = new BsonDocument();
+        cursor.put("id", new BsonInt64(0));
+        cursor.put("ns", new BsonString(namespace));
+        cursor.put("firstBatch", new BsonArray());
+        return cursor;
+    }
+
+    private void writeMessage(OutputStream out, int responseTo, BsonDocument reply) throws IOException {
+        byte[] document = encode(reply);
+        ByteBuffer buffer = ByteBuffer.allocate(16 + 4 + 1 + document.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(buffer.capacity()).putInt(responses.incrementAndGet()).putInt(responseTo).putInt(OP_MSG);
+        buffer.putInt(0).put((byte) 0).put(document);
+        out.write(buffer.array());
+        out.flush();
+    }
+
+    private void writeReply(OutputStream out, int responseTo, BsonDocument reply) throws IOException {
+        byte[] document = encode(reply);
+        ByteBuffer buffer = ByteBuffer.allocate(16 + 20 + document.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(buffer.capacity()).putInt(responses.incrementAndGet()).putInt(responseTo).putInt(OP_REPLY);
+        buffer.putInt(0).putLong(0).putInt(0).putInt(1).put(document);
+        out.write(buffer.array());
+        out.flush();
+    }
+
+    private static byte[] encode(BsonDocument document) {
+        BasicOutputBuffer output = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(output)) {
+            new BsonDocumentCodec().encode(writer, document, EncoderContext.builder().build());
+        }
+        return output.toByteArray();
+    }
+
+    private static RawBsonDocument readDocument(ByteBuffer buffer) {
+        int size = buffer.getInt(buffer.position());
+        RawBsonDocument document = new RawBsonDocument(buffer.array(), buffer.position(), size);
+        buffer.position(buffer.position() + size);
+        return document;
+    }
+
+    private static void skipCString(ByteBuffer buffer) {
+        while (buffer.get() != 0) {
+            // the name of the collection or of the document sequence
+        }
+    }
+
+    public String getConnectionString() {
+        return "mongodb://localhost:" + serverSocket.getLocalPort();
+    }
+
+    /**
+     * The commands received, including the handshakes
+     */
+    public long getCommands() {
+        return commands.sum();
+    }
+
+    /**
+     * The insert commands received, a bulkWrite or an insertMany being split by the driver in several of them when
+     * it is larger than the limits of the server
+     */
+    public long getInserts() {
+        return inserts.sum();
+    }
+
+    public long getDocuments() {
+        return documents.sum();
+    }
+
+    /**
+     * The bytes of the messages received
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d connections, %d commands, %d inserts, %d documents, %.2f MB received",
+                connections.get(), getCommands(), getInserts(), getDocuments(), getBytes() / 1024.0 / 1024.0);
+    }
+}
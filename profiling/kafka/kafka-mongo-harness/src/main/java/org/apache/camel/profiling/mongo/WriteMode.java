@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.mongo;
+
+/**
+ * How the documents are written: one by one as the mongodb-sink kamelet does, or aggregated by size and time into an
+ * insertMany or into an ordered or unordered bulkWrite.
+ */
+public enum WriteMode {
+    SINGLE("single"),
+    INSERT_MANY("insert-many"),
+    BULK_ORDERED("bulk-ordered"),
+    BULK_UNORDERED("bulk-unordered");
+
+    private final String name;
+
+    WriteMode(String name) {
+        this.name = name;
+    }
+
+    public static WriteMode of(String name) {
+        for (WriteMode mode : values()) {
+            if (mode.name.equals(name)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown write mode: " + name);
+    }
+
+    public boolean isAggregated() {
+        return this != SINGLE;
+    }
+
+    public boolean isBulkWrite() {
+        return this == BULK_ORDERED || this == BULK_UNORDERED;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
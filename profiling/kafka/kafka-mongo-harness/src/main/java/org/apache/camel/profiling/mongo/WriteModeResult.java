@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.mongo;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * What a write mode achieved: the documents written per second, the time of the writes, which is one document in the
+ * single mode and one group of documents in the others, and the bytes allocated by the client per document.
+ */
+public final class WriteModeResult {
+    static final String HEADER = String.format(Locale.ROOT, "%-14s %10s %8s %10s %8s %10s %10s %10s %12s",
+            "Mode", "Docs", "Seconds", "Docs/s", "Writes", "Docs/write", "p50 (ms)", "p99 (ms)", "Alloc/doc (B)");
+
+    private final WriteMode mode;
+    private final long documents;
+    private final long nanos;
+    private final long allocatedBytes;
+    private final Histogram writes;
+
+    public WriteModeResult(WriteMode mode, long documents, long nanos, long allocatedBytes, Histogram writes) {
+        this.mode = mode;
+        this.documents = documents;
+        this.nanos = nanos;
+        this.allocatedBytes = allocatedBytes;
+        this.writes = writes;
+    }
+
+    public WriteMode getMode() {
+        return mode;
+    }
+
+    public long getDocuments() {
+        return documents;
+    }
+
+    /**
+     * The time from the first record sent until the last document written
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getDocumentsPerSecond() {
+        return nanos > 0 ? documents * (double) TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+    }
+
+    /**
+     * The bytes allocated by the threads of the client during the run, the stand-in left out
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long getAllocatedBytesPerDocument() {
+        return documents > 0 ? allocatedBytes / documents : 0;
+    }
+
+    /**
+     * The time of the writes, in microseconds
+     */
+    public Histogram getWrites() {
+        return writes;
+    }
+
+    @Override
+    public String toString() {
+        long count = writes.getTotalCount();
+        return String.format(Locale.ROOT, "%-14s %10d %8.2f %10.0f %8d %10.1f %10.2f %10.2f %12d",
+                mode, documents, nanos / 1e9, getDocumentsPerSecond(), count,
+                count > 0 ? documents / (double) count : 0, writes.getValueAtPercentile(50) / 1000.0,
+                writes.getValueAtPercentile(99) / 1000.0, getAllocatedBytesPerDocument());
+    }
+}
@@ -0,0 +1,30 @@
+#!/bin/bash
+
+# Sends messages to Kafka from several producers of the kafka-load-generator module, which start together and share
+# the target rate (-r). The number of messages (-n) is per producer (-s), as it was with the former multiburst.sh, e.g.
+# ./multiburst.sh -s 5 -b localhost:9092 -n 1000 -t testtopic -p "payload"
+
+WORKERS=1
+ARGS=()
+while [[ $# -gt 0 ]]; do
+  case "$1" in
+    -s|--script)
+      WORKERS="$2"
+      shift 2
+      ;;
+    -n|--number)
+      NUMBER="$2"
+      shift 2
+      ;;
+    *)
+      ARGS+=("$1")
+      shift
+      ;;
+  esac
+done
+
+if [ -n "$NUMBER" ]; then
+  ARGS+=(-n $((NUMBER * WORKERS)))
+fi
+
+exec "$(dirname "$0")/burst.sh" -w "$WORKERS" "${ARGS[@]}"
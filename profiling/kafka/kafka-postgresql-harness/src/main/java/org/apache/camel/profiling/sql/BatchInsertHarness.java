@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.sql;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.commons.dbcp2.BasicDataSource;
+
+/**
+ * Inserts the same records in the accounts table of the Kafka to PostgreSQL applications with one commit per record
+ * and with batches, and reports the rows per second and the commit times of both.
+ * <p/>
+ * By default the database is an embedded HSQLDB in target/accounts-db, which syncs every commit to disk as
+ * PostgreSQL does, so the harness runs anywhere. It runs against PostgreSQL with the JDBC url, username and password
+ * of the database.
+ */
+public final class BatchInsertHarness {
+    public static final String DEFAULT_URL = "jdbc:hsqldb:file:target/accounts-db/accounts;sql.syntax_pgs=true;"
+                                             + "hsqldb.write_delay=false;shutdown=true";
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS accounts ( user_id serial PRIMARY KEY, "
+                                               + "username VARCHAR ( 50 ) NOT NULL, city VARCHAR ( 50 ) NOT NULL)";
+    private static final String[] CITIES = { "Roma", "Milano", "Napoli", "Torino", "Firenze", "Bologna", "Genova" };
+    private static final long STALL_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private BatchInsertHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = DEFAULT_URL;
+        String username = "SA";
+        String password = "";
+        int records = 100000;
+        int warmup = 10000;
+        String mode = "both";
+        int batchSize = 500;
+        long batchTimeout = 1000;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--url".equals(args[i]) && i + 1 < args.length) {
+                url = args[++i];
+            } else if ("--username".equals(args[i]) && i + 1 < args.length) {
+                username = args[++i];
+            } else if ("--password".equals(args[i]) && i + 1 < args.length) {
+                password = args[++i];
+            } else if ("--records".equals(args[i]) && i + 1 < args.length) {
+                records = Integer.parseInt(args[++i]);
+            } else if ("--warmup".equals(args[i]) && i + 1 < args.length) {
+                warmup = Integer.parseInt(args[++i]);
+            } else if ("--mode".equals(args[i]) && i + 1 < args.length
+                    && List.of("per-record", "batch", "both").contains(args[i + 1])) {
+                mode = args[++i];
+            } else if ("--batch-size".equals(args[i]) && i + 1 < args.length) {
+                batchSize = Integer.parseInt(args[++i]);
+            } else if ("--batch-timeout".equals(args[i]) && i + 1 < args.length) {
+                batchTimeout = Long.parseLong(args[++i]);
+            } else {
+                System.err.println("Unexpected argument: " + args[i]);
+                System.err.println("Usage: BatchInsertHarness [--url <jdbc url>] [--username <username>] "
+                                   + "[--password <password>] [--records <records>] [--warmup <records>] "
+                                   + "[--mode per-record|batch|both] [--batch-size <records>] "
+                                   + "[--batch-timeout <ms>]");
+                System.exit(2);
+            }
+        }
+
+        List<Boolean> modes = new ArrayList<>();
+        if (!"batch".equals(mode)) {
+            modes.add(false);
+        }
+        if (!"per-record".equals(mode)) {
+            modes.add(true);
+        }
+
+        try (BasicDataSource dataSource = new BasicDataSource()) {
+            dataSource.setUrl(url);
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            execute(dataSource, CREATE_TABLE);
+
+            List<InsertResult> results = new ArrayList<>();
+            for (boolean batch : modes) {
+                if (warmup > 0) {
+                    System.out.println("Warming up the " + name(batch) + " mode with " + warmup + " records");
+                    run(dataSource, batch, warmup, batchSize, batchTimeout);
+                }
+                System.out.println("Inserting " + records + " records in the " + name(batch) + " mode");
+                results.add(run(dataSource, batch, records, batchSize, batchTimeout));
+            }
+
+            System.out.println();
+            System.out.println(InsertResult.HEADER);
+            results.forEach(System.out::println);
+            if (results.size() == 2) {
+                System.out.println(String.format(Locale.ROOT, "The batch inserts of %d records are %.1f times as fast",
+                        batchSize, results.get(1).getRowsPerSecond() / results.get(0).getRowsPerSecond()));
+            }
+        }
+    }
+
+    /**
+     * Inserts the records in an empty table, returning once they are all in the table
+     */
+    public static InsertResult run(DataSource dataSource, boolean batch, int records, int batchSize, long batchTimeout)
+            throws Exception {
+        execute(dataSource, "TRUNCATE TABLE accounts");
+
+        InsertRoutes routes = new InsertRoutes(batch, batchSize, batchTimeout);
+        long nanos;
+        try (CamelContext camel = new DefaultCamelContext()) {
+            camel.getRegistry().bind("accounts", dataSource);
+            camel.addRoutes(routes);
+            camel.start();
+
+            ProducerTemplate template = camel.createProducerTemplate();
+            long start = System.nanoTime();
+            for (int i = 0; i < records; i++) {
+                template.sendBody(InsertRoutes.ENDPOINT, record(i));
+            }
+            awaitRows(routes, records);
+            nanos = System.nanoTime() - start;
+        }
+
+        long count = count(dataSource);
+        if (count != records) {
+            throw new IllegalStateException("Inserted " + records + " records, but the table has " + count + " rows");
+        }
+        return new InsertResult(name(batch), records, nanos, routes.getCommits());
+    }
+
+    private static void awaitRows(InsertRoutes routes, long records) throws InterruptedException {
+        long rows = routes.getRows();
+        long progress = System.nanoTime();
+        while (rows < records) {
+            if (routes.getFailure() != null) {
+                throw new IllegalStateException("The insert failed", routes.getFailure());
+            }
+            if (System.nanoTime() - progress > STALL_TIMEOUT_NANOS) {
+                throw new IllegalStateException("No row was inserted for 60 seconds, " + rows + " of " + records);
+            }
+            Thread.sleep(1);
+            long current = routes.getRows();
+            if (current > rows) {
+                rows = current;
+                progress = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * A record as the JSON unmarshalling of the applications gives it to the insert
+     */
+    private static Map<String, Object> record(int i) {
+        Map<String, Object> answer = new LinkedHashMap<>();
+        answer.put("username", "user-" + i);
+        answer.put("city", CITIES[i % CITIES.length]);
+        return answer;
+    }
+
+    private static String name(boolean batch) {
+        return batch ? "batch" : "per-record";
+    }
+
+    private static void execute(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static long count(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM accounts")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.sql;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * What an insert mode achieved: the rows inserted per second and the time of the commits, which is one row in the
+ * per record mode and one group of rows in the batch mode.
+ */
+public final class InsertResult {
+    static final String HEADER = String.format(Locale.ROOT, "%-10s %10s %8s %10s %8s %11s %10s %10s %10s",
+            "Mode", "Rows", "Seconds", "Rows/s", "Commits", "Rows/commit", "p50 (ms)", "p99 (ms)", "Max (ms)");
+
+    private final String mode;
+    private final long rows;
+    private final long nanos;
+    private final Histogram commits;
+
+    public InsertResult(String mode, long rows, long nanos, Histogram commits) {
+        this.mode = mode;
+        this.rows = rows;
+        this.nanos = nanos;
+        this.commits = commits;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * The time from the first record sent until the last row inserted
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getRowsPerSecond() {
+        return nanos > 0 ? rows * (double) TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+    }
+
+    /**
+     * The time of the commits, in microseconds
+     */
+    public Histogram getCommits() {
+        return commits;
+    }
+
+    @Override
+    public String toString() {
+        long count = commits.getTotalCount();
+        return String.format(Locale.ROOT, "%-10s %10d %8.2f %10.0f %8d %11.1f %10.2f %10.2f %10.2f",
+                mode, rows, nanos / 1e9, getRowsPerSecond(), count, count > 0 ? rows / (double) count : 0,
+                commits.getValueAtPercentile(50) / 1000.0, commits.getValueAtPercentile(99) / 1000.0,
+                commits.getMaxValue() / 1000.0);
+    }
+}
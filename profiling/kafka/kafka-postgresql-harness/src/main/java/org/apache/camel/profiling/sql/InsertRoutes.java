@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.sql;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.model.ProcessorDefinition;
+import org.apache.camel.processor.aggregate.GroupedBodyAggregationStrategy;
+
+/**
+ * The insert route of the Kafka to PostgreSQL applications, without the Kafka consumer in front of it.
+ * <p/>
+ * In the per record mode every record is inserted on its own, as the postgresql-sink kamelet of kafka-postgresql does,
+ * so every record is a commit. In the batch mode the records are aggregated by size and time and every group is
+ * inserted with one JDBC batch, as the route of kafka-postgresql-batch does, so every group is a commit.
+ */
+final class InsertRoutes extends RouteBuilder {
+    static final String ENDPOINT = "seda:records?size=10000&blockWhenFull=true";
+    static final String INSERT = "INSERT INTO accounts (username,city) VALUES (:#username,:#city)";
+
+    private static final String COMMIT_START = "commitStart";
+
+    private final boolean batch;
+    private final int batchSize;
+    private final long batchTimeout;
+    private final Recorder commits = new Recorder(3);
+    private final LongAdder rows = new LongAdder();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    InsertRoutes(boolean batch, int batchSize, long batchTimeout) {
+        this.batch = batch;
+        this.batchSize = batchSize;
+        this.batchTimeout = batchTimeout;
+    }
+
+    @Override
+    public void configure() {
+        onException(Exception.class)
+                .handled(true)
+                .process(exchange -> failure.compareAndSet(null,
+                        exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class)));
+
+        ProcessorDefinition<?> route = from(ENDPOINT).routeId("insert");
+        if (batch) {
+            route = route.aggregate(constant(true), new GroupedBodyAggregationStrategy())
+                    .completionSize(batchSize)
+                    .completionTimeout(batchTimeout);
+        }
+        route.process(exchange -> exchange.setProperty(COMMIT_START, System.nanoTime()))
+                .to("sql:" + INSERT + "?dataSource=#accounts" + (batch ? "&batch=true" : ""))
+                .process(this::committed);
+    }
+
+    private void committed(Exchange exchange) {
+        long nanos = System.nanoTime() - exchange.getProperty(COMMIT_START, Long.class);
+        commits.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+        rows.add(batch ? exchange.getMessage().getBody(List.class).size() : 1);
+    }
+
+    /**
+     * The rows inserted so far
+     */
+    long getRows() {
+        return rows.sum();
+    }
+
+    /**
+     * The first insert that failed, if any
+     */
+    Exception getFailure() {
+        return failure.get();
+    }
+
+    /**
+     * The time of every commit since the last call, in microseconds
+     */
+    Histogram getCommits() {
+        return commits.getIntervalHistogram();
+    }
+}
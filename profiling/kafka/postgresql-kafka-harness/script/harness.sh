@@ -0,0 +1,15 @@
+#!/bin/bash
+
+# Compares the full table and the paged reads of the accounts table, building the harness on first use.
+# By default the database is an embedded HSQLDB in target/accounts-db of the module, to use PostgreSQL instead:
+#   ./harness.sh --url jdbc:postgresql://172.17.0.2:5432/postgres --username postgres --password secret
+# Run it with --help to list all the options. JVM options can be given with JAVA_OPTS.
+
+HARNESS_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+HARNESS_JAR="$HARNESS_DIR/target/postgresql-kafka-harness.jar"
+
+if [ ! -f "$HARNESS_JAR" ]; then
+  (cd "$HARNESS_DIR" && mvn -q -B package) || exit 1
+fi
+
+cd "$HARNESS_DIR" && exec java $JAVA_OPTS -jar "$HARNESS_JAR" "$@"
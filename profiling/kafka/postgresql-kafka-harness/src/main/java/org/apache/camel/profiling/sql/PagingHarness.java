@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.commons.dbcp2.BasicDataSource;
+
+/**
+ * Reads the accounts table of the PostgreSQL to Kafka applications whole and by pages, for tables of growing sizes,
+ * and reports the rows per second and the most heap in use after a garbage collection of both.
+ * <p/>
+ * By default the database is an embedded HSQLDB in target/accounts-db, with the rows on disk and a bounded cache in
+ * the heap, so the harness runs anywhere. It runs against PostgreSQL with the JDBC url, username and password of the
+ * database.
+ */
+public final class PagingHarness {
+    public static final String DEFAULT_URL = "jdbc:hsqldb:file:target/accounts-db/accounts;sql.syntax_pgs=true;"
+                                             + "hsqldb.default_table_type=cached;shutdown=true";
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS accounts ( user_id serial PRIMARY KEY, "
+                                               + "username VARCHAR ( 50 ) NOT NULL, city VARCHAR ( 50 ) NOT NULL)";
+    private static final int POPULATE_BATCH = 10000;
+    private static final long STALL_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private PagingHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = DEFAULT_URL;
+        String username = "SA";
+        String password = "";
+        List<Integer> sizes = new ArrayList<>(List.of(10000, 100000, 1000000, 10000000));
+        int warmup = 10000;
+        List<ReadMode> modes = new ArrayList<>(Arrays.asList(ReadMode.values()));
+        int fullTableMaxRows = 1000000;
+        int pageSize = 500;
+        long pageTimeout = 1000;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--url".equals(args[i]) && i + 1 < args.length) {
+                url = args[++i];
+            } else if ("--username".equals(args[i]) && i + 1 < args.length) {
+                username = args[++i];
+            } else if ("--password".equals(args[i]) && i + 1 < args.length) {
+                password = args[++i];
+            } else if ("--sizes".equals(args[i]) && i + 1 < args.length) {
+                sizes.clear();
+                for (String size : args[++i].split(",")) {
+                    sizes.add(Integer.parseInt(size));
+                }
+            } else if ("--warmup".equals(args[i]) && i + 1 < args.length) {
+                warmup = Integer.parseInt(args[++i]);
+            } else if ("--modes".equals(args[i]) && i + 1 < args.length) {
+                modes.clear();
+                for (String mode : args[++i].split(",")) {
+                    modes.add(ReadMode.of(mode));
+                }
+            } else if ("--full-table-max-rows".equals(args[i]) && i + 1 < args.length) {
+                fullTableMaxRows = Integer.parseInt(args[++i]);
+            } else if ("--page-size".equals(args[i]) && i + 1 < args.length) {
+                pageSize = Integer.parseInt(args[++i]);
+            } else if ("--page-timeout".equals(args[i]) && i + 1 < args.length) {
+                pageTimeout = Long.parseLong(args[++i]);
+            } else {
+                System.err.println("Unexpected argument: " + args[i]);
+                System.err.println("Usage: PagingHarness [--url <jdbc url>] [--username <username>] "
+                                   + "[--password <password>] [--sizes <rows>,<rows>...] [--warmup <rows>] "
+                                   + "[--modes full-table,paged] [--full-table-max-rows <rows>] "
+                                   + "[--page-size <rows>] [--page-timeout <ms>]");
+                System.exit(2);
+            }
+        }
+
+        try (BasicDataSource dataSource = new BasicDataSource()) {
+            dataSource.setUrl(url);
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            execute(dataSource, CREATE_TABLE);
+
+            if (warmup > 0) {
+                for (ReadMode mode : modes) {
+                    System.out.println("Warming up the " + mode + " mode with " + warmup + " rows");
+                    run(dataSource, mode, warmup, pageSize, pageTimeout);
+                }
+            }
+
+            List<ReadResult> results = new ArrayList<>();
+            for (int size : sizes) {
+                for (ReadMode mode : modes) {
+                    if (mode == ReadMode.FULL_TABLE && size > fullTableMaxRows) {
+                        System.out.println("Skipping the " + mode + " mode with " + size + " rows, above the "
+                                           + fullTableMaxRows + " rows of --full-table-max-rows");
+                        continue;
+                    }
+                    System.out.println("Reading " + size + " rows in the " + mode + " mode");
+                    results.add(run(dataSource, mode, size, pageSize, pageTimeout));
+                }
+            }
+
+            System.out.println();
+            System.out.println(ReadResult.HEADER);
+            results.forEach(System.out::println);
+        }
+    }
+
+    /**
+     * Fills the table with the given rows and reads them, returning once they are all sent and deleted
+     */
+    public static ReadResult run(DataSource dataSource, ReadMode mode, int rows, int pageSize, long pageTimeout)
+            throws Exception {
+        populate(dataSource, rows);
+
+        SourceRoutes routes = new SourceRoutes(mode, pageSize, pageTimeout);
+        long nanos;
+        long heapBytes;
+        try (CamelContext camel = new DefaultCamelContext()) {
+            camel.getRegistry().bind("accounts", dataSource);
+            camel.addRoutes(routes);
+            camel.start();
+
+            try (HeapHighWater heap = new HeapHighWater().start()) {
+                long start = System.nanoTime();
+                camel.getRouteController().startRoute(SourceRoutes.ROUTE_ID);
+                awaitRows(routes, rows);
+                // the last DELETE runs once the last row is sent
+                awaitEmptyTable(dataSource, rows);
+                nanos = System.nanoTime() - start;
+                heapBytes = heap.getBytes();
+            }
+        }
+        return new ReadResult(mode, rows, nanos, routes.getSelects(), routes.getDeletes(), heapBytes);
+    }
+
+    private static void awaitRows(SourceRoutes routes, long expected) throws InterruptedException {
+        long rows = routes.getRows();
+        long progress = System.nanoTime();
+        while (rows < expected) {
+            if (routes.getFailure() != null) {
+                throw new IllegalStateException("The read failed", routes.getFailure());
+            }
+            if (System.nanoTime() - progress > STALL_TIMEOUT_NANOS) {
+                throw new IllegalStateException("No row was sent for 60 seconds, " + rows + " of " + expected);
+            }
+            Thread.sleep(1);
+            long current = routes.getRows();
+            if (current > rows) {
+                rows = current;
+                progress = System.nanoTime();
+            }
+        }
+        if (rows > expected) {
+            throw new IllegalStateException("Sent " + rows + " rows, but the table had " + expected + " rows");
+        }
+    }
+
+    private static void awaitEmptyTable(DataSource dataSource, long rows) throws SQLException, InterruptedException {
+        long start = System.nanoTime();
+        long count = count(dataSource);
+        while (count > 0) {
+            if (System.nanoTime() - start > STALL_TIMEOUT_NANOS) {
+                throw new IllegalStateException("Sent " + rows + " rows, but " + count + " rows are left in the table");
+            }
+            Thread.sleep(1);
+            count = count(dataSource);
+        }
+    }
+
+    /**
+     * Empties the table and inserts the rows of the populate scripts of the applications
+     */
+    private static void populate(DataSource dataSource, int rows) throws SQLException {
+        execute(dataSource, "TRUNCATE TABLE accounts");
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert
+                     = connection.prepareStatement("INSERT INTO accounts (username,city) VALUES (?, ?)")) {
+            connection.setAutoCommit(false);
+            try {
+                for (int i = 1; i <= rows; i++) {
+                    insert.setString(1, "John");
+                    insert.setString(2, "New York");
+                    insert.addBatch();
+                    if (i % POPULATE_BATCH == 0 || i == rows) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void execute(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static long count(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM accounts")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
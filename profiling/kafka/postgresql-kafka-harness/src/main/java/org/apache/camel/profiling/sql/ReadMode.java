@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.sql;
+
+/**
+ * How the accounts table is read: whole at every poll with one DELETE per row sent, as the postgresql-source kamelet
+ * does, or by pages in the order of the primary key with one DELETE per page, as the route of postgresql-kafka-paging
+ * does.
+ */
+public enum ReadMode {
+    FULL_TABLE("full-table"),
+    PAGED("paged");
+
+    private final String name;
+
+    ReadMode(String name) {
+        this.name = name;
+    }
+
+    public static ReadMode of(String name) {
+        for (ReadMode mode : values()) {
+            if (mode.name.equals(name)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown read mode: " + name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
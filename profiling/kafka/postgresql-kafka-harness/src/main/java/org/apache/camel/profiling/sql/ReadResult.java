@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.sql;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a read mode achieved on a table of a given size: the rows sent per second, the statements it took, and the
+ * most heap in use after a garbage collection.
+ */
+public final class ReadResult {
+    static final String HEADER = String.format(Locale.ROOT, "%-12s %10s %8s %10s %8s %8s %15s",
+            "Mode", "Rows", "Seconds", "Rows/s", "Selects", "Deletes", "Heap after GC");
+
+    private final ReadMode mode;
+    private final long rows;
+    private final long nanos;
+    private final long selects;
+    private final long deletes;
+    private final long heapBytes;
+
+    public ReadResult(ReadMode mode, long rows, long nanos, long selects, long deletes, long heapBytes) {
+        this.mode = mode;
+        this.rows = rows;
+        this.nanos = nanos;
+        this.selects = selects;
+        this.deletes = deletes;
+        this.heapBytes = heapBytes;
+    }
+
+    public ReadMode getMode() {
+        return mode;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * The time from the start of the route until the table is empty
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getRowsPerSecond() {
+        return nanos > 0 ? rows * (double) TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+    }
+
+    /**
+     * The polls that selected rows
+     */
+    public long getSelects() {
+        return selects;
+    }
+
+    /**
+     * The DELETE statements
+     */
+    public long getDeletes() {
+        return deletes;
+    }
+
+    /**
+     * The most heap in use after a garbage collection during the run, in bytes, or -1 when there was no collection
+     */
+    public long getHeapBytes() {
+        return heapBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%-12s %10d %8.2f %10.0f %8d %8d %15s",
+                mode, rows, nanos / 1e9, getRowsPerSecond(), selects, deletes,
+                heapBytes >= 0 ? String.format(Locale.ROOT, "%.1f MB", heapBytes / (1024.0 * 1024.0)) : "-");
+    }
+}
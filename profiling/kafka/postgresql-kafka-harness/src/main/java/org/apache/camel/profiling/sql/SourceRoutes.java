@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.sql;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.model.dataformat.JsonLibrary;
+import org.apache.camel.processor.aggregate.GroupedBodyAggregationStrategy;
+import org.apache.camel.util.concurrent.SynchronousExecutorService;
+
+/**
+ * The read route of the PostgreSQL to Kafka applications, without the Kafka producer behind it.
+ * <p/>
+ * In the full table mode every poll selects the whole accounts table and every row sent is deleted with its own
+ * DELETE, as the postgresql-source kamelet of postgresql-kafka does, so the rows of the table are all in the heap at
+ * once. In the paged mode every poll selects a page of rows in the order of the primary key and the rows of a page
+ * are deleted with one DELETE once they are all sent, as the route of postgresql-kafka-paging does, so only a page is
+ * in the heap. The consumer polls the next page straight away, once the DELETE of the page ran in its thread.
+ */
+final class SourceRoutes extends RouteBuilder {
+    static final String ROUTE_ID = "read";
+    static final String FULL_TABLE_QUERY = "SELECT * FROM accounts";
+    static final String DELETE_ROW = "DELETE FROM accounts WHERE user_id = :#user_id";
+    static final String PAGE_QUERY = "SELECT user_id, username, city FROM accounts ORDER BY user_id LIMIT ";
+    static final String DELETE_PAGE = "DELETE FROM accounts WHERE user_id IN (:#in:userIds)";
+
+    private static final String USER_ID = "userId";
+
+    private final ReadMode mode;
+    private final int pageSize;
+    private final long pageTimeout;
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder selects = new LongAdder();
+    private final LongAdder deletes = new LongAdder();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    SourceRoutes(ReadMode mode, int pageSize, long pageTimeout) {
+        this.mode = mode;
+        this.pageSize = pageSize;
+        this.pageTimeout = pageTimeout;
+    }
+
+    @Override
+    public void configure() {
+        onException(Exception.class)
+                .handled(true)
+                .process(exchange -> failure.compareAndSet(null,
+                        exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class)));
+
+        if (mode == ReadMode.FULL_TABLE) {
+            from("sql:" + FULL_TABLE_QUERY + "?dataSource=#accounts&initialDelay=0&onConsume=RAW(" + DELETE_ROW + ")")
+                    .routeId(ROUTE_ID).autoStartup(false)
+                    .marshal().json(JsonLibrary.Jackson)
+                    .process(this::sent)
+                    .process(exchange -> deletes.increment());
+        } else {
+            from("sql:" + PAGE_QUERY + pageSize + "?dataSource=#accounts&initialDelay=0&greedy=true")
+                    .routeId(ROUTE_ID).autoStartup(false)
+                    .setProperty(USER_ID, simple("${body[user_id]}"))
+                    .marshal().json(JsonLibrary.Jackson)
+                    .process(this::sent)
+                    .setBody(exchangeProperty(USER_ID))
+                    .aggregate(constant("accounts"), new GroupedBodyAggregationStrategy())
+                        .completionFromBatchConsumer()
+                        .completionTimeout(pageTimeout)
+                        // the DELETE has to run before the next poll, or the consumer reads the page again
+                        .executorService(new SynchronousExecutorService())
+                        .setHeader("userIds", body())
+                        .to("sql:" + DELETE_PAGE + "?dataSource=#accounts")
+                        .process(exchange -> deletes.increment());
+        }
+    }
+
+    private void sent(Exchange exchange) {
+        if (exchange.getProperty(Exchange.BATCH_INDEX, 0, Integer.class) == 0) {
+            selects.increment();
+        }
+        rows.increment();
+    }
+
+    /**
+     * The rows sent so far
+     */
+    long getRows() {
+        return rows.sum();
+    }
+
+    /**
+     * The polls that selected rows so far
+     */
+    long getSelects() {
+        return selects.sum();
+    }
+
+    /**
+     * The DELETE statements run so far, the ones of the full table mode counted as their row is sent
+     */
+    long getDeletes() {
+        return deletes.sum();
+    }
+
+    /**
+     * The first read or delete that failed, if any
+     */
+    Exception getFailure() {
+        return failure.get();
+    }
+}
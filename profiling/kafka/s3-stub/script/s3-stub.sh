@@ -0,0 +1,14 @@
+#!/bin/bash
+
+# Starts the S3 stub of the s3-stub module on localhost:9000, building it on first use.
+# Run it with --help to list all the options, e.g. ./s3-stub.sh --latency-ms 20 --bandwidth 10000000 --discard
+# JVM options can be given with JAVA_OPTS.
+
+STUB_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+STUB_JAR="$STUB_DIR/target/s3-stub.jar"
+
+if [ ! -f "$STUB_JAR" ]; then
+  (cd "$STUB_DIR" && mvn -q -B package) || exit 1
+fi
+
+exec java $JAVA_OPTS -jar "$STUB_JAR" "$@"
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.s3;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The buckets and objects of the stub, in memory.
+ * <p/>
+ * A bucket exists as soon as it is used, so the applications work whether they create their bucket or not.
+ */
+final class ObjectStore {
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    Bucket bucket(String name) {
+        return buckets.computeIfAbsent(name, Bucket::new);
+    }
+
+    boolean deleteBucket(String name) {
+        return buckets.remove(name) != null;
+    }
+
+    List<Bucket> buckets() {
+        List<Bucket> answer = new ArrayList<>(buckets.values());
+        answer.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return answer;
+    }
+
+    static final class Bucket {
+        private final String name;
+        private final Instant created = Instant.now();
+        private final NavigableMap<String, StoredObject> objects = new ConcurrentSkipListMap<>();
+
+        private Bucket(String name) {
+            this.name = name;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Instant getCreated() {
+            return created;
+        }
+
+        StoredObject get(String key) {
+            return objects.get(key);
+        }
+
+        void put(StoredObject object) {
+            objects.put(object.getKey(), object);
+        }
+
+        boolean delete(String key) {
+            return objects.remove(key) != null;
+        }
+
+        /**
+         * The objects with the given prefix after the given key, in key order, up to the given number
+         */
+        List<StoredObject> list(String prefix, String after, int max) {
+            NavigableMap<String, StoredObject> tail = objects;
+            if (after != null && !after.isEmpty()) {
+                tail = objects.tailMap(after, false);
+            } else if (!prefix.isEmpty()) {
+                tail = objects.tailMap(prefix, true);
+            }
+            List<StoredObject> answer = new ArrayList<>();
+            for (StoredObject object : tail.values()) {
+                if (!object.getKey().startsWith(prefix)) {
+                    if (object.getKey().compareTo(prefix) > 0) {
+                        break;
+                    }
+                    continue;
+                }
+                if (answer.size() == max) {
+                    break;
+                }
+                answer.add(object);
+            }
+            return answer;
+        }
+    }
+
+    static final class StoredObject {
+        private final String key;
+        private final byte[] content;
+        private final String etag;
+        private final String contentType;
+        private final Instant lastModified = Instant.now();
+
+        StoredObject(String key, byte[] content, String etag, String contentType) {
+            this.key = key;
+            this.content = content;
+            this.etag = etag;
+            this.contentType = contentType;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        byte[] getContent() {
+            return content;
+        }
+
+        String getEtag() {
+            return etag;
+        }
+
+        String getContentType() {
+            return contentType;
+        }
+
+        Instant getLastModified() {
+            return lastModified;
+        }
+    }
+}
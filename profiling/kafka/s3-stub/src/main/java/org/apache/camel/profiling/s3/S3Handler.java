@@ -0,0 +1,530 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.s3;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.apache.camel.profiling.s3.ObjectStore.Bucket;
+import org.apache.camel.profiling.s3.ObjectStore.StoredObject;
+import org.apache.camel.profiling.s3.StubStats.Operation;
+
+/**
+ * Serves the S3 REST API for the operations the aws2-s3 and minio components use: the object PUT, GET, HEAD and
+ * DELETE, the listing of the objects and of the buckets, and the bucket operations.
+ * <p/>
+ * Both the path style (http://localhost:9000/bucket/key) and the virtual hosted style
+ * (http://bucket.localhost:9000/key) requests are accepted. The signatures are not checked. The aws-chunked bodies of
+ * the AWS SDK are decoded, so the ETag is the MD5 of the content as the SDK expects.
+ */
+final class S3Handler implements HttpHandler {
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n";
+    private static final String NAMESPACE = "http://s3.amazonaws.com/doc/2006-03-01/";
+    private static final DateTimeFormatter XML_DATE
+            = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ROOT).withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter HTTP_DATE
+            = DateTimeFormatter.ofPattern("EEE, dd MMM uuuu HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+    private static final Pattern DELETE_KEY = Pattern.compile("<Key>(.*?)</Key>", Pattern.DOTALL);
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final ObjectStore store;
+    private final StubStats stats;
+    private final String domain;
+    private final long latencyMillis;
+    private final long bandwidth;
+    private final boolean discard;
+    private final AtomicLong requestIds = new AtomicLong();
+
+    S3Handler(ObjectStore store, StubStats stats, String domain, long latencyMillis, long bandwidth, boolean discard) {
+        this.store = store;
+        this.stats = stats;
+        this.domain = domain;
+        this.latencyMillis = latencyMillis;
+        this.bandwidth = bandwidth;
+        this.discard = discard;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if ("/_stats".equals(exchange.getRequestURI().getPath())) {
+                sendText(exchange, stats.toString() + "\n");
+                return;
+            }
+            Request request = new Request(exchange);
+            stats.begin(request.operation);
+            try {
+                dispatch(request);
+            } finally {
+                stats.end();
+            }
+        } catch (Exception e) {
+            stats.error();
+            sendError(exchange, 500, "InternalError", e.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void dispatch(Request request) throws IOException {
+        HttpExchange exchange = request.exchange;
+        switch (request.operation) {
+            case LIST_BUCKETS:
+                delay();
+                sendXml(exchange, 200, listBuckets());
+                break;
+            case CREATE_BUCKET:
+            case HEAD_BUCKET:
+                store.bucket(request.bucket);
+                delay();
+                sendEmpty(exchange, 200);
+                break;
+            case DELETE_BUCKET:
+                store.deleteBucket(request.bucket);
+                delay();
+                sendEmpty(exchange, 204);
+                break;
+            case GET_BUCKET_LOCATION:
+                delay();
+                sendXml(exchange, 200, XML_HEADER + "<LocationConstraint xmlns=\"" + NAMESPACE + "\"/>");
+                break;
+            case LIST_OBJECTS:
+                delay();
+                sendXml(exchange, 200, listObjects(store.bucket(request.bucket), request.query));
+                break;
+            case DELETE_OBJECTS:
+                String deleted = deleteObjects(store.bucket(request.bucket), exchange.getRequestBody());
+                delay();
+                sendXml(exchange, 200, deleted);
+                break;
+            case PUT_OBJECT:
+                putObject(request);
+                break;
+            case GET_OBJECT:
+            case HEAD_OBJECT:
+                getObject(request, request.operation == Operation.HEAD_OBJECT);
+                break;
+            case DELETE_OBJECT:
+                store.bucket(request.bucket).delete(request.key);
+                delay();
+                sendEmpty(exchange, 204);
+                break;
+            default:
+                stats.error();
+                sendError(exchange, 501, "NotImplemented",
+                        "The stub does not support " + exchange.getRequestMethod() + " " + exchange.getRequestURI());
+        }
+    }
+
+    private void putObject(Request request) throws IOException {
+        HttpExchange exchange = request.exchange;
+        InputStream body = exchange.getRequestBody();
+        String sha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        if (sha256 != null && sha256.startsWith("STREAMING-")
+                || encoding != null && encoding.contains("aws-chunked")) {
+            body = new AwsChunkedInputStream(body);
+        }
+
+        MessageDigest md5 = md5();
+        ByteArrayOutputStream content = discard ? null : new ByteArrayOutputStream();
+        long size = copy(new DigestInputStream(body, md5), content != null ? content : OutputStream.nullOutputStream());
+        stats.received(size);
+        String etag = "\"" + hex(md5.digest()) + "\"";
+
+        if (content != null) {
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            store.bucket(request.bucket).put(new StoredObject(request.key, content.toByteArray(), etag,
+                    contentType != null ? contentType : "application/octet-stream"));
+        }
+
+        delay();
+        exchange.getResponseHeaders().set("ETag", etag);
+        sendEmpty(exchange, 200);
+    }
+
+    private void getObject(Request request, boolean head) throws IOException {
+        HttpExchange exchange = request.exchange;
+        StoredObject object = store.bucket(request.bucket).get(request.key);
+        delay();
+        if (object == null) {
+            stats.error();
+            sendError(exchange, 404, head ? null : "NoSuchKey", "The specified key does not exist.");
+            return;
+        }
+
+        exchange.getResponseHeaders().set("ETag", object.getEtag());
+        exchange.getResponseHeaders().set("Last-Modified", HTTP_DATE.format(object.getLastModified()));
+        exchange.getResponseHeaders().set("Content-Type", object.getContentType());
+        byte[] content = object.getContent();
+        if (head) {
+            // the content length of a HEAD response is set by hand, as the server sends no body
+            exchange.getResponseHeaders().set("Content-Length", Integer.toString(content.length));
+            sendEmpty(exchange, 200);
+            return;
+        }
+        sendResponseHeaders(exchange, 200, content.length > 0 ? content.length : -1);
+        if (content.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                stats.sent(copy(new ByteArrayInputStream(content), out));
+            }
+        }
+    }
+
+    private String listBuckets() {
+        StringBuilder sb = new StringBuilder(XML_HEADER);
+        sb.append("<ListAllMyBucketsResult xmlns=\"").append(NAMESPACE).append("\">");
+        sb.append("<Owner><ID>s3-stub</ID><DisplayName>s3-stub</DisplayName></Owner><Buckets>");
+        for (Bucket bucket : store.buckets()) {
+            sb.append("<Bucket><Name>").append(escape(bucket.getName())).append("</Name><CreationDate>")
+                    .append(XML_DATE.format(bucket.getCreated())).append("</CreationDate></Bucket>");
+        }
+        sb.append("</Buckets></ListAllMyBucketsResult>");
+        return sb.toString();
+    }
+
+    private static String listObjects(Bucket bucket, Map<String, String> query) {
+        boolean v2 = "2".equals(query.get("list-type"));
+        String prefix = query.getOrDefault("prefix", "");
+        int maxKeys = Math.min(1000, Integer.parseInt(query.getOrDefault("max-keys", "1000")));
+        String after = v2
+                ? query.getOrDefault("continuation-token", query.get("start-after"))
+                : query.get("marker");
+
+        List<StoredObject> objects = bucket.list(prefix, after, maxKeys + 1);
+        boolean truncated = objects.size() > maxKeys;
+        if (truncated) {
+            objects = objects.subList(0, maxKeys);
+        }
+
+        StringBuilder sb = new StringBuilder(XML_HEADER);
+        sb.append("<ListBucketResult xmlns=\"").append(NAMESPACE).append("\">");
+        sb.append("<Name>").append(escape(bucket.getName())).append("</Name>");
+        sb.append("<Prefix>").append(escape(prefix)).append("</Prefix>");
+        sb.append("<MaxKeys>").append(maxKeys).append("</MaxKeys>");
+        sb.append("<IsTruncated>").append(truncated).append("</IsTruncated>");
+        if (v2) {
+            sb.append("<KeyCount>").append(objects.size()).append("</KeyCount>");
+            if (query.containsKey("continuation-token")) {
+                sb.append("<ContinuationToken>").append(escape(query.get("continuation-token")))
+                        .append("</ContinuationToken>");
+            }
+        } else {
+            sb.append("<Marker>").append(escape(after != null ? after : "")).append("</Marker>");
+        }
+        if (truncated) {
+            String last = escape(objects.get(objects.size() - 1).getKey());
+            sb.append(v2 ? "<NextContinuationToken>" : "<NextMarker>").append(last)
+                    .append(v2 ? "</NextContinuationToken>" : "</NextMarker>");
+        }
+        for (StoredObject object : objects) {
+            sb.append("<Contents><Key>").append(escape(object.getKey())).append("</Key>");
+            sb.append("<LastModified>").append(XML_DATE.format(object.getLastModified())).append("</LastModified>");
+            sb.append("<ETag>").append(escape(object.getEtag())).append("</ETag>");
+            sb.append("<Size>").append(object.getContent().length).append("</Size>");
+            sb.append("<StorageClass>STANDARD</StorageClass></Contents>");
+        }
+        sb.append("</ListBucketResult>");
+        return sb.toString();
+    }
+
+    private String deleteObjects(Bucket bucket, InputStream body) throws IOException {
+        String request = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        StringBuilder sb = new StringBuilder(XML_HEADER);
+        sb.append("<DeleteResult xmlns=\"").append(NAMESPACE).append("\">");
+        Matcher matcher = DELETE_KEY.matcher(request);
+        while (matcher.find()) {
+            String key = unescape(matcher.group(1));
+            bucket.delete(key);
+            sb.append("<Deleted><Key>").append(escape(key)).append("</Key></Deleted>");
+        }
+        sb.append("</DeleteResult>");
+        return sb.toString();
+    }
+
+    /**
+     * The latency of the service, added to every request
+     */
+    private void delay() {
+        if (latencyMillis > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        }
+    }
+
+    /**
+     * Copies the body at the bandwidth of the stub, if any, and returns the number of bytes
+     */
+    private long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long start = System.nanoTime();
+        long total = 0;
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+            total += n;
+            if (bandwidth > 0) {
+                long due = start + total * TimeUnit.SECONDS.toNanos(1) / bandwidth;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+        }
+        return total;
+    }
+
+    private void sendXml(HttpExchange exchange, int code, String xml) throws IOException {
+        byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        send(exchange, code, bytes);
+    }
+
+    private void sendText(HttpExchange exchange, String text) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        send(exchange, 200, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void sendEmpty(HttpExchange exchange, int code) throws IOException {
+        exchange.getResponseHeaders().set("x-amz-request-id", Long.toHexString(requestIds.incrementAndGet()));
+        sendResponseHeaders(exchange, code, -1);
+    }
+
+    private void sendError(HttpExchange exchange, int code, String errorCode, String message) throws IOException {
+        if (errorCode == null) {
+            sendEmpty(exchange, code);
+            return;
+        }
+        sendXml(exchange, code, XML_HEADER + "<Error><Code>" + errorCode + "</Code><Message>" + escape(message)
+                                + "</Message><Resource>" + escape(exchange.getRequestURI().getPath())
+                                + "</Resource><RequestId>" + requestIds.get() + "</RequestId></Error>");
+    }
+
+    private void send(HttpExchange exchange, int code, byte[] bytes) throws IOException {
+        exchange.getResponseHeaders().set("x-amz-request-id", Long.toHexString(requestIds.incrementAndGet()));
+        sendResponseHeaders(exchange, code, bytes.length > 0 ? bytes.length : -1);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Reads what is left of the request before the response starts, as the connection can only be reused once the
+     * request is read, and the request body can no longer be read once the response body is closed
+     */
+    private static void sendResponseHeaders(HttpExchange exchange, int code, long length) throws IOException {
+        exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+        exchange.sendResponseHeaders(code, length);
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;")
+                .replace("'", "&apos;");
+    }
+
+    private static String unescape(String text) {
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&apos;", "'")
+                .replace("&amp;", "&");
+    }
+
+    /**
+     * The bucket, key and operation of a request
+     */
+    private final class Request {
+        private final HttpExchange exchange;
+        private final Map<String, String> query = new HashMap<>();
+        private String bucket;
+        private String key = "";
+        private final Operation operation;
+
+        private Request(HttpExchange exchange) {
+            this.exchange = exchange;
+
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            if (rawQuery != null) {
+                for (String parameter : rawQuery.split("&")) {
+                    int pos = parameter.indexOf('=');
+                    String name = pos >= 0 ? parameter.substring(0, pos) : parameter;
+                    String value = pos >= 0 ? parameter.substring(pos + 1) : "";
+                    query.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                            URLDecoder.decode(value, StandardCharsets.UTF_8));
+                }
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            path = path.startsWith("/") ? path.substring(1) : path;
+            String host = exchange.getRequestHeaders().getFirst("Host");
+            host = host != null && host.indexOf(':') > 0 ? host.substring(0, host.indexOf(':')) : host;
+            if (host != null && host.endsWith("." + domain)) {
+                bucket = host.substring(0, host.length() - domain.length() - 1);
+                key = path;
+            } else if (!path.isEmpty()) {
+                int pos = path.indexOf('/');
+                bucket = pos >= 0 ? path.substring(0, pos) : path;
+                key = pos >= 0 ? path.substring(pos + 1) : "";
+            }
+            operation = operation(exchange.getRequestMethod());
+        }
+
+        private Operation operation(String method) {
+            if (bucket == null) {
+                return "GET".equals(method) ? Operation.LIST_BUCKETS : Operation.UNSUPPORTED;
+            }
+            if (key.isEmpty()) {
+                switch (method) {
+                    case "PUT":
+                        return query.isEmpty() ? Operation.CREATE_BUCKET : Operation.UNSUPPORTED;
+                    case "HEAD":
+                        return Operation.HEAD_BUCKET;
+                    case "DELETE":
+                        return Operation.DELETE_BUCKET;
+                    case "GET":
+                        if (query.containsKey("location")) {
+                            return Operation.GET_BUCKET_LOCATION;
+                        }
+                        return Operation.LIST_OBJECTS;
+                    case "POST":
+                        return query.containsKey("delete") ? Operation.DELETE_OBJECTS : Operation.UNSUPPORTED;
+                    default:
+                        return Operation.UNSUPPORTED;
+                }
+            }
+            // multipart uploads, copies and the sub resources of the objects are not supported
+            if (query.containsKey("uploads") || query.containsKey("uploadId") || query.containsKey("acl")
+                    || query.containsKey("tagging") || exchange.getRequestHeaders().containsKey("x-amz-copy-source")) {
+                return Operation.UNSUPPORTED;
+            }
+            switch (method) {
+                case "PUT":
+                    return Operation.PUT_OBJECT;
+                case "GET":
+                    return Operation.GET_OBJECT;
+                case "HEAD":
+                    return Operation.HEAD_OBJECT;
+                case "DELETE":
+                    return Operation.DELETE_OBJECT;
+                default:
+                    return Operation.UNSUPPORTED;
+            }
+        }
+    }
+
+    /**
+     * Decodes the aws-chunked encoding of the AWS SDK: chunks of {@code <hex size>[;chunk-signature=...]\r\n<data>\r\n}
+     * ending with a chunk of size 0, optional trailing headers and an empty line.
+     */
+    static final class AwsChunkedInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+        private boolean done;
+
+        AwsChunkedInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (remaining == 0) {
+                String header = readLine();
+                if (header == null) {
+                    throw new EOFException("Missing the last aws-chunked chunk");
+                }
+                int pos = header.indexOf(';');
+                remaining = Long.parseLong((pos >= 0 ? header.substring(0, pos) : header).trim(), 16);
+                if (remaining == 0) {
+                    // the trailing headers, such as the checksum, until the empty line
+                    String trailer = readLine();
+                    while (trailer != null && !trailer.isEmpty()) {
+                        trailer = readLine();
+                    }
+                    done = true;
+                    return -1;
+                }
+            }
+            int n = in.read(b, off, (int) Math.min(len, remaining));
+            if (n < 0) {
+                throw new EOFException("The aws-chunked chunk is truncated");
+            }
+            remaining -= n;
+            if (remaining == 0) {
+                readLine();
+            }
+            return n;
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            int c;
+            while ((c = in.read()) != -1) {
+                if (c == '\n') {
+                    int length = sb.length();
+                    return length > 0 && sb.charAt(length - 1) == '\r' ? sb.substring(0, length - 1) : sb.toString();
+                }
+                sb.append((char) c);
+            }
+            return sb.length() > 0 ? sb.toString() : null;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.s3;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.camel.profiling.s3.ObjectStore.Bucket;
+import org.apache.camel.profiling.s3.ObjectStore.StoredObject;
+
+/**
+ * An S3 compatible HTTP server, running in the JVM, for profiling the S3 and MinIO applications without a cloud
+ * account or a MinIO container in the way.
+ * <p/>
+ * The service can be made slower with a latency added to every request and a bandwidth limit on every object body,
+ * so the applications can be profiled against a remote object store. In the discard mode the object bodies are only
+ * counted, so the producing applications can run for as long as needed without filling the heap.
+ * <p/>
+ * It can be embedded in a test harness, with try-with-resources, or started on its own with {@link #main(String[])},
+ * by default on port 9000 where the MinIO applications expect MinIO.
+ */
+public final class S3Stub implements AutoCloseable {
+    public static final int DEFAULT_PORT = 9000;
+
+    private final int port;
+    private final ObjectStore store = new ObjectStore();
+    private final StubStats stats = new StubStats();
+    private int threads;
+    private String domain = "localhost";
+    private long latencyMillis;
+    private long bandwidth;
+    private boolean discard;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public S3Stub(int port) {
+        this.port = port;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = DEFAULT_PORT;
+        int threads = 0;
+        String domain = "localhost";
+        long latencyMillis = 0;
+        long bandwidth = 0;
+        boolean discard = false;
+        List<String> buckets = new ArrayList<>();
+        List<String> preloads = new ArrayList<>();
+        int reportInterval = 10;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--discard".equals(args[i])) {
+                discard = true;
+            } else if ("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if ("--domain".equals(args[i]) && i + 1 < args.length) {
+                domain = args[++i];
+            } else if ("--latency-ms".equals(args[i]) && i + 1 < args.length) {
+                latencyMillis = Long.parseLong(args[++i]);
+            } else if ("--bandwidth".equals(args[i]) && i + 1 < args.length) {
+                bandwidth = Long.parseLong(args[++i]);
+            } else if ("--buckets".equals(args[i]) && i + 1 < args.length) {
+                buckets.addAll(Arrays.asList(args[++i].split(",")));
+            } else if ("--preload".equals(args[i]) && i + 1 < args.length && args[i + 1].split(":").length == 3) {
+                preloads.add(args[++i]);
+            } else if ("--report-interval".equals(args[i]) && i + 1 < args.length) {
+                reportInterval = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Unexpected argument: " + args[i]);
+                System.err.println("Usage: S3Stub [--port <port>] [--threads <threads>] [--domain <domain>] "
+                                   + "[--latency-ms <ms>] [--bandwidth <bytes/sec>] [--discard] "
+                                   + "[--buckets <bucket1,bucket2,...>] [--preload <bucket>:<objects>:<size>]... "
+                                   + "[--report-interval <seconds>]");
+                System.exit(2);
+            }
+        }
+
+        S3Stub stub = new S3Stub(port).threads(threads).domain(domain).latency(latencyMillis).bandwidth(bandwidth)
+                .discard(discard);
+        for (String bucket : buckets) {
+            stub.createBucket(bucket);
+        }
+        for (String preload : preloads) {
+            String[] parts = preload.split(":");
+            stub.preload(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+        }
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            reporter.shutdownNow();
+            stub.close();
+            System.out.println("S3 stub stopped after " + stub.getStats());
+            stopped.countDown();
+        }, "s3-stub-shutdown"));
+
+        stub.start();
+        if (reportInterval > 0) {
+            reporter.scheduleAtFixedRate(() -> System.out.println(stub.getStats()), reportInterval, reportInterval,
+                    TimeUnit.SECONDS);
+        }
+        System.out.println("S3 stub started on " + stub.getEndpoint() + " with a latency of " + latencyMillis
+                           + " ms, a bandwidth of " + (bandwidth > 0 ? bandwidth + " bytes/s" : "unlimited")
+                           + (discard ? " and the object bodies discarded" : "") + ", press Ctrl+C to stop it");
+        stopped.await();
+    }
+
+    /**
+     * The number of threads serving the requests, 0 by default for a thread per concurrent request
+     */
+    public S3Stub threads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * The domain of the virtual hosted style requests, where the bucket is the first label of the host name
+     */
+    public S3Stub domain(String domain) {
+        this.domain = domain;
+        return this;
+    }
+
+    /**
+     * The latency added to every request, in milliseconds
+     */
+    public S3Stub latency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * The bandwidth of every object body received or sent, in bytes per second, or 0 for unlimited
+     */
+    public S3Stub bandwidth(long bandwidth) {
+        this.bandwidth = bandwidth;
+        return this;
+    }
+
+    /**
+     * Whether the object bodies are only counted, and not stored
+     */
+    public S3Stub discard(boolean discard) {
+        this.discard = discard;
+        return this;
+    }
+
+    public S3Stub createBucket(String name) {
+        store.bucket(name);
+        return this;
+    }
+
+    /**
+     * Stores the given number of objects of the given size in the bucket, with the keys object-00000000,
+     * object-00000001 and so on, for the applications that consume from S3. The objects share the same random
+     * content, so a large preload takes little heap.
+     */
+    public S3Stub preload(String bucketName, int objects, int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        String etag = "\"preload-" + size + "\"";
+        Bucket bucket = store.bucket(bucketName);
+        for (int i = 0; i < objects; i++) {
+            bucket.put(new StoredObject(String.format("object-%08d", i), content, etag, "application/octet-stream"));
+        }
+        return this;
+    }
+
+    /**
+     * Starts the server, returning once it accepts the clients
+     */
+    public S3Stub start() {
+        if (server != null) {
+            throw new IllegalStateException("The stub is already started");
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen on port " + port, e);
+        }
+        executor = threads > 0 ? Executors.newFixedThreadPool(threads) : Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", new S3Handler(store, stats, domain, latencyMillis, bandwidth, discard));
+        server.start();
+        return this;
+    }
+
+    /**
+     * The endpoint of the stub, on the port it listens on once started, which is chosen by the system for the port 0
+     */
+    public String getEndpoint() {
+        return "http://localhost:" + (server != null ? server.getAddress().getPort() : port);
+    }
+
+    public StubStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+}
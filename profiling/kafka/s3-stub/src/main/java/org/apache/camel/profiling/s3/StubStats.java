@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.s3;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the requests of the stub by operation, the bytes received and sent, and the highest number of requests
+ * served at the same time, which shows how many connections the client pool really uses.
+ */
+public final class StubStats {
+
+    /**
+     * The S3 operations of the stub
+     */
+    public enum Operation {
+        PUT_OBJECT,
+        GET_OBJECT,
+        HEAD_OBJECT,
+        DELETE_OBJECT,
+        DELETE_OBJECTS,
+        LIST_OBJECTS,
+        LIST_BUCKETS,
+        CREATE_BUCKET,
+        HEAD_BUCKET,
+        DELETE_BUCKET,
+        GET_BUCKET_LOCATION,
+        UNSUPPORTED
+    }
+
+    private final Map<Operation, LongAdder> requests = new EnumMap<>(Operation.class);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    public StubStats() {
+        for (Operation operation : Operation.values()) {
+            requests.put(operation, new LongAdder());
+        }
+    }
+
+    void begin(Operation operation) {
+        requests.get(operation).increment();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    }
+
+    void end() {
+        inFlight.decrementAndGet();
+    }
+
+    void error() {
+        errors.increment();
+    }
+
+    void received(long bytes) {
+        bytesIn.add(bytes);
+    }
+
+    void sent(long bytes) {
+        bytesOut.add(bytes);
+    }
+
+    public long getRequests(Operation operation) {
+        return requests.get(operation).sum();
+    }
+
+    public long getTotalRequests() {
+        long answer = 0;
+        for (LongAdder adder : requests.values()) {
+            answer += adder.sum();
+        }
+        return answer;
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * The bytes of the object bodies received
+     */
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    /**
+     * The bytes of the object bodies sent
+     */
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    /**
+     * The operations that had requests with their count, the bytes and the highest concurrency
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%d requests", getTotalRequests()));
+        for (Map.Entry<Operation, LongAdder> entry : requests.entrySet()) {
+            long count = entry.getValue().sum();
+            if (count > 0) {
+                sb.append(String.format(Locale.ROOT, ", %s %d", entry.getKey().name().toLowerCase(Locale.ROOT),
+                        count));
+            }
+        }
+        sb.append(String.format(Locale.ROOT, ", %d errors, %.2f MB in, %.2f MB out, max %d in flight",
+                getErrors(), getBytesIn() / 1024.0 / 1024.0, getBytesOut() / 1024.0 / 1024.0, getMaxInFlight()));
+        return sb.toString();
+    }
+}
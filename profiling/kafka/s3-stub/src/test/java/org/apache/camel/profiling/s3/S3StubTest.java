@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.profiling.s3;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class S3StubTest {
+    private S3Stub stub;
+    private Socket socket;
+
+    @BeforeEach
+    public void start() throws Exception {
+        stub = new S3Stub(0).createBucket("bucket").preload("bucket", 2, 100).start();
+        URI endpoint = URI.create(stub.getEndpoint());
+        socket = new Socket(endpoint.getHost(), endpoint.getPort());
+        socket.setSoTimeout(5000);
+    }
+
+    @AfterEach
+    public void stop() throws Exception {
+        socket.close();
+        stub.close();
+    }
+
+    @Test
+    public void testGetsReuseTheConnection() throws Exception {
+        Response first = request("GET", "/bucket/object-00000000", "");
+        Response second = request("GET", "/bucket/object-00000001", "");
+
+        assertEquals(200, first.code);
+        assertEquals(100, first.body.length);
+        assertEquals(200, second.code);
+        assertEquals(100, second.body.length);
+    }
+
+    @Test
+    public void testListAndGetReuseTheConnection() throws Exception {
+        Response list = request("GET", "/bucket?list-type=2", "");
+        Response get = request("GET", "/bucket/object-00000001", "");
+        Response head = request("HEAD", "/bucket/object-00000001", "");
+
+        assertEquals(200, list.code);
+        assertTrue(new String(list.body, StandardCharsets.UTF_8).contains("<Key>object-00000001</Key>"));
+        assertEquals(200, get.code);
+        assertEquals(100, get.body.length);
+        assertEquals(200, head.code);
+    }
+
+    @Test
+    public void testPutThenGetReuseTheConnection() throws Exception {
+        Response put = request("PUT", "/bucket/key", "hello");
+        Response get = request("GET", "/bucket/key", "");
+        Response missing = request("GET", "/bucket/missing", "");
+
+        assertEquals(200, put.code);
+        assertEquals(200, get.code);
+        assertEquals("hello", new String(get.body, StandardCharsets.UTF_8));
+        assertEquals(404, missing.code);
+    }
+
+    /**
+     * Sends a request on the connection of the test, which fails if the stub closed it
+     */
+    private Response request(String method, String path, String body) throws IOException {
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        OutputStream out = socket.getOutputStream();
+        out.write((method + " " + path + " HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + content.length
+                   + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(content);
+        out.flush();
+
+        InputStream in = socket.getInputStream();
+        String status = readLine(in);
+        assertTrue(status.startsWith("HTTP/1.1 "), "a response on the same connection: " + status);
+        int length = 0;
+        for (String header = readLine(in); !header.isEmpty(); header = readLine(in)) {
+            if (header.toLowerCase(Locale.ROOT).startsWith("content-length:")) {
+                length = Integer.parseInt(header.substring(header.indexOf(':') + 1).trim());
+            }
+        }
+        // the response to a HEAD request has the content length of the object, without its body
+        byte[] responseBody = "HEAD".equals(method) ? new byte[0] : in.readNBytes(length);
+        return new Response(Integer.parseInt(status.split(" ")[1]), responseBody);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                throw new IOException("The connection was closed by the stub");
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static final class Response {
+        private final int code;
+        private final byte[] body;
+
+        private Response(int code, byte[] body) {
+            this.code = code;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.example;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.PropertyInject;
+import org.apache.camel.builder.RouteBuilder;
+
+/**
+ * The concurrent mode: a timer schedules the requests at the target rate on a seda queue, from which the consumers call
+ * the HTTP service in parallel, as many requests in flight as there are consumers at most.
+ * <p/>
+ * The requests are scheduled whether or not the consumers keep up, so the latency, measured from the time a request
+ * was due at the target rate, includes the time it waited in the queue and for a connection of the HTTP client, as in
+ * a gateway receiving its requests at its own pace. The due time comes from the start and the rate, not from the tick
+ * that schedules the request, so a late tick does not hide the wait. A request scheduled while the queue is full is
+ * rejected and counted as failed, the timer never waiting for the consumers.
+ */
+public class ConcurrentRouteBuilder extends RouteBuilder {
+    private static final String SCHEDULED = "scheduled";
+    private static final String CALLED = "called";
+    private static final String BATCH = "batch";
+    private static final String FIRST = "first";
+    private static final long TICK_MILLIS = 1;
+
+    @PropertyInject(value = "concurrent.consumers", defaultValue = "0")
+    private int consumers;
+    @PropertyInject(value = "concurrent.rate", defaultValue = "1000")
+    private long rate;
+    @PropertyInject(value = "concurrent.queue-size", defaultValue = "10000")
+    private int queueSize;
+    @PropertyInject(value = "concurrent.report-seconds", defaultValue = "10")
+    private long reportSeconds;
+
+    private long start;
+    private long scheduled;
+
+    @Override
+    public void configure() throws Exception {
+        if (consumers <= 0) {
+            // the single timer of MyRouteBuilder
+            return;
+        }
+        HttpLoadStats stats = new HttpLoadStats(rate, TimeUnit.SECONDS.toMillis(reportSeconds));
+        getContext().addService(stats, true, true);
+        String queue = "seda:requests?size=" + queueSize;
+
+        // schedules the requests due since the last tick, so the rate holds even when a tick is late
+        from("timer:load?delay=10s&period=" + TICK_MILLIS + "&includeMetadata=false")
+            .process(this::batch)
+            .loop(exchangeProperty(BATCH))
+                .process(this::schedule)
+                .doTry()
+                    .to(queue)
+                .doCatch(IllegalStateException.class)
+                    // the queue is full
+                    .process(exchange -> stats.rejected())
+                .end()
+            .end();
+
+        from(queue + "&concurrentConsumers=" + consumers)
+            .setBody(constant("Hi from Camel"))
+            .process(exchange -> {
+                stats.callStarted();
+                exchange.setProperty(CALLED, System.nanoTime());
+            })
+            .doTry()
+                .to("http://localhost:5678/")
+            .doFinally()
+                // the finally block sees the exception of the call as caught, not on the exchange
+                .process(exchange -> stats.callDone(exchange.getProperty(SCHEDULED, long.class),
+                        exchange.getProperty(CALLED, long.class),
+                        exchange.getProperty(Exchange.EXCEPTION_CAUGHT) != null))
+            .end()
+            // the same steps as the single timer
+            .to("log:out0?level=OFF")
+            .to("log:out1?level=OFF")
+            .to("log:out2?level=OFF")
+            .to("log:out3?level=OFF")
+            .to("log:out4?level=OFF")
+            .to("log:out5?level=OFF")
+            .to("log:out6?level=OFF")
+            .to("log:out7?level=OFF")
+            .to("log:out8?level=OFF")
+            .to("log:out9?level=OFF");
+    }
+
+    private void batch(Exchange exchange) {
+        long now = System.nanoTime();
+        if (start == 0) {
+            start = now;
+        }
+        long due = (now - start) * rate / TimeUnit.SECONDS.toNanos(1);
+        exchange.setProperty(BATCH, (int) (due - scheduled));
+        exchange.setProperty(FIRST, scheduled);
+        scheduled = due;
+    }
+
+    /**
+     * Sets the time the request of the current iteration of the loop was due at
+     */
+    private void schedule(Exchange exchange) {
+        long request = exchange.getProperty(FIRST, long.class) + exchange.getProperty(Exchange.LOOP_INDEX, int.class);
+        exchange.setProperty(SCHEDULED, start + request * TimeUnit.SECONDS.toNanos(1) / rate);
+    }
+}
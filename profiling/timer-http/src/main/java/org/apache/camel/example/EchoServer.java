@@ -0,0 +1,497 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.example;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.camel.support.service.ServiceSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/**
+ * An HTTP server answering every request with the same body, in place of the hashicorp/http-echo container, so the
+ * HTTP client of the route can be profiled offline against a server behaving as configured: the size of the
+ * responses, a fixed or random latency before each of them, and the connections kept alive or closed after every
+ * response.
+ * <p/>
+ * The server runs on a single thread with a selector. A response waiting for its latency holds neither the thread nor
+ * the other connections, and the responses are prepared once, so the server allocates next to nothing per request and
+ * the HTTP client is the only side showing in the profiles.
+ */
+public final class EchoServer extends ServiceSupport {
+    static final String THREAD_NAME = "echo-server";
+
+    private static final Logger LOG = LoggerFactory.getLogger(EchoServer.class);
+    private static final byte[] CONTENT_LENGTH = "content-length:".getBytes(ISO_8859_1);
+    private static final byte[] TRANSFER_ENCODING = "transfer-encoding:".getBytes(ISO_8859_1);
+    private static final byte[] CONNECTION = "connection:".getBytes(ISO_8859_1);
+    private static final byte[] CHUNKED = "chunked".getBytes(ISO_8859_1);
+    private static final byte[] CLOSE = "close".getBytes(ISO_8859_1);
+    private static final byte[] KEEP_ALIVE = "keep-alive".getBytes(ISO_8859_1);
+    private static final byte[] HTTP_1_0 = "HTTP/1.0".getBytes(ISO_8859_1);
+
+    private final int port;
+    private final long minLatencyNanos;
+    private final long maxLatencyNanos;
+    private final boolean keepAlive;
+    private final int bodyLength;
+    private final byte[] keepAliveResponse;
+    private final byte[] closeResponse;
+    private final PriorityQueue<Response> responses = new PriorityQueue<>(Comparator.comparingLong(r -> r.due));
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger maxOpenConnections = new AtomicInteger();
+    private Selector selector;
+    private ServerSocketChannel server;
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * @param port             the port on localhost
+     * @param text             the body of the responses
+     * @param responseSize     the bytes of the body of the responses, the text repeated up to that size, or the text
+     *                         as is with 0
+     * @param minLatencyMillis the least time before a response is sent
+     * @param maxLatencyMillis the most time before a response is sent, a random time in between for every request
+     * @param keepAlive        whether the connections stay open after a response, unless the client asks otherwise
+     */
+    public EchoServer(int port, String text, int responseSize, long minLatencyMillis, long maxLatencyMillis,
+                      boolean keepAlive) {
+        if (minLatencyMillis < 0 || maxLatencyMillis < minLatencyMillis) {
+            throw new IllegalArgumentException(
+                    "Invalid latency from " + minLatencyMillis + " to " + maxLatencyMillis + " ms");
+        }
+        this.port = port;
+        this.minLatencyNanos = TimeUnit.MILLISECONDS.toNanos(minLatencyMillis);
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+        this.keepAlive = keepAlive;
+        byte[] body = body(text, responseSize);
+        this.bodyLength = body.length;
+        this.keepAliveResponse = response(body, false);
+        this.closeResponse = response(body, true);
+    }
+
+    private static byte[] body(String text, int size) {
+        byte[] bytes = text.getBytes(ISO_8859_1);
+        if (size <= 0) {
+            return bytes;
+        }
+        if (bytes.length == 0) {
+            bytes = new byte[] { ' ' };
+        }
+        byte[] answer = new byte[size];
+        for (int i = 0; i < size; i++) {
+            answer[i] = bytes[i % bytes.length];
+        }
+        return answer;
+    }
+
+    private static byte[] response(byte[] body, boolean close) {
+        byte[] head = ("HTTP/1.1 200 OK\r\n"
+                       + "Content-Type: text/plain\r\n"
+                       + "Content-Length: " + body.length + "\r\n"
+                       + (close ? "Connection: close\r\n" : "")
+                       + "\r\n").getBytes(ISO_8859_1);
+        byte[] answer = new byte[head.length + body.length];
+        System.arraycopy(head, 0, answer, 0, head.length);
+        System.arraycopy(body, 0, answer, head.length, body.length);
+        return answer;
+    }
+
+    /**
+     * The requests answered so far
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * The connections accepted so far, as many as the requests when the connections are not kept alive
+     */
+    public long getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * The connections open now, one socket each on the side of the client
+     */
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    /**
+     * The most connections open at once so far
+     */
+    public int getMaxOpenConnections() {
+        return maxOpenConnections.get();
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress("localhost", port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        thread = new Thread(this::serve, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+        LOG.info("Echo server started on http://localhost:{}/ with responses of {} bytes, a latency of {} to {} ms "
+                 + "and keep-alive {}",
+                port, bodyLength, TimeUnit.NANOSECONDS.toMillis(minLatencyNanos),
+                TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos), keepAlive ? "on" : "off");
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+            responses.clear();
+            LOG.info("Echo server answered {} requests on {} connections, at most {} open at once", requests.get(),
+                    connections.get(), maxOpenConnections.get());
+        }
+    }
+
+    private void serve() {
+        try {
+            while (running) {
+                Response next = responses.peek();
+                if (next == null) {
+                    selector.select();
+                } else {
+                    long wait = next.due - System.nanoTime();
+                    if (wait > 0) {
+                        selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait + 999999)));
+                    } else {
+                        selector.selectNow();
+                    }
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isAcceptable()) {
+                        accept();
+                    } else if (key.isValid()) {
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                connection.read();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.write();
+                            }
+                        } catch (IOException e) {
+                            connection.close();
+                        }
+                    }
+                }
+                long now = System.nanoTime();
+                while (!responses.isEmpty() && responses.peek().due - now <= 0) {
+                    Response response = responses.poll();
+                    try {
+                        response.connection.send(response.close);
+                    } catch (IOException e) {
+                        response.connection.close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                LOG.warn("Echo server stopped on {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            connections.incrementAndGet();
+            maxOpenConnections.accumulateAndGet(openConnections.incrementAndGet(), Math::max);
+        }
+    }
+
+    private long latency() {
+        if (maxLatencyNanos == minLatencyNanos) {
+            return minLatencyNanos;
+        }
+        return ThreadLocalRandom.current().nextLong(minLatencyNanos, maxLatencyNanos + 1);
+    }
+
+    /**
+     * A response due at a given time on a connection
+     */
+    private static final class Response {
+        private final Connection connection;
+        private final long due;
+        private final boolean close;
+
+        private Response(Connection connection, long due, boolean close) {
+            this.connection = connection;
+            this.due = due;
+            this.close = close;
+        }
+    }
+
+    /**
+     * A connection of a client, reading the requests and writing their responses in the order they came
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private final ArrayDeque<ByteBuffer> output = new ArrayDeque<>();
+        private SelectionKey key;
+        private ByteBuffer input = ByteBuffer.allocate(8192);
+        private long lastDue;
+        private boolean closeRequested;
+        private boolean closeAfterOutput;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void read() throws IOException {
+            if (!input.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(input.capacity() * 2);
+                input.flip();
+                larger.put(input);
+                input = larger;
+            }
+            if (channel.read(input) < 0) {
+                close();
+                return;
+            }
+            input.flip();
+            while (!closeRequested && parse()) {
+                long due = Math.max(System.nanoTime() + latency(), lastDue);
+                lastDue = due;
+                responses.add(new Response(this, due, closeRequested));
+            }
+            if (closeRequested) {
+                // nothing is read after a request closing the connection
+                input.clear();
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            } else {
+                input.compact();
+            }
+        }
+
+        /**
+         * Consumes a request from the input, returning false when no complete request is in it
+         */
+        private boolean parse() {
+            int start = input.position();
+            int limit = input.limit();
+            int headEnd = indexOf(input, start, limit, (byte) '\r', (byte) '\n', true);
+            if (headEnd < 0) {
+                return false;
+            }
+            int lineEnd = indexOf(input, start, headEnd + 2, (byte) '\r', (byte) '\n', false);
+            boolean http10 = lineEnd >= HTTP_1_0.length && regionMatches(input, lineEnd - HTTP_1_0.length, HTTP_1_0);
+            long contentLength = 0;
+            boolean chunked = false;
+            boolean close = !keepAlive || http10;
+            int line = lineEnd + 2;
+            while (line < headEnd + 2) {
+                int end = indexOf(input, line, headEnd + 2, (byte) '\r', (byte) '\n', false);
+                if (startsWithIgnoreCase(input, line, end, CONTENT_LENGTH)) {
+                    contentLength = parseLong(input, line + CONTENT_LENGTH.length, end);
+                } else if (startsWithIgnoreCase(input, line, end, TRANSFER_ENCODING)) {
+                    chunked = containsIgnoreCase(input, line + TRANSFER_ENCODING.length, end, CHUNKED);
+                } else if (startsWithIgnoreCase(input, line, end, CONNECTION)) {
+                    if (containsIgnoreCase(input, line + CONNECTION.length, end, CLOSE)) {
+                        close = true;
+                    } else if (keepAlive && containsIgnoreCase(input, line + CONNECTION.length, end, KEEP_ALIVE)) {
+                        close = false;
+                    }
+                }
+                line = end + 2;
+            }
+            int bodyStart = headEnd + 4;
+            int requestEnd = chunked ? chunkedEnd(bodyStart, limit) : (int) Math.min(bodyStart + contentLength,
+                    Integer.MAX_VALUE);
+            if (requestEnd < 0 || requestEnd > limit) {
+                return false;
+            }
+            input.position(requestEnd);
+            closeRequested = close;
+            return true;
+        }
+
+        /**
+         * The end of a chunked body starting at the given index, or -1 when the body is not complete
+         */
+        private int chunkedEnd(int index, int limit) {
+            while (true) {
+                int end = indexOf(input, index, limit, (byte) '\r', (byte) '\n', false);
+                if (end < 0) {
+                    return -1;
+                }
+                long size = parseHex(input, index, end);
+                index = end + 2;
+                if (size == 0) {
+                    // the last chunk, then either the end of the body or trailers and the end of the body
+                    if (index + 2 <= limit && input.get(index) == '\r' && input.get(index + 1) == '\n') {
+                        return index + 2;
+                    }
+                    int trailersEnd = indexOf(input, index, limit, (byte) '\r', (byte) '\n', true);
+                    return trailersEnd < 0 ? -1 : trailersEnd + 4;
+                }
+                if (index + size + 2 > limit) {
+                    return -1;
+                }
+                index += (int) size + 2;
+            }
+        }
+
+        void send(boolean close) throws IOException {
+            if (!channel.isOpen()) {
+                return;
+            }
+            requests.incrementAndGet();
+            output.add(ByteBuffer.wrap(close ? closeResponse : keepAliveResponse));
+            closeAfterOutput = close;
+            write();
+        }
+
+        void write() throws IOException {
+            while (!output.isEmpty()) {
+                ByteBuffer buffer = output.peek();
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+                output.poll();
+            }
+            if (closeAfterOutput) {
+                close();
+            } else {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            }
+        }
+
+        void close() {
+            if (!channel.isOpen()) {
+                return;
+            }
+            openConnections.decrementAndGet();
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // the connection is gone anyway
+            }
+        }
+    }
+
+    /**
+     * The index of the given CRLF, or of a double CRLF, between the indexes, or -1 when it is not there
+     */
+    private static int indexOf(ByteBuffer buffer, int from, int to, byte cr, byte lf, boolean twice) {
+        int length = twice ? 4 : 2;
+        for (int i = from; i + length <= to; i++) {
+            if (buffer.get(i) == cr && buffer.get(i + 1) == lf
+                    && (!twice || buffer.get(i + 2) == cr && buffer.get(i + 3) == lf)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(ByteBuffer buffer, int from, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(from + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWithIgnoreCase(ByteBuffer buffer, int from, int to, byte[] lowerCase) {
+        if (to - from < lowerCase.length) {
+            return false;
+        }
+        for (int i = 0; i < lowerCase.length; i++) {
+            if (Character.toLowerCase(buffer.get(from + i)) != lowerCase[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsIgnoreCase(ByteBuffer buffer, int from, int to, byte[] lowerCase) {
+        for (int i = from; i + lowerCase.length <= to; i++) {
+            if (startsWithIgnoreCase(buffer, i, to, lowerCase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long parseLong(ByteBuffer buffer, int from, int to) {
+        long answer = 0;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                answer = answer * 10 + b - '0';
+            }
+        }
+        return answer;
+    }
+
+    private static long parseHex(ByteBuffer buffer, int from, int to) {
+        long answer = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(buffer.get(i), 16);
+            if (digit < 0) {
+                // the chunk extensions after the size
+                break;
+            }
+            answer = answer * 16 + digit;
+        }
+        return answer;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.example;
+
+import org.apache.camel.CamelConfiguration;
+import org.apache.camel.CamelContext;
+import org.apache.camel.PropertyInject;
+
+/**
+ * Starts the {@link EchoServer} the route calls together with Camel, as configured by the echo options of
+ * application.properties, unless it is disabled to call another HTTP service on the same port.
+ */
+public class EchoServerConfiguration implements CamelConfiguration {
+
+    @PropertyInject(value = "echo.enabled", defaultValue = "true")
+    private boolean enabled;
+    @PropertyInject(value = "echo.port", defaultValue = "5678")
+    private int port;
+    @PropertyInject(value = "echo.text", defaultValue = "hello world")
+    private String text;
+    @PropertyInject(value = "echo.response-size", defaultValue = "0")
+    private int responseSize;
+    @PropertyInject(value = "echo.min-latency-ms", defaultValue = "0")
+    private long minLatencyMillis;
+    @PropertyInject(value = "echo.max-latency-ms", defaultValue = "0")
+    private long maxLatencyMillis;
+    @PropertyInject(value = "echo.keep-alive", defaultValue = "true")
+    private boolean keepAlive;
+
+    @Override
+    public void configure(CamelContext camelContext) throws Exception {
+        if (enabled) {
+            // a fixed latency when only the least one is set
+            long maxLatency = Math.max(minLatencyMillis, maxLatencyMillis);
+            EchoServer server = new EchoServer(port, text, responseSize, minLatencyMillis, maxLatency, keepAlive);
+            // bound to be found by the statistics of the concurrent mode
+            camelContext.getRegistry().bind("echoServer", server);
+            camelContext.addService(server, true, true);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.example;
+
+import java.util.Locale;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.camel.CamelContext;
+import org.apache.camel.CamelContextAware;
+import org.apache.camel.Endpoint;
+import org.apache.camel.component.http.HttpEndpoint;
+import org.apache.camel.support.service.ServiceSupport;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The statistics of the concurrent mode: the latency of every request from the time it was scheduled, the time of its
+ * HTTP call alone, the requests in flight, the connection pool of the HTTP client, and the sockets the echo server
+ * sees, from which the reuse of the connections follows.
+ * <p/>
+ * The latencies are those of the requests that succeeded, a failed call being counted apart so that a refused
+ * connection does not pass for a fast response.
+ * <p/>
+ * It logs them at every interval and once more for the whole run when Camel stops. The pool of the HTTP client is
+ * sampled every 100 ms, as reading it takes its lock.
+ */
+public class HttpLoadStats extends ServiceSupport implements CamelContextAware {
+    private static final Logger LOG = LoggerFactory.getLogger(HttpLoadStats.class);
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final long targetRate;
+    private final long reportMillis;
+    private final Recorder latencies = new Recorder(HIGHEST_MICROS, 3);
+    private final Recorder calls = new Recorder(HIGHEST_MICROS, 3);
+    private final Histogram totalLatencies = new Histogram(HIGHEST_MICROS, 3);
+    private final Histogram totalCalls = new Histogram(HIGHEST_MICROS, 3);
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger maxLeased = new AtomicInteger();
+    private final AtomicInteger maxPending = new AtomicInteger();
+    private final AtomicLong firstCall = new AtomicLong();
+    private CamelContext camelContext;
+    private ScheduledExecutorService executor;
+    private long last;
+    private long lastConnections;
+    private long lastServerRequests;
+    private long lastFailures;
+    private long lastRejections;
+
+    public HttpLoadStats(long targetRate, long reportMillis) {
+        this.targetRate = targetRate;
+        this.reportMillis = reportMillis;
+    }
+
+    @Override
+    public CamelContext getCamelContext() {
+        return camelContext;
+    }
+
+    @Override
+    public void setCamelContext(CamelContext camelContext) {
+        this.camelContext = camelContext;
+    }
+
+    /**
+     * A request starts its HTTP call
+     */
+    public void callStarted() {
+        if (firstCall.get() == 0) {
+            firstCall.compareAndSet(0, System.nanoTime());
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * A request is done, successfully or not
+     *
+     * @param scheduled the time the request was scheduled at, from {@link System#nanoTime()}
+     * @param called    the time its HTTP call started at
+     * @param failed    whether the call failed, its latency then left out of the percentiles
+     */
+    public void callDone(long scheduled, long called, boolean failed) {
+        long now = System.nanoTime();
+        inFlight.decrementAndGet();
+        if (failed) {
+            failures.increment();
+            return;
+        }
+        latencies.recordValue(Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(now - scheduled)));
+        calls.recordValue(Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(now - called)));
+    }
+
+    /**
+     * A request could not be queued, the queue being full, and is counted as failed without a latency
+     */
+    public void rejected() {
+        rejections.increment();
+        failures.increment();
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        last = System.nanoTime();
+        executor = camelContext.getExecutorServiceManager().newSingleThreadScheduledExecutor(this, "HttpLoadStats");
+        executor.scheduleAtFixedRate(this::samplePool, 100, 100, TimeUnit.MILLISECONDS);
+        executor.scheduleAtFixedRate(this::report, reportMillis, reportMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (executor != null) {
+            camelContext.getExecutorServiceManager().shutdownGraceful(executor);
+            executor = null;
+            report();
+            summary();
+        }
+    }
+
+    private void samplePool() {
+        for (Endpoint endpoint : camelContext.getEndpoints()) {
+            if (endpoint instanceof HttpEndpoint
+                    && ((HttpEndpoint) endpoint).getClientConnectionManager() instanceof ConnPoolControl) {
+                PoolStats stats = ((ConnPoolControl<?>) ((HttpEndpoint) endpoint).getClientConnectionManager())
+                        .getTotalStats();
+                maxLeased.accumulateAndGet(stats.getLeased(), Math::max);
+                maxPending.accumulateAndGet(stats.getPending(), Math::max);
+            }
+        }
+    }
+
+    private synchronized void report() {
+        long now = System.nanoTime();
+        Histogram latency = latencies.getIntervalHistogram();
+        Histogram call = calls.getIntervalHistogram();
+        totalLatencies.add(latency);
+        totalCalls.add(call);
+        double seconds = (now - last) / 1e9;
+        last = now;
+        long failed = failures.sum();
+        long rejected = rejections.sum();
+
+        String server = "";
+        EchoServer echoServer = camelContext.getRegistry().findSingleByType(EchoServer.class);
+        if (echoServer != null) {
+            long connections = echoServer.getConnections() - lastConnections;
+            long requests = echoServer.getRequests() - lastServerRequests;
+            lastConnections += connections;
+            lastServerRequests += requests;
+            server = String.format(Locale.ROOT, ", %d new connections (%s reused), %d sockets open (max %d)",
+                    connections, reuse(requests, connections), echoServer.getOpenConnections(),
+                    echoServer.getMaxOpenConnections());
+        }
+        LOG.info(String.format(Locale.ROOT,
+                "%d requests, %.0f req/s of %d, %d failed (%d rejected), latency p50 %.2f p99 %.2f max %.2f ms, "
+                                            + "call p50 %.2f p99 %.2f ms, in flight %d (max %d), pool leased max %d, "
+                                            + "pending max %d%s",
+                latency.getTotalCount() + failed - lastFailures,
+                (latency.getTotalCount() + failed - lastFailures) / seconds, targetRate, failed - lastFailures,
+                rejected - lastRejections,
+                millis(latency, 50), millis(latency, 99), latency.getMaxValue() / 1000.0, millis(call, 50),
+                millis(call, 99), inFlight.get(), maxInFlight.get(), maxLeased.get(), maxPending.get(), server));
+        lastFailures = failed;
+        lastRejections = rejected;
+    }
+
+    private void summary() {
+        long requests = totalLatencies.getTotalCount() + failures.sum();
+        // from the first call, the timer starting after a delay
+        double seconds = requests > 0 ? (System.nanoTime() - firstCall.get()) / 1e9 : 0;
+        StringBuilder answer = new StringBuilder();
+        answer.append(String.format(Locale.ROOT,
+                "Concurrent mode: %d requests in %.1f s, %.0f req/s of %d, %d failed (%d rejected by the full queue)%n",
+                requests, seconds, requests > 0 ? requests / seconds : 0, targetRate, failures.sum(),
+                rejections.sum()));
+        answer.append(String.format(Locale.ROOT, "%-10s %9s %9s %9s %9s %9s   of the %d succeeded%n",
+                "(ms)", "p50", "p90", "p99", "p99.9", "max", totalLatencies.getTotalCount()));
+        answer.append(percentiles("latency", totalLatencies));
+        answer.append(percentiles("call", totalCalls));
+        answer.append(String.format(Locale.ROOT, "In flight max %d, HTTP client pool leased max %d, pending max %d%n",
+                maxInFlight.get(), maxLeased.get(), maxPending.get()));
+        EchoServer echoServer = camelContext.getRegistry().findSingleByType(EchoServer.class);
+        if (echoServer != null) {
+            answer.append(String.format(Locale.ROOT, "Echo server: %d connections for %d requests (%s reused), "
+                                                     + "%d sockets open at most%n",
+                    echoServer.getConnections(), echoServer.getRequests(),
+                    reuse(echoServer.getRequests(), echoServer.getConnections()), echoServer.getMaxOpenConnections()));
+        }
+        LOG.info("{}{}", System.lineSeparator(), answer);
+    }
+
+    private static String percentiles(String name, Histogram histogram) {
+        return String.format(Locale.ROOT, "%-10s %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, millis(histogram, 50),
+                millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * The share of the requests sent on a connection already open
+     */
+    private static String reuse(long requests, long connections) {
+        return requests > 0
+                ? String.format(Locale.ROOT, "%.1f%%", Math.max(0, requests - connections) * 100.0 / requests) : "-";
+    }
+}
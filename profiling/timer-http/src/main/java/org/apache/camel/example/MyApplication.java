@@ -31,6 +31,9 @@ public final class MyApplication {
         Main main = new Main();
         // and add the routes (you can specify multiple classes)
         main.configure().addRoutesBuilder(MyRouteBuilder.class);
+        main.configure().addRoutesBuilder(ConcurrentRouteBuilder.class);
+        // and start the echo server the routes call
+        main.configure().addConfiguration(EchoServerConfiguration.class);
         // now keep the application running until the JVM is terminated (ctrl + c or sigterm)
         main.run(args);
     }
@@ -16,12 +16,20 @@
  */
 package org.apache.camel.example;
 
+import org.apache.camel.PropertyInject;
 import org.apache.camel.builder.RouteBuilder;
 
 public class MyRouteBuilder extends RouteBuilder {
 
+    @PropertyInject(value = "concurrent.consumers", defaultValue = "0")
+    private int concurrentConsumers;
+
     @Override
     public void configure() throws Exception {
+        if (concurrentConsumers > 0) {
+            // the concurrent mode of ConcurrentRouteBuilder replaces the single timer
+            return;
+        }
         from("timer:foo?delay=10s&period={{myPeriod}}&includeMetadata=false")
             // we can include a request body
             .setBody(constant("Hi from Camel"))
@@ -31,8 +31,15 @@ public final class MyApplication {
         Main main = new Main();
         // and add the routes (you can specify multiple classes)
         main.configure().addRoutesBuilder(MyRouteBuilder.class);
+        // and the soak mode watching for leaks when enabled
+        SoakConfiguration soak = new SoakConfiguration();
+        main.configure().addConfiguration(soak);
         // now keep the application running until the JVM is terminated (ctrl + c or sigterm)
         main.run(args);
+        if (soak.isLeaking()) {
+            // fail the soak run
+            System.exit(1);
+        }
     }
 
 }
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.example;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.CamelConfiguration;
+import org.apache.camel.CamelContext;
+import org.apache.camel.PropertyInject;
+
+/**
+ * Starts the {@link SoakMonitor} together with Camel when the soak mode is enabled, as configured by the soak options
+ * of application.properties.
+ */
+public class SoakConfiguration implements CamelConfiguration {
+
+    @PropertyInject(value = "soak.enabled", defaultValue = "false")
+    private boolean enabled;
+    @PropertyInject(value = "soak.sample-seconds", defaultValue = "60")
+    private long sampleSeconds;
+    @PropertyInject(value = "soak.warmup-seconds", defaultValue = "600")
+    private long warmupSeconds;
+    @PropertyInject(value = "soak.full-gc", defaultValue = "true")
+    private boolean fullGc;
+    @PropertyInject(value = "soak.max-heap-growth-mb-per-hour", defaultValue = "1")
+    private double maxHeapGrowthMbPerHour;
+    @PropertyInject(value = "soak.max-count-growth-per-hour", defaultValue = "10")
+    private double maxCountGrowthPerHour;
+    @PropertyInject(value = "soak.min-r-squared", defaultValue = "0.8")
+    private double minRSquared;
+    @PropertyInject(value = "soak.min-samples", defaultValue = "30")
+    private int minSamples;
+    @PropertyInject(value = "soak.csv", defaultValue = "target/soak.csv")
+    private String csv;
+
+    private SoakMonitor monitor;
+
+    @Override
+    public void configure(CamelContext camelContext) throws Exception {
+        if (enabled) {
+            monitor = new SoakMonitor(TimeUnit.SECONDS.toMillis(sampleSeconds),
+                    TimeUnit.SECONDS.toMillis(warmupSeconds), fullGc, maxHeapGrowthMbPerHour, maxCountGrowthPerHour,
+                    minRSquared, minSamples, csv);
+            camelContext.addService(monitor, true, true);
+        }
+    }
+
+    /**
+     * Whether the soak mode found a metric growing steadily
+     */
+    public boolean isLeaking() {
+        return monitor != null && monitor.isLeaking();
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.example;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.CamelContextAware;
+import org.apache.camel.support.service.ServiceSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The soak mode: samples the heap retained after a collection, the loaded classes, the threads, the exchanges in
+ * flight, the endpoints, the type converters and the exchanges kept in the pools at every interval, and fits a trend
+ * line to every metric over the samples taken after the warm-up.
+ * <p/>
+ * A metric leaks when it grows faster than its limit and steadily, the samples following the line with an R squared of
+ * at least the minimum: the heap of a pool filling up or of a cache never evicted grows a little at every sample, while
+ * the heap of a busy application only scatters around its mean. The trends are logged at every sample and once more
+ * when Camel stops, with the verdict, and the samples are written to a CSV file to chart them elsewhere.
+ */
+public class SoakMonitor extends ServiceSupport implements CamelContextAware {
+    private static final Logger LOG = LoggerFactory.getLogger(SoakMonitor.class);
+    private static final double MB = 1024 * 1024;
+
+    private enum Metric {
+        HEAP("heap-after-gc-mb"),
+        CLASSES("classes"),
+        THREADS("threads"),
+        INFLIGHT("inflight"),
+        ENDPOINTS("endpoints"),
+        TYPE_CONVERTERS("type-converters"),
+        POOLED("pooled-exchanges");
+
+        private final String column;
+
+        Metric(String column) {
+            this.column = column;
+        }
+    }
+
+    private final long sampleMillis;
+    private final long warmupMillis;
+    private final boolean fullGc;
+    private final double maxHeapGrowthMbPerHour;
+    private final double maxCountGrowthPerHour;
+    private final double minRSquared;
+    private final int minSamples;
+    private final Path csv;
+    private final List<Double> hours = new ArrayList<>();
+    private final List<double[]> samples = new ArrayList<>();
+    private CamelContext camelContext;
+    private ScheduledExecutorService executor;
+    private long start;
+    private volatile boolean leaking;
+
+    public SoakMonitor(long sampleMillis, long warmupMillis, boolean fullGc, double maxHeapGrowthMbPerHour,
+                       double maxCountGrowthPerHour, double minRSquared, int minSamples, String csv) {
+        this.sampleMillis = sampleMillis;
+        this.warmupMillis = warmupMillis;
+        this.fullGc = fullGc;
+        this.maxHeapGrowthMbPerHour = maxHeapGrowthMbPerHour;
+        this.maxCountGrowthPerHour = maxCountGrowthPerHour;
+        this.minRSquared = minRSquared;
+        this.minSamples = minSamples;
+        this.csv = Paths.get(csv);
+    }
+
+    @Override
+    public CamelContext getCamelContext() {
+        return camelContext;
+    }
+
+    @Override
+    public void setCamelContext(CamelContext camelContext) {
+        this.camelContext = camelContext;
+    }
+
+    /**
+     * Whether a metric grows steadily faster than its limit over the samples after the warm-up, as of the last sample
+     */
+    public boolean isLeaking() {
+        return leaking;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        start = System.nanoTime();
+        if (csv.getParent() != null) {
+            Files.createDirectories(csv.getParent());
+        }
+        StringBuilder header = new StringBuilder("seconds");
+        for (Metric metric : Metric.values()) {
+            header.append(',').append(metric.column);
+        }
+        Files.write(csv, List.of(header.toString()), StandardCharsets.UTF_8);
+        LOG.info("Soak mode: a sample every {} s after a warm-up of {} s, written to {}",
+                TimeUnit.MILLISECONDS.toSeconds(sampleMillis), TimeUnit.MILLISECONDS.toSeconds(warmupMillis), csv);
+        executor = camelContext.getExecutorServiceManager().newSingleThreadScheduledExecutor(this, "SoakMonitor");
+        executor.scheduleWithFixedDelay(this::sampleAndReport, sampleMillis, sampleMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (executor != null) {
+            camelContext.getExecutorServiceManager().shutdownNow(executor);
+            executor = null;
+            summary();
+        }
+    }
+
+    private void sampleAndReport() {
+        try {
+            long elapsed = System.nanoTime() - start;
+            double[] sample = sample();
+            write(elapsed, sample);
+            if (elapsed < TimeUnit.MILLISECONDS.toNanos(warmupMillis)) {
+                LOG.info("Warming up: {}", format(sample));
+                return;
+            }
+            synchronized (this) {
+                hours.add(elapsed / (double) TimeUnit.HOURS.toNanos(1));
+                samples.add(sample);
+            }
+            StringBuilder trends = new StringBuilder();
+            boolean growing = false;
+            for (Metric metric : Metric.values()) {
+                Trend trend = trend(metric);
+                growing |= trend != null && isLeaking(metric, trend);
+                if (trend != null && trend.getSlope() != 0) {
+                    trends.append(String.format(Locale.ROOT, ", %s %+.2f/h (R2 %.2f)", metric.column,
+                            trend.getSlope(), trend.getRSquared()));
+                }
+            }
+            leaking = growing;
+            LOG.info("Sample {}: {}{}{}", samples.size(), format(sample), trends, leaking ? ", LEAKING" : "");
+        } catch (Exception e) {
+            LOG.warn("Failed to take a sample", e);
+        }
+    }
+
+    private double[] sample() {
+        if (fullGc) {
+            System.gc();
+        }
+        double[] sample = new double[Metric.values().length];
+        sample[Metric.HEAP.ordinal()] = heapAfterGc() / MB;
+        sample[Metric.CLASSES.ordinal()] = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+        sample[Metric.THREADS.ordinal()] = ManagementFactory.getThreadMXBean().getThreadCount();
+        sample[Metric.INFLIGHT.ordinal()] = camelContext.getInflightRepository().size();
+        sample[Metric.ENDPOINTS.ordinal()] = camelContext.getEndpoints().size();
+        sample[Metric.TYPE_CONVERTERS.ordinal()] = camelContext.getTypeConverterRegistry().size();
+        sample[Metric.POOLED.ordinal()]
+                = camelContext.getCamelContextExtension().getExchangeFactoryManager().getPooledCounter();
+        return sample;
+    }
+
+    /**
+     * The heap in use right after a full collection, or else the heap left by the last collection of every pool
+     */
+    private long heapAfterGc() {
+        if (fullGc) {
+            return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return used;
+    }
+
+    /**
+     * The trend of the metric over the samples after the warm-up, or null while there are too few of them
+     */
+    private synchronized Trend trend(Metric metric) {
+        int n = samples.size();
+        if (n < minSamples) {
+            return null;
+        }
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = hours.get(i);
+            y[i] = samples.get(i)[metric.ordinal()];
+        }
+        return Trend.fit(x, y, n);
+    }
+
+    /**
+     * Whether the metric grows faster than its limit and steadily
+     */
+    private boolean isLeaking(Metric metric, Trend trend) {
+        double limit = metric == Metric.HEAP ? maxHeapGrowthMbPerHour : maxCountGrowthPerHour;
+        return trend.getSlope() > limit && trend.getRSquared() >= minRSquared;
+    }
+
+    private void summary() {
+        int n;
+        synchronized (this) {
+            n = samples.size();
+        }
+        if (n < minSamples) {
+            LOG.warn("Soak mode: {} samples after the warm-up, {} are needed for a verdict, run longer", n, minSamples);
+            return;
+        }
+        StringBuilder answer = new StringBuilder();
+        answer.append(String.format(Locale.ROOT, "Soak mode: %d samples over %.2f hours after the warm-up%n", n,
+                hours.get(n - 1) - hours.get(0)));
+        answer.append(String.format(Locale.ROOT, "%-18s %12s %12s %12s %12s %12s %6s  %s%n", "Metric", "First",
+                "Last", "Min", "Max", "Slope (/h)", "R2", "Verdict"));
+        boolean growing = false;
+        for (Metric metric : Metric.values()) {
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            for (double[] sample : samples) {
+                min = Math.min(min, sample[metric.ordinal()]);
+                max = Math.max(max, sample[metric.ordinal()]);
+            }
+            Trend trend = trend(metric);
+            growing |= isLeaking(metric, trend);
+            answer.append(String.format(Locale.ROOT, "%-18s %12.2f %12.2f %12.2f %12.2f %+12.2f %6.2f  %s%n",
+                    metric.column, samples.get(0)[metric.ordinal()], samples.get(n - 1)[metric.ordinal()], min, max,
+                    trend.getSlope(), trend.getRSquared(), isLeaking(metric, trend) ? "LEAKING" : "ok"));
+        }
+        answer.append(String.format(Locale.ROOT,
+                "Limits: heap %.2f MB/h, counts %.2f/h, with an R2 of %.2f or more%n", maxHeapGrowthMbPerHour,
+                maxCountGrowthPerHour, minRSquared));
+        leaking = growing;
+        if (leaking) {
+            LOG.error("{}{}A metric grew steadily over the run, see {}", System.lineSeparator(), answer, csv);
+        } else {
+            LOG.info("{}{}No metric grew steadily over the run", System.lineSeparator(), answer);
+        }
+    }
+
+    private void write(long elapsed, double[] sample) throws IOException {
+        StringBuilder line = new StringBuilder(String.valueOf(TimeUnit.NANOSECONDS.toSeconds(elapsed)));
+        for (double value : sample) {
+            line.append(',').append(String.format(Locale.ROOT, "%.2f", value));
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv, StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND))) {
+            out.println(line);
+        }
+    }
+
+    private static String format(double[] sample) {
+        StringBuilder answer = new StringBuilder();
+        for (Metric metric : Metric.values()) {
+            if (answer.length() > 0) {
+                answer.append(' ');
+            }
+            answer.append(metric.column).append('=');
+            double value = sample[metric.ordinal()];
+            answer.append(metric == Metric.HEAP ? String.format(Locale.ROOT, "%.2f", value) : (long) value);
+        }
+        return answer.toString();
+    }
+}
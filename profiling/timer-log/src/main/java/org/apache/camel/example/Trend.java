@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.example;
+
+/**
+ * A straight line fitted to the samples of a metric with the least squares, its slope telling how fast the metric
+ * grows and its coefficient of determination (R squared) how steadily: close to 1 when the samples follow the line,
+ * close to 0 when they only scatter around their mean.
+ */
+final class Trend {
+    private final double slope;
+    private final double rSquared;
+
+    private Trend(double slope, double rSquared) {
+        this.slope = slope;
+        this.rSquared = rSquared;
+    }
+
+    /**
+     * Fits the line of the samples
+     *
+     * @param  x the times of the samples
+     * @param  y the values of the samples
+     * @param  n the samples to fit, from the first one
+     * @return   the trend, flat with an R squared of 0 when the values or the times do not change
+     */
+    static Trend fit(double[] x, double[] y, int n) {
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < n; i++) {
+            meanX += x[i];
+            meanY += y[i];
+        }
+        meanX /= n;
+        meanY /= n;
+        double sxx = 0;
+        double sxy = 0;
+        double syy = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = x[i] - meanX;
+            double dy = y[i] - meanY;
+            sxx += dx * dx;
+            sxy += dx * dy;
+            syy += dy * dy;
+        }
+        if (sxx == 0 || syy == 0) {
+            return new Trend(0, 0);
+        }
+        return new Trend(sxy / sxx, sxy * sxy / (sxx * syy));
+    }
+
+    /**
+     * The growth of the metric per unit of time
+     */
+    double getSlope() {
+        return slope;
+    }
+
+    /**
+     * How much of the variation of the metric the line explains, from 0 to 1
+     */
+    double getRSquared() {
+        return rSquared;
+    }
+}
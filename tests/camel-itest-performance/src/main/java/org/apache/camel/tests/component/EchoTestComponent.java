@@ -17,19 +17,17 @@
 package org.apache.camel.tests.component;
 
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 
 import org.apache.camel.AsyncCallback;
-import org.apache.camel.AsyncProcessor;
 import org.apache.camel.Component;
 import org.apache.camel.Consumer;
 import org.apache.camel.Endpoint;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.apache.camel.Producer;
+import org.apache.camel.support.DefaultAsyncProducer;
 import org.apache.camel.support.DefaultComponent;
 import org.apache.camel.support.DefaultEndpoint;
-import org.apache.camel.support.DefaultProducer;
 
 public class EchoTestComponent extends DefaultComponent {
 
@@ -62,26 +60,16 @@ public class EchoTestComponent extends DefaultComponent {
         }
     }
 
-    private final class EchoProducer extends DefaultProducer implements AsyncProcessor {
+    private final class EchoProducer extends DefaultAsyncProducer {
         protected EchoProducer(Endpoint endpoint) {
             super(endpoint);
         }
 
-        @Override
-        public void process(Exchange exchange) throws Exception {
-            // do nothing, echo is implicit
-        }
-
         @Override
         public boolean process(Exchange exchange, AsyncCallback callback) {
             // do nothing, echo is implicit
+            callback.done(true);
             return true;
         }
-
-        @Override
-        public CompletableFuture<Exchange> processAsync(Exchange exchange) {
-            // TODO Auto-generated method stub
-            return null;
-        }
     }
 }
@@ -16,13 +16,19 @@
  */
 package org.apache.camel.tests.component;
 
+import java.lang.management.ManagementFactory;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
 import org.apache.camel.AsyncCallback;
 import org.apache.camel.AsyncProcessor;
 import org.apache.camel.Component;
@@ -31,10 +37,10 @@ import org.apache.camel.Endpoint;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.apache.camel.Producer;
+import org.apache.camel.support.DefaultAsyncProducer;
 import org.apache.camel.support.DefaultComponent;
 import org.apache.camel.support.DefaultConsumer;
 import org.apache.camel.support.DefaultEndpoint;
-import org.apache.camel.support.DefaultProducer;
 import org.apache.camel.support.ExchangeHelper;
 
 public class PerformanceTestComponent extends DefaultComponent {
@@ -43,6 +49,10 @@ public class PerformanceTestComponent extends DefaultComponent {
 
     private static final int DEFAULT_THREADS = 8;
     private static final int DEFAULT_ITERATIONS = 100;
+    private static final int DEFAULT_WARMUP_ITERATIONS = 1000;
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN
+            = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean
+                    ? (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
 
     @Override
     protected Endpoint createEndpoint(String uri, String remaining, Map<String, Object> parameters) throws Exception {
@@ -58,8 +68,24 @@ public class PerformanceTestComponent extends DefaultComponent {
                 : header.equals(HEADER_ITERATIONS) ? DEFAULT_ITERATIONS : 0;
     }
 
+    private static boolean isAllocationMeasured() {
+        return THREAD_MX_BEAN != null && THREAD_MX_BEAN.isThreadAllocatedMemorySupported()
+                && THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled();
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        return isAllocationMeasured() ? THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() : -1;
+    }
+
     private static final class PerformanceTestEndpoint extends DefaultEndpoint {
         private PerformanceTestConsumer consumer;
+        private boolean recordLatency;
+        private boolean async;
+        private boolean virtualThreads;
+        private int warmupIterations = DEFAULT_WARMUP_ITERATIONS;
+        private boolean pooledExchanges;
+        private final Map<Integer, ExecutorService> executors = new ConcurrentHashMap<>();
+        private volatile ExecutorService virtualThreadExecutor;
 
         protected PerformanceTestEndpoint(String uri, Component component) {
             super(uri, component);
@@ -89,6 +115,127 @@ public class PerformanceTestComponent extends DefaultComponent {
         public Consumer getConsumer() {
             return consumer;
         }
+
+        public boolean isRecordLatency() {
+            return recordLatency;
+        }
+
+        /**
+         * Whether to record the latency of each exchange into a histogram and report its percentiles in the reply
+         */
+        public void setRecordLatency(boolean recordLatency) {
+            this.recordLatency = recordLatency;
+        }
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        /**
+         * Whether to drive the route through the consumer's AsyncProcessor without blocking any thread. In this mode
+         * the threads header is the number of exchanges allowed in flight at the same time.
+         */
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        /**
+         * Whether to run the producers on a virtual-thread-per-task executor instead of a fixed thread pool (requires
+         * JDK 21). The threads header is then the number of concurrent virtual threads producing exchanges.
+         */
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+
+        public int getWarmupIterations() {
+            return warmupIterations;
+        }
+
+        /**
+         * Number of exchanges sent through the driver executor before the timed run starts, so the reported throughput
+         * does not include thread startup and JIT compilation.
+         */
+        public void setWarmupIterations(int warmupIterations) {
+            this.warmupIterations = warmupIterations;
+        }
+
+        public boolean isPooledExchanges() {
+            return pooledExchanges;
+        }
+
+        /**
+         * Whether to take the exchanges from the consumer's ExchangeFactory and release them back when done, instead of
+         * copying the incoming exchange for every iteration. Together with camel.main.exchange-factory = pooled this
+         * replays the same exchange instances over and over.
+         */
+        public void setPooledExchanges(boolean pooledExchanges) {
+            this.pooledExchanges = pooledExchanges;
+        }
+
+        Exchange createExchange(Exchange template) {
+            if (!pooledExchanges) {
+                return ExchangeHelper.createCopy(template, false);
+            }
+            Exchange exchange = consumer.createExchange(false);
+            exchange.setPattern(template.getPattern());
+            exchange.getIn().setBody(template.getIn().getBody());
+            exchange.getIn().getHeaders().putAll(template.getIn().getHeaders());
+            return exchange;
+        }
+
+        void releaseExchange(Exchange exchange) {
+            if (pooledExchanges) {
+                consumer.releaseExchange(exchange, false);
+            }
+        }
+
+        /**
+         * The executor running the given number of producers. Executors are created on first use and kept until the
+         * endpoint is stopped, so repeated runs with the same number of threads reuse the same threads.
+         */
+        public ExecutorService getExecutor(int threads) {
+            if (virtualThreads) {
+                if (virtualThreadExecutor == null) {
+                    synchronized (this) {
+                        if (virtualThreadExecutor == null) {
+                            virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+                        }
+                    }
+                }
+                return virtualThreadExecutor;
+            }
+            return executors.computeIfAbsent(threads,
+                    t -> getCamelContext().getExecutorServiceManager().newFixedThreadPool(this, "perf-" + t, t));
+        }
+
+        @Override
+        protected void doStop() throws Exception {
+            for (ExecutorService executor : executors.values()) {
+                getCamelContext().getExecutorServiceManager().shutdown(executor);
+            }
+            executors.clear();
+            if (virtualThreadExecutor != null) {
+                virtualThreadExecutor.shutdown();
+                virtualThreadExecutor = null;
+            }
+            super.doStop();
+        }
+
+        private static ExecutorService newVirtualThreadPerTaskExecutor() {
+            // looked up reflectively as the module is compiled for JDK 17
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(
+                        "Virtual threads require JDK 21 or newer, running on " + Runtime.version(), e);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create a virtual thread executor", e);
+            }
+        }
     }
 
     private static final class PerformanceTestConsumer extends DefaultConsumer {
@@ -97,61 +244,187 @@ public class PerformanceTestComponent extends DefaultComponent {
         }
     }
 
-    private static final class PerformanceTestProducer extends DefaultProducer implements AsyncProcessor {
+    private static final class PerformanceTestProducer extends DefaultAsyncProducer {
         protected PerformanceTestProducer(Endpoint endpoint) {
             super(endpoint);
         }
 
         @Override
-        public void process(final Exchange exchange) throws Exception {
+        public boolean process(Exchange exchange, AsyncCallback callback) {
+            PerformanceTestEndpoint endpoint = (PerformanceTestEndpoint) getEndpoint();
+            if (endpoint != null && endpoint.isAsync()) {
+                return new AsyncDriver(endpoint, exchange, callback).start();
+            }
+
+            try {
+                processWithThreadPool(exchange);
+            } catch (Exception e) {
+                exchange.setException(e);
+            }
+            callback.done(true);
+            return true;
+        }
+
+        private void processWithThreadPool(final Exchange exchange) throws Exception {
             final int count = getHeaderValue(exchange, HEADER_ITERATIONS);
             final int threads = getHeaderValue(exchange, HEADER_THREADS);
             PerformanceTestEndpoint endpoint = (PerformanceTestEndpoint) getEndpoint();
             if (endpoint != null) {
                 final DefaultConsumer consumer = (DefaultConsumer) endpoint.getConsumer();
-                ExecutorService executor
-                        = exchange.getContext().getExecutorServiceManager().newFixedThreadPool(this, "perf", threads);
-                CompletionService<Exchange> tasks = new ExecutorCompletionService<>(executor);
-
-                // StopWatch watch = new StopWatch(); // if we want to clock how
-                // long it takes
-                for (int i = 0; i < count; i++) {
-                    tasks.submit(new Callable<Exchange>() {
-                        @Override
-                        public Exchange call() throws Exception {
-                            Exchange exch = ExchangeHelper.createCopy(exchange, false);
+                final ExecutorService executor = endpoint.getExecutor(threads);
+
+                // warm up the driver threads and the route outside the timed window
+                runWorkers(endpoint, executor, consumer, exchange, endpoint.getWarmupIterations(), threads, null, null);
+
+                // latency is clocked from the moment an exchange is handed to the route until the route returns
+                final Histogram latency = endpoint.isRecordLatency() ? new ConcurrentHistogram(3) : null;
+                final LongAdder allocated = new LongAdder();
+                final long elapsed
+                        = runWorkers(endpoint, executor, consumer, exchange, count, threads, latency, allocated);
+
+                // the JVM does not track allocations of virtual threads
+                long allocatedBytes = isAllocationMeasured() && !endpoint.isVirtualThreads() ? allocated.sum() : -1;
+                exchange.getMessage()
+                        .setBody(new PerformanceTestResult(count, threads, elapsed, latency, allocatedBytes));
+            }
+        }
+
+        /**
+         * Runs a batch of exchanges on the given number of workers and returns how long it took in nanoseconds. Each
+         * worker keeps taking the next exchange of the batch until there is none left, and adds the bytes it allocated
+         * meanwhile to the given counter.
+         */
+        private long runWorkers(
+                final PerformanceTestEndpoint endpoint, ExecutorService executor, final DefaultConsumer consumer,
+                final Exchange exchange, final int count, int threads, final Histogram latency,
+                final LongAdder allocated)
+                throws InterruptedException {
+            if (count <= 0) {
+                return 0;
+            }
+            CompletionService<Integer> tasks = new ExecutorCompletionService<>(executor);
+            final AtomicInteger next = new AtomicInteger();
+
+            final long start = System.nanoTime();
+            for (int i = 0; i < threads; i++) {
+                tasks.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        long allocatedBefore = currentThreadAllocatedBytes();
+                        int processed = 0;
+                        while (next.getAndIncrement() < count) {
+                            Exchange exch = endpoint.createExchange(exchange);
+                            long submitted = System.nanoTime();
                             try {
                                 consumer.getProcessor().process(exch);
                             } catch (final Exception e) {
                                 exch.setException(e);
                             }
-                            return exch;
+                            if (latency != null) {
+                                latency.recordValue(System.nanoTime() - submitted);
+                            }
+                            endpoint.releaseExchange(exch);
+                            processed++;
                         }
-                    });
-                }
+                        long allocatedAfter = currentThreadAllocatedBytes();
+                        if (allocated != null && allocatedBefore >= 0 && allocatedAfter >= 0) {
+                            allocated.add(allocatedAfter - allocatedBefore);
+                        }
+                        return processed;
+                    }
+                });
+            }
 
-                for (int i = 0; i < count; i++) {
-                    // Future<Exchange> result = tasks.take();
-                    tasks.take(); // wait for all exchanges to complete
-                }
+            for (int i = 0; i < threads; i++) {
+                tasks.take(); // wait for all workers to complete
             }
+            return System.nanoTime() - start;
         }
+    }
 
-        @Override
-        public boolean process(Exchange exchange, AsyncCallback callback) {
-            try {
-                this.process(exchange);
-            } catch (Exception e) {
-                exchange.setException(e);
+    /**
+     * Drives a batch of exchanges through the consumer's AsyncProcessor. Instead of a thread pool, a window of permits
+     * caps the number of exchanges in flight: every slot in the window submits its next exchange as soon as the
+     * previous one completes, and the caller's callback is done once the last exchange of the batch has completed.
+     */
+    private static final class AsyncDriver {
+        private static final int STARTING = 0;
+        private static final int STARTED = 1;
+        private static final int COMPLETED_SYNC = 2;
+
+        private final PerformanceTestEndpoint endpoint;
+        private final Exchange exchange;
+        private final AsyncCallback callback;
+        private final AsyncProcessor processor;
+        private final int count;
+        private final int window;
+        private final Histogram latency;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final AtomicInteger state = new AtomicInteger(STARTING);
+        private long start;
+
+        AsyncDriver(PerformanceTestEndpoint endpoint, Exchange exchange, AsyncCallback callback) {
+            this.endpoint = endpoint;
+            this.exchange = exchange;
+            this.callback = callback;
+            this.processor = ((DefaultConsumer) endpoint.getConsumer()).getAsyncProcessor();
+            this.count = getHeaderValue(exchange, HEADER_ITERATIONS);
+            this.window = Math.max(1, Math.min(getHeaderValue(exchange, HEADER_THREADS), count));
+            this.latency = endpoint.isRecordLatency() ? new ConcurrentHistogram(3) : null;
+            this.remaining = new AtomicInteger(count);
+        }
+
+        boolean start() {
+            start = System.nanoTime();
+            if (count <= 0) {
+                complete();
+            } else {
+                for (int i = 0; i < window; i++) {
+                    submitNext();
+                }
             }
+
+            if (state.compareAndSet(STARTING, STARTED)) {
+                return false;
+            }
+            // the whole batch completed before we returned, so report it as done synchronously
             callback.done(true);
             return true;
         }
 
-        @Override
-        public CompletableFuture<Exchange> processAsync(Exchange exchange) {
-            // TODO Auto-generated method stub
-            return null;
+        /**
+         * Keeps submitting exchanges for as long as they complete synchronously. When an exchange goes asynchronous the
+         * permit is handed over to its callback, which continues from there once the exchange is done.
+         */
+        private void submitNext() {
+            while (next.getAndIncrement() < count) {
+                final Exchange copy = endpoint.createExchange(exchange);
+                final long submitted = System.nanoTime();
+                boolean sync = processor.process(copy, doneSync -> {
+                    if (latency != null) {
+                        latency.recordValue(System.nanoTime() - submitted);
+                    }
+                    endpoint.releaseExchange(copy);
+                    if (remaining.decrementAndGet() == 0) {
+                        complete();
+                    } else if (!doneSync) {
+                        submitNext();
+                    }
+                });
+                if (!sync) {
+                    return;
+                }
+            }
+        }
+
+        private void complete() {
+            long elapsed = System.nanoTime() - start;
+            // exchanges complete on whichever thread the route ends on, so allocations are not measured in async mode
+            exchange.getMessage().setBody(new PerformanceTestResult(count, window, elapsed, latency, -1));
+            if (!state.compareAndSet(STARTING, COMPLETED_SYNC)) {
+                callback.done(false);
+            }
         }
     }
 }
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.tests.component;
+
+import java.text.DecimalFormat;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * The reply body of a test-perf run: the throughput of the batch, the bytes the driver threads allocated per message
+ * and, when the endpoint is configured with {@code recordLatency=true}, the latency distribution of the individual
+ * exchanges.
+ */
+public final class PerformanceTestResult {
+    private static final DecimalFormat FORMAT = new DecimalFormat("#.##");
+
+    private final int iterations;
+    private final int threads;
+    private final long elapsedNanos;
+    private final Histogram latency;
+    private final long allocatedBytes;
+
+    public PerformanceTestResult(int iterations, int threads, long elapsedNanos, Histogram latency,
+                                 long allocatedBytes) {
+        this.iterations = iterations;
+        this.threads = threads;
+        this.elapsedNanos = elapsedNanos;
+        this.latency = latency;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * Exchanges per second over the whole batch
+     */
+    public double getThroughput() {
+        return elapsedNanos > 0 ? iterations * 1_000_000_000.0 / elapsedNanos : 0;
+    }
+
+    /**
+     * Bytes allocated by the driver threads during the run, or -1 if they could not be measured
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Bytes allocated by the driver threads per message, or -1 if they could not be measured
+     */
+    public double getBytesPerMessage() {
+        return allocatedBytes >= 0 && iterations > 0 ? (double) allocatedBytes / iterations : -1;
+    }
+
+    public boolean hasLatency() {
+        return latency != null && latency.getTotalCount() > 0;
+    }
+
+    /**
+     * The latency histogram in nanoseconds, or null if latency recording was not enabled
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * The latency at the given percentile (0-100) in microseconds
+     */
+    public double getLatencyPercentile(double percentile) {
+        return hasLatency() ? latency.getValueAtPercentile(percentile) / 1000.0 : 0;
+    }
+
+    public double getMaxLatency() {
+        return hasLatency() ? latency.getMaxValue() / 1000.0 : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        sb.append(FORMAT.format(getThroughput()));
+        sb.append(" /s], ");
+        sb.append(iterations);
+        sb.append(", ");
+        sb.append(threads);
+        sb.append(", ");
+        sb.append(getElapsedMillis());
+        if (allocatedBytes >= 0) {
+            sb.append(", ").append(FORMAT.format(getBytesPerMessage())).append(" B/msg");
+        }
+        if (hasLatency()) {
+            sb.append(", p50=").append(FORMAT.format(getLatencyPercentile(50)));
+            sb.append("us, p99=").append(FORMAT.format(getLatencyPercentile(99)));
+            sb.append("us, p99.9=").append(FORMAT.format(getLatencyPercentile(99.9)));
+            sb.append("us, max=").append(FORMAT.format(getMaxLatency()));
+            sb.append("us");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.tests.component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.camel.Component;
+import org.apache.camel.Consumer;
+import org.apache.camel.Endpoint;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.Producer;
+import org.apache.camel.builder.ThreadPoolProfileBuilder;
+import org.apache.camel.spi.ThreadPoolProfile;
+import org.apache.camel.support.DefaultComponent;
+import org.apache.camel.support.DefaultConsumer;
+import org.apache.camel.support.DefaultEndpoint;
+import org.apache.camel.support.DefaultProducer;
+import org.apache.camel.support.ExchangeHelper;
+
+/**
+ * An open-loop load generator. Where test-perf sends the next exchange as soon as the previous one is done, test-rate
+ * sends exchanges on a fixed schedule regardless of how fast the route completes them, and measures latency from the
+ * time each exchange was scheduled. A route that stalls therefore shows up in the latency percentiles for every
+ * exchange that should have been sent during the stall, instead of hiding it (coordinated omission).
+ * <p/>
+ * The number of exchanges and the number of threads running the route are taken from the same headers as test-perf,
+ * and the arrival rate from the {@link #HEADER_RATE} header.
+ */
+public class RateTestComponent extends DefaultComponent {
+    public static final String HEADER_RATE = "CamelPerfRate";
+
+    private static final int DEFAULT_RATE = 1000;
+    private static final int DEFAULT_WARMUP_ITERATIONS = 1000;
+    // below this we spin instead of parking, as parking is not precise enough for high rates
+    private static final long SPIN_THRESHOLD_NANOS = 50_000;
+
+    @Override
+    protected Endpoint createEndpoint(String uri, String remaining, Map<String, Object> parameters) throws Exception {
+        Endpoint endpoint = new RateTestEndpoint(uri, this);
+        setProperties(endpoint, parameters);
+        return endpoint;
+    }
+
+    private static int getRate(Exchange exchange) {
+        Integer value = exchange.getContext().getTypeConverter().convertTo(Integer.class, exchange,
+                exchange.getIn().getHeader(HEADER_RATE));
+        return value != null ? value : DEFAULT_RATE;
+    }
+
+    private static final class RateTestEndpoint extends DefaultEndpoint {
+        private RateTestConsumer consumer;
+        private int warmupIterations = DEFAULT_WARMUP_ITERATIONS;
+        private final Map<Integer, ExecutorService> executors = new ConcurrentHashMap<>();
+
+        protected RateTestEndpoint(String uri, Component component) {
+            super(uri, component);
+        }
+
+        @Override
+        public Consumer createConsumer(Processor processor) throws Exception {
+            synchronized (this) {
+                if (consumer != null && processor != consumer.getProcessor()) {
+                    throw new Exception("RateTestEndpoint does not support multiple consumers per Endpoint");
+                }
+                consumer = new RateTestConsumer(this, processor);
+            }
+            return consumer;
+        }
+
+        @Override
+        public Producer createProducer() throws Exception {
+            return new RateTestProducer(this);
+        }
+
+        @Override
+        public boolean isSingleton() {
+            return true;
+        }
+
+        public Consumer getConsumer() {
+            return consumer;
+        }
+
+        public int getWarmupIterations() {
+            return warmupIterations;
+        }
+
+        /**
+         * Number of exchanges sent as fast as possible before the schedule starts, so thread startup and JIT
+         * compilation do not end up as a backlog at the start of the run.
+         */
+        public void setWarmupIterations(int warmupIterations) {
+            this.warmupIterations = warmupIterations;
+        }
+
+        /**
+         * A pool of the given threads with an unbounded queue: the default profile of Camel bounds the queue and runs
+         * the task in the caller when it is full, which would stall the schedule and close the loop.
+         */
+        public ExecutorService getExecutor(int threads) {
+            return executors.computeIfAbsent(threads, t -> {
+                ThreadPoolProfile profile = new ThreadPoolProfileBuilder("rate-" + t)
+                        .poolSize(t).maxPoolSize(t).maxQueueSize(-1).build();
+                return getCamelContext().getExecutorServiceManager().newThreadPool(this, "rate-" + t, profile);
+            });
+        }
+
+        @Override
+        protected void doStop() throws Exception {
+            for (ExecutorService executor : executors.values()) {
+                getCamelContext().getExecutorServiceManager().shutdown(executor);
+            }
+            executors.clear();
+            super.doStop();
+        }
+    }
+
+    private static final class RateTestConsumer extends DefaultConsumer {
+        protected RateTestConsumer(Endpoint endpoint, Processor processor) {
+            super(endpoint, processor);
+        }
+    }
+
+    private static final class RateTestProducer extends DefaultProducer {
+        protected RateTestProducer(Endpoint endpoint) {
+            super(endpoint);
+        }
+
+        @Override
+        public void process(final Exchange exchange) throws Exception {
+            final int count
+                    = PerformanceTestComponent.getHeaderValue(exchange, PerformanceTestComponent.HEADER_ITERATIONS);
+            final int threads
+                    = PerformanceTestComponent.getHeaderValue(exchange, PerformanceTestComponent.HEADER_THREADS);
+            final int rate = getRate(exchange);
+            RateTestEndpoint endpoint = (RateTestEndpoint) getEndpoint();
+            if (endpoint != null) {
+                final DefaultConsumer consumer = (DefaultConsumer) endpoint.getConsumer();
+                final ExecutorService executor = endpoint.getExecutor(threads);
+
+                final CountDownLatch warmedUp = new CountDownLatch(endpoint.getWarmupIterations());
+                for (int i = 0; i < endpoint.getWarmupIterations(); i++) {
+                    executor.execute(() -> {
+                        try {
+                            consumer.getProcessor().process(ExchangeHelper.createCopy(exchange, false));
+                        } catch (final Exception e) {
+                            // ignore, only warming up
+                        }
+                        warmedUp.countDown();
+                    });
+                }
+                warmedUp.await();
+
+                final Histogram corrected = new ConcurrentHistogram(3);
+                final Histogram uncorrected = new ConcurrentHistogram(3);
+                final CountDownLatch done = new CountDownLatch(count);
+                final double interval = 1_000_000_000.0 / rate;
+
+                final long start = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    final long intended = start + (long) (i * interval);
+                    waitUntil(intended);
+                    executor.execute(() -> {
+                        Exchange exch = ExchangeHelper.createCopy(exchange, false);
+                        long started = System.nanoTime();
+                        try {
+                            consumer.getProcessor().process(exch);
+                        } catch (final Exception e) {
+                            exch.setException(e);
+                        }
+                        long completed = System.nanoTime();
+                        corrected.recordValue(completed - intended);
+                        uncorrected.recordValue(completed - started);
+                        done.countDown();
+                    });
+                }
+                done.await();
+                final long elapsed = System.nanoTime() - start;
+
+                exchange.getMessage()
+                        .setBody(new RateTestResult(rate, count, threads, elapsed, corrected, uncorrected));
+            }
+        }
+
+        private static void waitUntil(long deadline) {
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                if (remaining > SPIN_THRESHOLD_NANOS) {
+                    LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+    }
+}
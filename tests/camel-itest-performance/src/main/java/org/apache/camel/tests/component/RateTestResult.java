@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.tests.component;
+
+import java.text.DecimalFormat;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * The reply body of a test-rate run. The corrected latency of an exchange is measured from the time it was scheduled to
+ * be sent, so it includes any time it had to wait because the route fell behind the arrival rate. The uncorrected
+ * latency is measured from the time it was actually sent, which is what a closed-loop driver would report.
+ */
+public final class RateTestResult {
+    private static final DecimalFormat FORMAT = new DecimalFormat("#.##");
+
+    private final int targetRate;
+    private final int iterations;
+    private final int threads;
+    private final long elapsedNanos;
+    private final Histogram correctedLatency;
+    private final Histogram uncorrectedLatency;
+
+    public RateTestResult(int targetRate, int iterations, int threads, long elapsedNanos, Histogram correctedLatency,
+                          Histogram uncorrectedLatency) {
+        this.targetRate = targetRate;
+        this.iterations = iterations;
+        this.threads = threads;
+        this.elapsedNanos = elapsedNanos;
+        this.correctedLatency = correctedLatency;
+        this.uncorrectedLatency = uncorrectedLatency;
+    }
+
+    public int getTargetRate() {
+        return targetRate;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * Exchanges completed per second, which falls below the target rate when the route cannot keep up
+     */
+    public double getAchievedRate() {
+        return elapsedNanos > 0 ? iterations * 1_000_000_000.0 / elapsedNanos : 0;
+    }
+
+    /**
+     * The latency histogram in nanoseconds measured from the intended start time of each exchange
+     */
+    public Histogram getCorrectedLatency() {
+        return correctedLatency;
+    }
+
+    /**
+     * The latency histogram in nanoseconds measured from the actual start time of each exchange
+     */
+    public Histogram getUncorrectedLatency() {
+        return uncorrectedLatency;
+    }
+
+    /**
+     * The corrected latency at the given percentile (0-100) in microseconds
+     */
+    public double getCorrectedPercentile(double percentile) {
+        return correctedLatency.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * The uncorrected latency at the given percentile (0-100) in microseconds
+     */
+    public double getUncorrectedPercentile(double percentile) {
+        return uncorrectedLatency.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        sb.append(FORMAT.format(getAchievedRate()));
+        sb.append(" /s of ");
+        sb.append(targetRate);
+        sb.append(" /s], ");
+        sb.append(iterations);
+        sb.append(", ");
+        sb.append(threads);
+        sb.append(", ");
+        sb.append(getElapsedMillis());
+        appendPercentiles(sb, "corrected", correctedLatency);
+        appendPercentiles(sb, "uncorrected", uncorrectedLatency);
+        return sb.toString();
+    }
+
+    private static void appendPercentiles(StringBuilder sb, String name, Histogram histogram) {
+        sb.append(", ").append(name);
+        sb.append(" p50=").append(FORMAT.format(histogram.getValueAtPercentile(50) / 1000.0));
+        sb.append("us p99=").append(FORMAT.format(histogram.getValueAtPercentile(99) / 1000.0));
+        sb.append("us p99.9=").append(FORMAT.format(histogram.getValueAtPercentile(99.9) / 1000.0));
+        sb.append("us max=").append(FORMAT.format(histogram.getMaxValue() / 1000.0));
+        sb.append("us");
+    }
+}
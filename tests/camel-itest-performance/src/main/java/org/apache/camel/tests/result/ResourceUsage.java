@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.tests.result;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The JVM wide resource usage of a measured block: elapsed time, garbage collections and the bytes allocated by all
+ * threads. Allocations are tracked per thread, so threads that terminate before {@link #stop()} is called are not
+ * counted.
+ */
+public final class ResourceUsage {
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN
+            = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean
+                    ? (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
+
+    private final long startNanos;
+    private final long startGcCount;
+    private final long startGcTime;
+    private final Map<Long, Long> startAllocated;
+
+    private long elapsedNanos = -1;
+    private long gcCount = -1;
+    private long gcTimeMillis = -1;
+    private long allocatedBytes = -1;
+
+    private ResourceUsage() {
+        this.startAllocated = allocatedBytesPerThread();
+        this.startGcCount = totalGcCount();
+        this.startGcTime = totalGcTime();
+        this.startNanos = System.nanoTime();
+    }
+
+    public static ResourceUsage start() {
+        return new ResourceUsage();
+    }
+
+    public ResourceUsage stop() {
+        elapsedNanos = System.nanoTime() - startNanos;
+        gcCount = totalGcCount() - startGcCount;
+        gcTimeMillis = totalGcTime() - startGcTime;
+
+        Map<Long, Long> allocated = allocatedBytesPerThread();
+        if (allocated != null) {
+            allocatedBytes = 0;
+            for (Map.Entry<Long, Long> entry : allocated.entrySet()) {
+                allocatedBytes += entry.getValue() - startAllocated.getOrDefault(entry.getKey(), 0L);
+            }
+        }
+        return this;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Number of garbage collections during the block, summed over all collectors
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    /**
+     * Time spent in garbage collection during the block, summed over all collectors
+     */
+    public long getGcTimeMillis() {
+        return gcTimeMillis;
+    }
+
+    /**
+     * Bytes allocated during the block, or -1 if they could not be measured
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private static long totalGcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long totalGcTime() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static Map<Long, Long> allocatedBytesPerThread() {
+        if (THREAD_MX_BEAN == null || !THREAD_MX_BEAN.isThreadAllocatedMemorySupported()
+                || !THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled()) {
+            return null;
+        }
+
+        long[] ids = THREAD_MX_BEAN.getAllThreadIds();
+        long[] bytes = THREAD_MX_BEAN.getThreadAllocatedBytes(ids);
+        Map<Long, Long> answer = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            // -1 for threads that terminated in the meantime
+            if (bytes[i] >= 0) {
+                answer.put(ids[i], bytes[i]);
+            }
+        }
+        return answer;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.tests.result;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+import org.apache.camel.tests.component.PerformanceTestResult;
+
+/**
+ * A single measured run of a test: what a JMH benchmark result holds for one benchmark and one set of parameters.
+ */
+public final class ResultRecord {
+    private final String benchmark;
+    private final int iterations;
+    private final int threads;
+    private final long elapsedNanos;
+    private final Histogram latency;
+    private final Map<String, String> params = new LinkedHashMap<>();
+    private long gcCount = -1;
+    private long gcTimeMillis = -1;
+    private long allocatedBytes = -1;
+
+    /**
+     * @param benchmark    the name of the test, usually the class name followed by the test method
+     * @param iterations   the number of messages processed
+     * @param threads      the number of threads that processed them
+     * @param elapsedNanos the time it took
+     * @param latency      the latency histogram in nanoseconds, or null if latency was not recorded
+     */
+    public ResultRecord(String benchmark, int iterations, int threads, long elapsedNanos, Histogram latency) {
+        this.benchmark = benchmark;
+        this.iterations = iterations;
+        this.threads = threads;
+        this.elapsedNanos = elapsedNanos;
+        this.latency = latency;
+    }
+
+    public static ResultRecord of(String benchmark, PerformanceTestResult result) {
+        ResultRecord answer = new ResultRecord(
+                benchmark, result.getIterations(), result.getThreads(), result.getElapsedNanos(), result.getLatency());
+        answer.allocatedBytes = result.getAllocatedBytes();
+        return answer;
+    }
+
+    public ResultRecord param(String name, Object value) {
+        params.put(name, String.valueOf(value));
+        return this;
+    }
+
+    /**
+     * Takes the garbage collection counts from the given usage, and the allocated bytes unless they were already
+     * measured more precisely by the driver.
+     */
+    public ResultRecord usage(ResourceUsage usage) {
+        gcCount = usage.getGcCount();
+        gcTimeMillis = usage.getGcTimeMillis();
+        if (allocatedBytes < 0) {
+            allocatedBytes = usage.getAllocatedBytes();
+        }
+        return this;
+    }
+
+    public String getBenchmark() {
+        return benchmark;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public Map<String, String> getParams() {
+        return Collections.unmodifiableMap(params);
+    }
+
+    /**
+     * Messages per second
+     */
+    public double getThroughput() {
+        return elapsedNanos > 0 ? iterations * 1_000_000_000.0 / elapsedNanos : 0;
+    }
+
+    public boolean hasLatency() {
+        return latency != null && latency.getTotalCount() > 0;
+    }
+
+    /**
+     * The latency histogram in nanoseconds, or null if latency was not recorded
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public long getGcTimeMillis() {
+        return gcTimeMillis;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Allocation rate in MB/sec, or -1 if allocations were not measured
+     */
+    public double getAllocationRate() {
+        return allocatedBytes >= 0 && elapsedNanos > 0
+                ? allocatedBytes / (1024.0 * 1024.0) * 1_000_000_000.0 / elapsedNanos : -1;
+    }
+
+    /**
+     * Bytes allocated per message, or -1 if allocations were not measured
+     */
+    public double getAllocationPerMessage() {
+        return allocatedBytes >= 0 && iterations > 0 ? (double) allocatedBytes / iterations : -1;
+    }
+}
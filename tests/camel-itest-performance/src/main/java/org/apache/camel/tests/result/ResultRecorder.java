@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.tests.result;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.HdrHistogram.Histogram;
+import org.apache.camel.util.json.JsonArray;
+import org.apache.camel.util.json.JsonObject;
+import org.apache.camel.util.json.Jsoner;
+
+/**
+ * Collects the results of a test class and writes them next to the JMH results, as {@code <name>.perf.json} in the
+ * same layout as the {@code *.jmh.json} files and as {@code <name>.perf.csv} in the same layout as the JMH CSV output,
+ * so they can be tracked and compared with the same tooling. The output directory defaults to the working directory
+ * and can be changed with the {@value #RESULTS_DIR_PROPERTY} system property.
+ * <p/>
+ * Throughput is the primary metric. Latency percentiles, garbage collections and allocations are secondary metrics
+ * named after the ones of the JMH GC profiler.
+ */
+public final class ResultRecorder {
+    public static final String RESULTS_DIR_PROPERTY = "camel.perf.results.dir";
+
+    private static final double[] PERCENTILES = { 0.0, 50.0, 90.0, 95.0, 99.0, 99.9, 99.99, 99.999, 99.9999, 100.0 };
+
+    private final String name;
+    private final List<ResultRecord> records = new ArrayList<>();
+
+    public ResultRecorder(String name) {
+        this.name = name;
+    }
+
+    public ResultRecorder(Class<?> type) {
+        this(type.getSimpleName());
+    }
+
+    public synchronized void add(ResultRecord record) {
+        records.add(record);
+    }
+
+    public synchronized List<ResultRecord> getRecords() {
+        return new ArrayList<>(records);
+    }
+
+    /**
+     * Writes the JSON and CSV files, doing nothing if no results were recorded
+     */
+    public void write() throws IOException {
+        List<ResultRecord> answer = getRecords();
+        if (answer.isEmpty()) {
+            return;
+        }
+
+        File dir = new File(System.getProperty(RESULTS_DIR_PROPERTY, "."));
+        Files.createDirectories(dir.toPath());
+        Files.writeString(new File(dir, name + ".perf.json").toPath(), toJson(answer), StandardCharsets.UTF_8);
+        Files.writeString(new File(dir, name + ".perf.csv").toPath(), toCsv(answer), StandardCharsets.UTF_8);
+    }
+
+    public static String toJson(List<ResultRecord> records) {
+        JsonArray answer = new JsonArray();
+        for (ResultRecord record : records) {
+            JsonObject json = new JsonObject();
+            json.put("benchmark", record.getBenchmark());
+            json.put("mode", "thrpt");
+            json.put("threads", record.getThreads());
+            // the tests run inside the surefire JVM
+            json.put("forks", 0);
+            json.put("jvm", System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+            json.put("jdkVersion", System.getProperty("java.version"));
+            json.put("vmName", System.getProperty("java.vm.name"));
+            json.put("vmVersion", System.getProperty("java.vm.version"));
+            json.put("measurementIterations", 1);
+            json.put("params", new JsonObject(getParams(record)));
+            json.put("primaryMetric", metric(record.getThroughput(), "ops/s"));
+
+            JsonObject secondary = new JsonObject();
+            if (record.hasLatency()) {
+                secondary.put("latency", latencyMetric(record.getLatency()));
+            }
+            if (record.getAllocatedBytes() >= 0) {
+                secondary.put("gc.alloc.rate", metric(record.getAllocationRate(), "MB/sec"));
+                secondary.put("gc.alloc.rate.norm", metric(record.getAllocationPerMessage(), "B/op"));
+            }
+            if (record.getGcCount() >= 0) {
+                secondary.put("gc.count", metric(record.getGcCount(), "counts"));
+                secondary.put("gc.time", metric(record.getGcTimeMillis(), "ms"));
+            }
+            json.put("secondaryMetrics", secondary);
+            answer.add(json);
+        }
+        return Jsoner.prettyPrint(answer.toJson(), 4);
+    }
+
+    public static String toCsv(List<ResultRecord> records) {
+        Set<String> paramNames = new LinkedHashSet<>();
+        for (ResultRecord record : records) {
+            paramNames.addAll(getParams(record).keySet());
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("\"Benchmark\",\"Mode\",\"Threads\",\"Samples\",\"Score\",\"Score Error (99.9%)\",\"Unit\"");
+        for (String param : paramNames) {
+            sb.append(",\"Param: ").append(param).append("\"");
+        }
+        sb.append("\n");
+
+        for (ResultRecord record : records) {
+            appendCsv(sb, record, paramNames, "", record.getThroughput(), "ops/s");
+            if (record.hasLatency()) {
+                Histogram latency = record.getLatency();
+                appendCsv(sb, record, paramNames, ":latency", latency.getMean() / 1000.0, "us/op");
+                appendCsv(sb, record, paramNames, ":latency.p0.50", latency.getValueAtPercentile(50) / 1000.0, "us/op");
+                appendCsv(sb, record, paramNames, ":latency.p0.99", latency.getValueAtPercentile(99) / 1000.0, "us/op");
+                appendCsv(sb, record, paramNames, ":latency.p0.999", latency.getValueAtPercentile(99.9) / 1000.0,
+                        "us/op");
+                appendCsv(sb, record, paramNames, ":latency.p1.00", latency.getMaxValue() / 1000.0, "us/op");
+            }
+            if (record.getAllocatedBytes() >= 0) {
+                appendCsv(sb, record, paramNames, ":gc.alloc.rate", record.getAllocationRate(), "MB/sec");
+                appendCsv(sb, record, paramNames, ":gc.alloc.rate.norm", record.getAllocationPerMessage(), "B/op");
+            }
+            if (record.getGcCount() >= 0) {
+                appendCsv(sb, record, paramNames, ":gc.count", record.getGcCount(), "counts");
+                appendCsv(sb, record, paramNames, ":gc.time", record.getGcTimeMillis(), "ms");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, String> getParams(ResultRecord record) {
+        Map<String, String> answer = new LinkedHashMap<>();
+        answer.put("iterations", String.valueOf(record.getIterations()));
+        answer.putAll(record.getParams());
+        return answer;
+    }
+
+    private static JsonObject metric(double score, String unit) {
+        JsonObject percentiles = new JsonObject();
+        for (double percentile : PERCENTILES) {
+            percentiles.put(String.valueOf(percentile), score);
+        }
+        return metric(score, unit, percentiles);
+    }
+
+    private static JsonObject latencyMetric(Histogram latency) {
+        JsonObject percentiles = new JsonObject();
+        for (double percentile : PERCENTILES) {
+            long value = percentile == 0.0 ? latency.getMinValue() : latency.getValueAtPercentile(percentile);
+            percentiles.put(String.valueOf(percentile), value / 1000.0);
+        }
+        return metric(latency.getMean() / 1000.0, "us/op", percentiles);
+    }
+
+    private static JsonObject metric(double score, String unit, JsonObject percentiles) {
+        JsonObject metric = new JsonObject();
+        metric.put("score", score);
+        // a single sample has no error, which JMH writes as NaN
+        metric.put("scoreError", "NaN");
+        metric.put("scoreConfidence", new JsonArray(List.of(score, score)));
+        metric.put("scorePercentiles", percentiles);
+        metric.put("scoreUnit", unit);
+        metric.put("rawData", new JsonArray(List.of(new JsonArray(List.of(score)))));
+        return metric;
+    }
+
+    private static void appendCsv(
+            StringBuilder sb, ResultRecord record, Set<String> paramNames, String suffix, double score, String unit) {
+        Map<String, String> params = getParams(record);
+        sb.append("\"").append(record.getBenchmark()).append(suffix).append("\",");
+        sb.append("\"thrpt\",");
+        sb.append(record.getThreads()).append(",");
+        sb.append(1).append(",");
+        sb.append(String.format(Locale.ROOT, "%.6f", score)).append(",");
+        sb.append("NaN,");
+        sb.append("\"").append(unit).append("\"");
+        for (String param : paramNames) {
+            sb.append(",");
+            String value = params.get(param);
+            if (value != null) {
+                sb.append("\"").append(value.replace("\"", "\"\"")).append("\"");
+            }
+        }
+        sb.append("\n");
+    }
+}
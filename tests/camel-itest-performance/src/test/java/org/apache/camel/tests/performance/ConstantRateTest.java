@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.tests.performance;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.test.junit5.CamelTestSupport;
+import org.apache.camel.tests.component.PerformanceTestComponent;
+import org.apache.camel.tests.component.RateTestComponent;
+import org.apache.camel.tests.component.RateTestResult;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConstantRateTest extends CamelTestSupport {
+
+    private static final String SMALL_MESSAGE = "message";
+
+    private Logger log = LoggerFactory.getLogger(getClass());
+
+    @Test
+    public void testConstantRate() throws Exception {
+        for (int rate = 1000; rate <= 100000; rate *= 10) {
+            // two seconds worth of messages at each rate
+            RateTestResult result = runTest("test-rate:echo", SMALL_MESSAGE, 2 * rate, 4, rate);
+
+            log.info("echo: {}", result);
+            assertCorrected(result);
+        }
+    }
+
+    @Test
+    public void testStallingRoute() throws Exception {
+        // the route stalls for 20ms every 1000 messages, which a closed-loop driver only sees as a handful of slow
+        // messages while every message scheduled during the stall is delayed as well
+        RateTestResult result = runTest("test-rate:stall", SMALL_MESSAGE, 20000, 1, 10000);
+
+        log.info("stall: {}", result);
+        assertCorrected(result);
+        assertTrue(result.getCorrectedPercentile(99) > result.getUncorrectedPercentile(99),
+                "The stalls should show up in the corrected p99: " + result);
+    }
+
+    private static void assertCorrected(RateTestResult result) {
+        assertTrue(result.getCorrectedLatency().getMaxValue() >= result.getUncorrectedLatency().getMaxValue(),
+                "Corrected latency can never be lower than uncorrected latency: " + result);
+    }
+
+    protected RateTestResult runTest(String uri, String body, int iterations, int threads, int rate) {
+        Map<String, Object> headers = new HashMap<>();
+        headers.put(PerformanceTestComponent.HEADER_ITERATIONS, iterations);
+        headers.put(PerformanceTestComponent.HEADER_THREADS, threads);
+        headers.put(RateTestComponent.HEADER_RATE, rate);
+
+        return template.requestBodyAndHeaders(uri, body, headers, RateTestResult.class);
+    }
+
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                final AtomicInteger counter = new AtomicInteger();
+
+                from("test-rate:echo").to("echo:echo");
+                from("test-rate:stall")
+                        .process(exchange -> {
+                            if (counter.incrementAndGet() % 1000 == 0) {
+                                Thread.sleep(20);
+                            }
+                        })
+                        .to("echo:echo");
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.tests.performance;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.engine.PooledExchangeFactory;
+import org.apache.camel.test.junit5.CamelTestSupport;
+import org.apache.camel.tests.component.PerformanceTestComponent;
+import org.apache.camel.tests.component.PerformanceTestResult;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares copying the exchange for every message with replaying exchanges from the pooled exchange factory, the same
+ * way as running with camel.main.exchange-factory = pooled.
+ */
+public class PooledExchangeReplayTest extends CamelTestSupport {
+
+    private static final String SMALL_MESSAGE = "message";
+
+    private Logger log = LoggerFactory.getLogger(getClass());
+
+    @Override
+    protected CamelContext createCamelContext() throws Exception {
+        CamelContext context = super.createCamelContext();
+        context.getCamelContextExtension().setExchangeFactory(new PooledExchangeFactory());
+        return context;
+    }
+
+    @Test
+    public void testPooledExchanges() throws Exception {
+        for (int t = 1; t <= 16; t *= 2) {
+            PerformanceTestResult copied = runTest("test-perf:copied", SMALL_MESSAGE, 100000, t);
+            PerformanceTestResult pooled = runTest("test-perf:pooled?pooledExchanges=true", SMALL_MESSAGE, 100000, t);
+
+            log.info("copied: {}", copied);
+            log.info("pooled: {}", pooled);
+            assertTrue(pooled.getBytesPerMessage() <= copied.getBytesPerMessage(),
+                    "Replaying pooled exchanges should not allocate more than copying them");
+        }
+    }
+
+    protected PerformanceTestResult runTest(String uri, String body, int iterations, int threads) {
+        Map<String, Object> headers = new HashMap<>();
+        headers.put(PerformanceTestComponent.HEADER_ITERATIONS, iterations);
+        headers.put(PerformanceTestComponent.HEADER_THREADS, threads);
+
+        return template.requestBodyAndHeaders(uri, body, headers, PerformanceTestResult.class);
+    }
+
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                from("test-perf:copied").to("echo:echo");
+                from("test-perf:pooled?pooledExchanges=true").to("echo:echo");
+            }
+        };
+    }
+}
@@ -16,7 +16,7 @@
  */
 package org.apache.camel.tests.performance;
 
-import java.text.DecimalFormat;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -25,17 +25,37 @@ import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.mock.MockEndpoint;
 import org.apache.camel.test.junit5.CamelTestSupport;
 import org.apache.camel.tests.component.PerformanceTestComponent;
-import org.apache.camel.util.StopWatch;
+import org.apache.camel.tests.component.PerformanceTestResult;
+import org.apache.camel.tests.result.ResourceUsage;
+import org.apache.camel.tests.result.ResultRecord;
+import org.apache.camel.tests.result.ResultRecorder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
 public class ProducerCacheHitsTest extends CamelTestSupport {
 
     private static final String SMALL_MESSAGE = "message";
-    private static final DecimalFormat FORMAT = new DecimalFormat("#.##");
+    private static final ResultRecorder RECORDER = new ResultRecorder(ProducerCacheHitsTest.class);
 
     private Logger log = LoggerFactory.getLogger(getClass());
+    private String testName;
+
+    @BeforeEach
+    public void setTestName(TestInfo info) {
+        testName = info.getTestMethod().map(m -> m.getName()).orElse(info.getDisplayName());
+    }
+
+    @AfterAll
+    public static void writeResults() throws IOException {
+        RECORDER.write();
+    }
 
     @Test
     public void testRepeatProcessing() throws Exception {
@@ -57,14 +77,72 @@ public class ProducerCacheHitsTest extends CamelTestSupport {
         }
     }
 
+    @Test
+    public void testLatencyPercentiles() throws Exception {
+        MockEndpoint data = getMandatoryEndpoint("mock:results", MockEndpoint.class);
+        data.expectedMessageCount(7);
+
+        for (int t = 2; t <= 128; t *= 2) {
+            runTest("test-perf:latency?recordLatency=true", SMALL_MESSAGE, 10000, t);
+        }
+
+        data.assertIsSatisfied();
+        for (Exchange ex : data.getExchanges()) {
+            TestResult r = ex.getIn().getBody(TestResult.class);
+            assertTrue(r.result.hasLatency(), "Latency should have been recorded for " + r);
+
+            log.info(r.toString());
+        }
+    }
+
+    @Test
+    public void testAsyncProcessing() throws Exception {
+        MockEndpoint data = getMandatoryEndpoint("mock:results", MockEndpoint.class);
+        data.expectedMessageCount(2 * 7);
+
+        for (int window = 2; window <= 128; window *= 2) {
+            runTest("test-perf:async?async=true&recordLatency=true", SMALL_MESSAGE, 10000, window);
+            runTest("test-perf:asyncThreads?async=true&recordLatency=true", SMALL_MESSAGE, 10000, window);
+        }
+
+        data.assertIsSatisfied();
+        for (Exchange ex : data.getExchanges()) {
+            TestResult r = ex.getIn().getBody(TestResult.class);
+
+            log.info(r.toString());
+        }
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads require JDK 21 or newer");
+
+        MockEndpoint data = getMandatoryEndpoint("mock:results", MockEndpoint.class);
+        data.expectedMessageCount(8);
+
+        for (int t = 128; t <= 16384; t *= 2) {
+            runTest("test-perf:virtual?virtualThreads=true&recordLatency=true", SMALL_MESSAGE, 100000, t);
+        }
+
+        data.assertIsSatisfied();
+        for (Exchange ex : data.getExchanges()) {
+            TestResult r = ex.getIn().getBody(TestResult.class);
+
+            log.info(r.toString());
+        }
+    }
+
     protected Object runTest(String uri, String body, int iterations, int threads) {
         Map<String, Object> headers = new HashMap<>();
         headers.put(PerformanceTestComponent.HEADER_ITERATIONS, iterations);
         headers.put(PerformanceTestComponent.HEADER_THREADS, threads);
 
-        StopWatch watch = new StopWatch();
-        Object result = template.requestBodyAndHeaders(uri, body, headers);
-        template.sendBody("mock:results", new TestResult(uri, iterations, threads, watch.taken()));
+        ResourceUsage usage = ResourceUsage.start();
+        PerformanceTestResult result = template.requestBodyAndHeaders(uri, body, headers, PerformanceTestResult.class);
+        usage.stop();
+
+        RECORDER.add(ResultRecord.of(getClass().getName() + "." + testName, result).param("uri", uri).usage(usage));
+        template.sendBody("mock:results", new TestResult(uri, result));
         return result;
     }
 
@@ -72,36 +150,26 @@ public class ProducerCacheHitsTest extends CamelTestSupport {
         return new RouteBuilder() {
             public void configure() throws Exception {
                 from("test-perf:endpoint").to("echo:echo");
+                from("test-perf:latency?recordLatency=true").to("echo:echo");
+                from("test-perf:async?async=true&recordLatency=true").to("echo:echo");
+                // the thread pool makes every exchange complete asynchronously
+                from("test-perf:asyncThreads?async=true&recordLatency=true").threads(8).to("echo:echo");
+                from("test-perf:virtual?virtualThreads=true&recordLatency=true").to("echo:echo");
             }
         };
     }
 
     public final class TestResult {
         public String uri;
-        public int iterations;
-        public int threads;
-        public long time;
+        public PerformanceTestResult result;
 
-        public TestResult(String uri, int iterations, int threads, long time) {
+        public TestResult(String uri, PerformanceTestResult result) {
             this.uri = uri;
-            this.iterations = iterations;
-            this.threads = threads;
-            this.time = time;
+            this.result = result;
         }
 
         public String toString() {
-            StringBuilder sb = new StringBuilder();
-            sb.append("[");
-            sb.append(FORMAT.format(1000.0 * iterations / time));
-            sb.append(" /s], ");
-            sb.append(uri);
-            sb.append(", ");
-            sb.append(iterations);
-            sb.append(", ");
-            sb.append(threads);
-            sb.append(", ");
-            sb.append(time);
-            return sb.toString();
+            return uri + ", " + result;
         }
     }
 }
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.itest.jmh.tools;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.apache.camel.util.json.DeserializationException;
+import org.apache.camel.util.json.JsonArray;
+import org.apache.camel.util.json.JsonObject;
+import org.apache.camel.util.json.Jsoner;
+
+/**
+ * One entry of a JMH JSON result file, as written by the camel-jmh tests ({@code *.jmh.json}) and by the result
+ * recorder of camel-itest-performance ({@code *.perf.json}).
+ */
+public final class BenchmarkResult {
+    private final String benchmark;
+    private final String mode;
+    private final int threads;
+    private final Map<String, String> params;
+    private final Metric primaryMetric;
+    private final Map<String, Metric> secondaryMetrics;
+
+    public BenchmarkResult(String benchmark, String mode, int threads, Map<String, String> params,
+                           Metric primaryMetric, Map<String, Metric> secondaryMetrics) {
+        this.benchmark = benchmark;
+        this.mode = mode;
+        this.threads = threads;
+        this.params = Collections.unmodifiableMap(new TreeMap<>(params));
+        this.primaryMetric = primaryMetric;
+        this.secondaryMetrics = Collections.unmodifiableMap(new TreeMap<>(secondaryMetrics));
+    }
+
+    public String getBenchmark() {
+        return benchmark;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * The benchmark parameters sorted by name
+     */
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public Metric getPrimaryMetric() {
+        return primaryMetric;
+    }
+
+    public Map<String, Metric> getSecondaryMetrics() {
+        return secondaryMetrics;
+    }
+
+    /**
+     * Identifies the same measurement in different runs: the benchmark, mode, threads and parameters
+     */
+    public String getKey() {
+        return benchmark + " " + mode + " " + threads + " " + params;
+    }
+
+    /**
+     * Whether a higher score is better, which is only the case for throughput
+     */
+    public boolean isHigherBetter() {
+        return "thrpt".equals(mode);
+    }
+
+    /**
+     * Loads the results of a JSON result file, or of all the {@code *.jmh.json} and {@code *.perf.json} files in a
+     * directory.
+     */
+    public static List<BenchmarkResult> load(Path path) throws IOException {
+        List<BenchmarkResult> answer = new ArrayList<>();
+        if (Files.isDirectory(path)) {
+            List<Path> files = new ArrayList<>();
+            try (Stream<Path> stream = Files.list(path)) {
+                stream.filter(BenchmarkResult::isResultFile).sorted().forEach(files::add);
+            }
+            for (Path file : files) {
+                answer.addAll(load(file));
+            }
+        } else {
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                Object json = Jsoner.deserialize(reader);
+                if (!(json instanceof JsonArray)) {
+                    throw new IOException("Not a JMH JSON result file: " + path);
+                }
+                for (Object entry : (JsonArray) json) {
+                    answer.add(parse((JsonObject) entry));
+                }
+            } catch (DeserializationException e) {
+                throw new IOException("Cannot parse " + path + ": " + e.getMessage(), e);
+            }
+        }
+        return answer;
+    }
+
+    static boolean isResultFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(".jmh.json") || name.endsWith(".perf.json");
+    }
+
+    static BenchmarkResult parse(JsonObject json) {
+        Map<String, String> params = new TreeMap<>();
+        JsonObject jsonParams = (JsonObject) json.get("params");
+        if (jsonParams != null) {
+            jsonParams.forEach((k, v) -> params.put(k, String.valueOf(v)));
+        }
+
+        Map<String, Metric> secondary = new TreeMap<>();
+        JsonObject jsonSecondary = (JsonObject) json.get("secondaryMetrics");
+        if (jsonSecondary != null) {
+            jsonSecondary.forEach((k, v) -> secondary.put(k, Metric.parse((JsonObject) v)));
+        }
+
+        return new BenchmarkResult(json.getString("benchmark"), json.getString("mode"),
+                json.getIntegerOrDefault("threads", 1), params,
+                Metric.parse((JsonObject) json.get("primaryMetric")), secondary);
+    }
+
+    @Override
+    public String toString() {
+        return getKey() + " = " + primaryMetric;
+    }
+
+    /**
+     * A score with the half width of its 99.9% confidence interval, which is NaN when it was measured only once
+     */
+    public static final class Metric {
+        private final double score;
+        private final double scoreError;
+        private final String unit;
+        private final List<Double> rawData;
+
+        public Metric(double score, double scoreError, String unit, List<Double> rawData) {
+            this.score = score;
+            this.scoreError = scoreError;
+            this.unit = unit;
+            this.rawData = Collections.unmodifiableList(rawData);
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public double getScoreError() {
+            return scoreError;
+        }
+
+        public boolean hasScoreError() {
+            return !Double.isNaN(scoreError);
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        /**
+         * The score of every measurement iteration of every fork
+         */
+        public List<Double> getRawData() {
+            return rawData;
+        }
+
+        static Metric parse(JsonObject json) {
+            List<Double> rawData = new ArrayList<>();
+            JsonArray forks = (JsonArray) json.get("rawData");
+            if (forks != null) {
+                for (Object fork : forks) {
+                    for (Object value : (JsonArray) fork) {
+                        rawData.add(toDouble(value));
+                    }
+                }
+            }
+            return new Metric(toDouble(json.get("score")), toDouble(json.get("scoreError")),
+                    json.getString("scoreUnit"), rawData);
+        }
+
+        private static double toDouble(Object value) {
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+            // JMH writes NaN and infinity as strings
+            return value != null ? Double.parseDouble(value.toString()) : Double.NaN;
+        }
+
+        @Override
+        public String toString() {
+            return score + (hasScoreError() ? " +- " + scoreError : "") + " " + unit;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.itest.jmh.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.camel.itest.jmh.tools.BenchmarkResult.Metric;
+
+/**
+ * Runs a subset of the camel-jmh benchmarks against several Camel versions and collects the results in one table,
+ * with the throughput and the allocations per operation of every version next to each other and the change against
+ * the first version.
+ * <p/>
+ * Every version runs in its own Maven build of camel-jmh with {@code -Dcamel.version}, so the benchmarks are compiled
+ * and forked with the Camel jars of that version only. The builds run offline against the local Maven repository
+ * unless {@code --online} is given. The results of every version are kept in {@code <output>/<version>} and the table
+ * is written to {@code <output>/matrix.txt} and {@code <output>/matrix.csv}.
+ *
+ * <pre>
+ * CamelVersionMatrix --versions 4.4.0,4.5.0,4.6.0 --benchmarks LogEndpointTest,SimpleMockTest
+ *                    [--output &lt;dir&gt;] [--project &lt;dir&gt;] [--online]
+ * </pre>
+ *
+ * The versions of the third party libraries stay the ones of the camel-dependencies parent of the project.
+ */
+public final class CamelVersionMatrix {
+    static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    private final Path project;
+    private final Path output;
+    private final List<String> versions;
+    private final List<String> benchmarks;
+    private final boolean online;
+
+    public CamelVersionMatrix(Path project, Path output, List<String> versions, List<String> benchmarks,
+                              boolean online) {
+        this.project = project;
+        this.output = output;
+        this.versions = versions;
+        this.benchmarks = benchmarks;
+        this.online = online;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> versions = new ArrayList<>();
+        List<String> benchmarks = new ArrayList<>();
+        Path output = Paths.get("target", "camel-version-matrix");
+        Path project = null;
+        boolean online = false;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--versions".equals(args[i]) && i + 1 < args.length) {
+                versions.addAll(Arrays.asList(args[++i].split(",")));
+            } else if ("--benchmarks".equals(args[i]) && i + 1 < args.length) {
+                benchmarks.addAll(Arrays.asList(args[++i].split(",")));
+            } else if ("--output".equals(args[i]) && i + 1 < args.length) {
+                output = Paths.get(args[++i]);
+            } else if ("--project".equals(args[i]) && i + 1 < args.length) {
+                project = Paths.get(args[++i]);
+            } else if ("--online".equals(args[i])) {
+                online = true;
+            } else {
+                usage("Unexpected argument: " + args[i]);
+            }
+        }
+        if (versions.isEmpty() || benchmarks.isEmpty()) {
+            usage("Both the versions and the benchmarks are required");
+        }
+        if (project == null) {
+            project = findProject(Paths.get("").toAbsolutePath());
+        }
+
+        CamelVersionMatrix matrix = new CamelVersionMatrix(project, output, versions, benchmarks, online);
+        Map<String, List<BenchmarkResult>> results = matrix.run();
+        System.out.println(table(results));
+        System.exit(results.values().stream().anyMatch(List::isEmpty) ? 1 : 0);
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: CamelVersionMatrix --versions <v1,v2,...> --benchmarks <Test1,Test2,...> "
+                           + "[--output <dir>] [--project <dir>] [--online]");
+        System.exit(2);
+    }
+
+    /**
+     * Runs the benchmarks for every version and returns the results by version, which are empty for the versions
+     * that are not available or whose build failed
+     */
+    public Map<String, List<BenchmarkResult>> run() throws IOException, InterruptedException {
+        Path jmh = project.resolve("tests").resolve("camel-jmh");
+        Map<String, List<BenchmarkResult>> answer = new LinkedHashMap<>();
+
+        for (String version : versions) {
+            Path dir = output.resolve(version);
+            Files.createDirectories(dir);
+            for (Path file : listResults(dir, 0)) {
+                Files.delete(file);
+            }
+            answer.put(version, new ArrayList<>());
+
+            if (!online && !isInstalled(version)) {
+                System.err.println("Camel " + version + " is not in the local Maven repository, skipping it");
+                continue;
+            }
+
+            // only the result files written by this build belong to this version
+            long started = System.currentTimeMillis();
+            List<String> command = new ArrayList<>(
+                    List.of(mavenExecutable(), "-B", "clean", "test", "-Pjmh", "-Dcamel.version=" + version,
+                            "-Dtest=" + String.join(",", benchmarks), "-Dsurefire.failIfNoSpecifiedTests=false"));
+            if (!online) {
+                command.add(1, "-o");
+            }
+
+            System.out.println("Running " + benchmarks + " with Camel " + version);
+            Process process = new ProcessBuilder(command)
+                    .directory(jmh.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(dir.resolve("build.log").toFile())
+                    .start();
+            int exit = process.waitFor();
+            if (exit != 0) {
+                System.err.println("The build with Camel " + version + " failed, see " + dir.resolve("build.log"));
+            }
+
+            for (Path file : listResults(jmh, started)) {
+                Files.move(file, dir.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+            answer.put(version, BenchmarkResult.load(dir));
+        }
+
+        String table = table(answer);
+        Files.writeString(output.resolve("matrix.txt"), table, StandardCharsets.UTF_8);
+        Files.writeString(output.resolve("matrix.csv"), csv(answer), StandardCharsets.UTF_8);
+        return answer;
+    }
+
+    /**
+     * One row per benchmark with the score and the allocations per operation of every version, and the change
+     * against the first version that has the benchmark
+     */
+    public static String table(Map<String, List<BenchmarkResult>> results) {
+        Map<String, Map<String, BenchmarkResult>> rows = rows(results);
+
+        int width = "Benchmark".length();
+        for (String key : rows.keySet()) {
+            width = Math.max(width, key.length());
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-" + width + "s", "Benchmark"));
+        for (String version : results.keySet()) {
+            sb.append(String.format(Locale.ROOT, "  %32s  %22s", version + " score", version + " alloc"));
+        }
+        sb.append(String.format("%n"));
+
+        for (Map.Entry<String, Map<String, BenchmarkResult>> row : rows.entrySet()) {
+            sb.append(String.format(Locale.ROOT, "%-" + width + "s", row.getKey()));
+            BenchmarkResult first = null;
+            for (String version : results.keySet()) {
+                BenchmarkResult result = row.getValue().get(version);
+                if (result == null) {
+                    sb.append(String.format(Locale.ROOT, "  %32s  %22s", "-", "-"));
+                    continue;
+                }
+                if (first == null) {
+                    first = result;
+                }
+                Metric score = result.getPrimaryMetric();
+                Metric alloc = result.getSecondaryMetrics().get(ALLOCATION_METRIC);
+                String change = change(first.getPrimaryMetric(), score);
+                sb.append(String.format(Locale.ROOT, "  %32s  %22s",
+                        Units.format(score.getScore()) + " " + score.getUnit() + change,
+                        alloc == null ? "-"
+                                : String.format(Locale.ROOT, "%.1f %s%s", alloc.getScore(), alloc.getUnit(),
+                                        change(first.getSecondaryMetrics().get(ALLOCATION_METRIC), alloc))));
+            }
+            sb.append(String.format("%n"));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The same as {@link #table(Map)} with one line per benchmark and version
+     */
+    public static String csv(Map<String, List<BenchmarkResult>> results) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\"Benchmark\",\"Version\",\"Score\",\"Score Error (99.9%)\",\"Unit\",\"Alloc\",\"Alloc Unit\"\n");
+        for (Map.Entry<String, Map<String, BenchmarkResult>> row : rows(results).entrySet()) {
+            for (Map.Entry<String, BenchmarkResult> entry : row.getValue().entrySet()) {
+                Metric score = entry.getValue().getPrimaryMetric();
+                Metric alloc = entry.getValue().getSecondaryMetrics().get(ALLOCATION_METRIC);
+                sb.append("\"").append(row.getKey().replace("\"", "\"\"")).append("\",");
+                sb.append("\"").append(entry.getKey()).append("\",");
+                sb.append(String.format(Locale.ROOT, "%.6f,%.6f,\"%s\",", score.getScore(), score.getScoreError(),
+                        score.getUnit()));
+                if (alloc != null) {
+                    sb.append(String.format(Locale.ROOT, "%.6f,\"%s\"", alloc.getScore(), alloc.getUnit()));
+                } else {
+                    sb.append(",");
+                }
+                sb.append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, Map<String, BenchmarkResult>> rows(Map<String, List<BenchmarkResult>> results) {
+        Map<String, Map<String, BenchmarkResult>> rows = new LinkedHashMap<>();
+        for (Map.Entry<String, List<BenchmarkResult>> entry : results.entrySet()) {
+            for (BenchmarkResult result : entry.getValue()) {
+                rows.computeIfAbsent(name(result), k -> new LinkedHashMap<>()).put(entry.getKey(), result);
+            }
+        }
+        return rows;
+    }
+
+    private static String name(BenchmarkResult result) {
+        String answer = result.getBenchmark() + " " + result.getMode();
+        if (result.getThreads() != 1) {
+            answer += " " + result.getThreads() + "t";
+        }
+        return result.getParams().isEmpty() ? answer : answer + " " + result.getParams();
+    }
+
+    private static String change(Metric first, Metric metric) {
+        if (first == null || first == metric || first.getScore() == 0) {
+            return "";
+        }
+        double factor = Units.conversionFactor(metric.getUnit(), first.getUnit());
+        if (Double.isNaN(factor)) {
+            return "";
+        }
+        return String.format(Locale.ROOT, " (%+.1f%%)", (metric.getScore() * factor - first.getScore())
+                                                        / first.getScore() * 100);
+    }
+
+    private static boolean isInstalled(String version) {
+        Path repository = Paths.get(System.getProperty("maven.repo.local",
+                Paths.get(System.getProperty("user.home"), ".m2", "repository").toString()));
+        return Files.isDirectory(repository.resolve(Paths.get("org", "apache", "camel", "camel-core", version)));
+    }
+
+    private static String mavenExecutable() {
+        String home = System.getProperty("maven.home");
+        if (home != null && Files.isExecutable(Paths.get(home, "bin", "mvn"))) {
+            return Paths.get(home, "bin", "mvn").toString();
+        }
+        return "mvn";
+    }
+
+    private static List<Path> listResults(Path dir, long since) throws IOException {
+        List<Path> answer = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(dir)) {
+            stream.filter(BenchmarkResult::isResultFile).filter(f -> f.toFile().lastModified() >= since)
+                    .forEach(answer::add);
+        }
+        return answer;
+    }
+
+    /**
+     * The root of the performance tests project, found from the given directory upwards
+     */
+    static Path findProject(Path dir) {
+        for (Path current = dir; current != null; current = current.getParent()) {
+            if (new File(current.toFile(), "tests" + File.separator + "camel-jmh" + File.separator + "pom.xml")
+                    .isFile()) {
+                return current;
+            }
+        }
+        throw new IllegalArgumentException("Cannot find the camel-jmh project from " + dir + ", use --project");
+    }
+}
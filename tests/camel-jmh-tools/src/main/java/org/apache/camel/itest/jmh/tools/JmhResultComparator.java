@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.itest.jmh.tools;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.camel.itest.jmh.tools.BenchmarkResult.Metric;
+
+/**
+ * Compares a candidate set of JMH results with a baseline, for example the results of the same benchmarks before and
+ * after upgrading Camel.
+ * <p/>
+ * Results are matched by benchmark, mode, threads and parameters. A difference is significant when the 99.9%
+ * confidence intervals of the two scores (score +- score error) do not overlap and the scores differ by at least the
+ * threshold, which also guards the results that were measured once and have no error. The comparator prints a report
+ * and exits with 1 when any benchmark got significantly slower.
+ *
+ * <pre>
+ * JmhResultComparator &lt;baseline&gt; &lt;candidate&gt; [--threshold &lt;percent&gt;] [--report &lt;file&gt;]
+ * </pre>
+ *
+ * The baseline and candidate are JSON result files or directories with {@code *.jmh.json} and {@code *.perf.json}
+ * files.
+ */
+public final class JmhResultComparator {
+    public static final double DEFAULT_THRESHOLD = 5.0;
+
+    public enum Verdict {
+        REGRESSION,
+        IMPROVEMENT,
+        UNCHANGED,
+        NEW,
+        MISSING,
+        INCOMPARABLE
+    }
+
+    private final double threshold;
+
+    /**
+     * @param threshold the minimum difference in percent for a significant change
+     */
+    public JmhResultComparator(double threshold) {
+        this.threshold = threshold;
+    }
+
+    public static void main(String[] args) {
+        Path baseline = null;
+        Path candidate = null;
+        Path report = null;
+        double threshold = DEFAULT_THRESHOLD;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if ("--threshold".equals(args[i]) && i + 1 < args.length) {
+                    threshold = Double.parseDouble(args[++i]);
+                } else if ("--report".equals(args[i]) && i + 1 < args.length) {
+                    report = Paths.get(args[++i]);
+                } else if (baseline == null) {
+                    baseline = Paths.get(args[i]);
+                } else if (candidate == null) {
+                    candidate = Paths.get(args[i]);
+                } else {
+                    throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                }
+            }
+            if (candidate == null) {
+                throw new IllegalArgumentException("Both a baseline and a candidate are required");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: JmhResultComparator <baseline> <candidate> [--threshold <percent>] "
+                               + "[--report <file>]");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            JmhResultComparator comparator = new JmhResultComparator(threshold);
+            List<Comparison> comparisons
+                    = comparator.compare(BenchmarkResult.load(baseline), BenchmarkResult.load(candidate));
+            String text = comparator.report(comparisons);
+
+            System.out.println(text);
+            if (report != null) {
+                Files.writeString(report, text, StandardCharsets.UTF_8);
+            }
+            System.exit(hasRegressions(comparisons) ? 1 : 0);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    public static boolean hasRegressions(List<Comparison> comparisons) {
+        return comparisons.stream().anyMatch(c -> c.getVerdict() == Verdict.REGRESSION);
+    }
+
+    /**
+     * Compares the primary metric of every benchmark, in the order of the baseline followed by the benchmarks that
+     * only exist in the candidate
+     */
+    public List<Comparison> compare(List<BenchmarkResult> baseline, List<BenchmarkResult> candidate) {
+        Map<String, BenchmarkResult> candidates = new LinkedHashMap<>();
+        for (BenchmarkResult result : candidate) {
+            candidates.put(result.getKey(), result);
+        }
+
+        List<Comparison> answer = new ArrayList<>();
+        for (BenchmarkResult result : baseline) {
+            answer.add(compare(result, candidates.remove(result.getKey())));
+        }
+        for (BenchmarkResult result : candidates.values()) {
+            answer.add(new Comparison(null, result, Double.NaN, Verdict.NEW));
+        }
+        return answer;
+    }
+
+    Comparison compare(BenchmarkResult baseline, BenchmarkResult candidate) {
+        if (candidate == null) {
+            return new Comparison(baseline, null, Double.NaN, Verdict.MISSING);
+        }
+
+        Metric base = baseline.getPrimaryMetric();
+        Metric cand = candidate.getPrimaryMetric();
+        double factor = Units.conversionFactor(cand.getUnit(), base.getUnit());
+        if (Double.isNaN(factor) || base.getScore() == 0) {
+            return new Comparison(baseline, candidate, Double.NaN, Verdict.INCOMPARABLE);
+        }
+
+        double candScore = cand.getScore() * factor;
+        double candError = cand.hasScoreError() ? cand.getScoreError() * factor : 0;
+        double baseError = base.hasScoreError() ? base.getScoreError() : 0;
+        double change = (candScore - base.getScore()) / base.getScore() * 100;
+
+        boolean overlap = candScore - candError <= base.getScore() + baseError
+                && base.getScore() - baseError <= candScore + candError;
+        if (overlap || Math.abs(change) < threshold) {
+            return new Comparison(baseline, candidate, change, Verdict.UNCHANGED);
+        }
+
+        boolean better = baseline.isHigherBetter() ? change > 0 : change < 0;
+        return new Comparison(baseline, candidate, change, better ? Verdict.IMPROVEMENT : Verdict.REGRESSION);
+    }
+
+    public String report(List<Comparison> comparisons) {
+        int width = "Benchmark".length();
+        for (Comparison comparison : comparisons) {
+            width = Math.max(width, comparison.getName().length());
+        }
+
+        StringBuilder sb = new StringBuilder();
+        String header = "%-" + width + "s  %-6s %7s  %26s  %26s  %9s  %s%n";
+        String row = "%-" + width + "s  %-6s %7d  %26s  %26s  %9s  %s%n";
+        sb.append(String.format(Locale.ROOT, header, "Benchmark", "Mode", "Threads", "Baseline", "Candidate", "Change",
+                "Verdict"));
+
+        Map<Verdict, Integer> counts = new EnumMap<>(Verdict.class);
+        for (Comparison comparison : comparisons) {
+            BenchmarkResult result
+                    = comparison.getBaseline() != null ? comparison.getBaseline() : comparison.getCandidate();
+            sb.append(String.format(Locale.ROOT, row, comparison.getName(), result.getMode(), result.getThreads(),
+                    format(comparison.getBaseline()), format(comparison.getCandidate()),
+                    Double.isNaN(comparison.getChange())
+                            ? "" : String.format(Locale.ROOT, "%+.2f%%", comparison.getChange()),
+                    comparison.getVerdict()));
+            counts.merge(comparison.getVerdict(), 1, Integer::sum);
+        }
+
+        sb.append(String.format(Locale.ROOT, "%n%d benchmarks compared with a threshold of %.1f%%:", comparisons.size(),
+                threshold));
+        for (Verdict verdict : Verdict.values()) {
+            sb.append(" ").append(counts.getOrDefault(verdict, 0)).append(" ")
+                    .append(verdict.name().toLowerCase(Locale.ROOT));
+        }
+        sb.append(String.format("%n"));
+        return sb.toString();
+    }
+
+    private static String format(BenchmarkResult result) {
+        if (result == null) {
+            return "-";
+        }
+        Metric metric = result.getPrimaryMetric();
+        if (metric.hasScoreError()) {
+            return Units.format(metric.getScore()) + " +- " + Units.format(metric.getScoreError()) + " "
+                   + metric.getUnit();
+        }
+        return Units.format(metric.getScore()) + " " + metric.getUnit();
+    }
+
+    /**
+     * The outcome of comparing one benchmark, where the change is the difference of the candidate score in percent
+     */
+    public static final class Comparison {
+        private final BenchmarkResult baseline;
+        private final BenchmarkResult candidate;
+        private final double change;
+        private final Verdict verdict;
+
+        Comparison(BenchmarkResult baseline, BenchmarkResult candidate, double change, Verdict verdict) {
+            this.baseline = baseline;
+            this.candidate = candidate;
+            this.change = change;
+            this.verdict = verdict;
+        }
+
+        public BenchmarkResult getBaseline() {
+            return baseline;
+        }
+
+        public BenchmarkResult getCandidate() {
+            return candidate;
+        }
+
+        public double getChange() {
+            return change;
+        }
+
+        public Verdict getVerdict() {
+            return verdict;
+        }
+
+        public String getName() {
+            BenchmarkResult result = baseline != null ? baseline : candidate;
+            return result.getParams().isEmpty()
+                    ? result.getBenchmark() : result.getBenchmark() + " " + result.getParams();
+        }
+    }
+}
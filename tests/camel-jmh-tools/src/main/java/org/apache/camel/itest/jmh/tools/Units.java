@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.itest.jmh.tools;
+
+import java.util.Locale;
+
+/**
+ * Converts between the JMH score units, such as ops/s and ops/ms for throughput or us/op and ns/op for time.
+ */
+final class Units {
+
+    private Units() {
+    }
+
+    /**
+     * The factor to multiply a score in the first unit with to get the score in the second unit, or NaN if the units
+     * cannot be converted
+     */
+    static double conversionFactor(String from, String to) {
+        if (from == null || to == null) {
+            return Double.NaN;
+        }
+        if (from.equals(to)) {
+            return 1;
+        }
+
+        if (from.startsWith("ops/") && to.startsWith("ops/")) {
+            return seconds(to.substring(4)) / seconds(from.substring(4));
+        }
+        if (from.endsWith("/op") && to.endsWith("/op")) {
+            return seconds(from.substring(0, from.length() - 3)) / seconds(to.substring(0, to.length() - 3));
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Formats a score with three decimals, or three significant digits when it is too small for that
+     */
+    static String format(double score) {
+        if (score != 0 && Math.abs(score) < 1) {
+            return String.format(Locale.ROOT, "%.3g", score);
+        }
+        return String.format(Locale.ROOT, "%.3f", score);
+    }
+
+    private static double seconds(String unit) {
+        switch (unit) {
+            case "s":
+                return 1;
+            case "ms":
+                return 1e-3;
+            case "us":
+                return 1e-6;
+            case "ns":
+                return 1e-9;
+            case "min":
+                return 60;
+            default:
+                return Double.NaN;
+        }
+    }
+}
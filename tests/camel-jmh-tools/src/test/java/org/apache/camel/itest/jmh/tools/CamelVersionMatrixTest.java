@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.itest.jmh.tools;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.camel.itest.jmh.tools.BenchmarkResult.Metric;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CamelVersionMatrixTest {
+
+    @Test
+    public void testTable() {
+        Map<String, List<BenchmarkResult>> results = new LinkedHashMap<>();
+        results.put("4.5.0", List.of(result("org.example.Test.run", 1000, 100), result("org.example.Test.old", 10, 1)));
+        results.put("4.6.0", List.of(result("org.example.Test.run", 1100, 80)));
+        results.put("4.7.0", List.of());
+
+        String table = CamelVersionMatrix.table(results);
+        String[] lines = table.split("\\R");
+
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("4.5.0 score") && lines[0].contains("4.7.0 alloc"), table);
+        assertTrue(lines[1].startsWith("org.example.Test.run thrpt"), table);
+        assertTrue(lines[1].contains("1100.000 ops/s (+10.0%)"), table);
+        assertTrue(lines[1].contains("80.0 B/op (-20.0%)"), table);
+        assertTrue(lines[2].startsWith("org.example.Test.old thrpt"), table);
+
+        String csv = CamelVersionMatrix.csv(results);
+        assertEquals(4, csv.split("\\R").length, csv);
+    }
+
+    private static BenchmarkResult result(String benchmark, double score, double alloc) {
+        return new BenchmarkResult(benchmark, "thrpt", 1, Map.of(), new Metric(score, 1, "ops/s", List.of(score)),
+                Map.of(CamelVersionMatrix.ALLOCATION_METRIC, new Metric(alloc, Double.NaN, "B/op", List.of(alloc))));
+    }
+}
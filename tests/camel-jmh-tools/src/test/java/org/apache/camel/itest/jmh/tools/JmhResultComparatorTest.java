@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.itest.jmh.tools;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.camel.itest.jmh.tools.BenchmarkResult.Metric;
+import org.apache.camel.itest.jmh.tools.JmhResultComparator.Comparison;
+import org.apache.camel.itest.jmh.tools.JmhResultComparator.Verdict;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JmhResultComparatorTest {
+
+    private static final String RESULT
+            = "[{\"jmhVersion\":\"1.37\",\"benchmark\":\"org.apache.camel.itest.jmh.LogEndpointTest.log\","
+              + "\"mode\":\"thrpt\",\"threads\":2,\"forks\":1,\"params\":{\"size\":\"10\"},"
+              + "\"primaryMetric\":{\"score\":1000.5,\"scoreError\":12.5,"
+              + "\"scoreConfidence\":[988.0,1013.0],\"scoreUnit\":\"ops/ms\","
+              + "\"rawData\":[[990.0,1011.0],[1000.0,1001.0]]},"
+              + "\"secondaryMetrics\":{\"gc.alloc.rate.norm\":{\"score\":96.0,"
+              + "\"scoreError\":\"NaN\",\"scoreUnit\":\"B/op\",\"rawData\":[[96.0]]}}}]";
+
+    private final JmhResultComparator comparator = new JmhResultComparator(JmhResultComparator.DEFAULT_THRESHOLD);
+
+    @Test
+    public void testLoad(@TempDir Path dir) throws Exception {
+        Files.writeString(dir.resolve("LogEndpointTest.jmh.json"), RESULT, StandardCharsets.UTF_8);
+        Files.writeString(dir.resolve("ignored.json"), "not json", StandardCharsets.UTF_8);
+
+        List<BenchmarkResult> results = BenchmarkResult.load(dir);
+
+        assertEquals(1, results.size());
+        BenchmarkResult result = results.get(0);
+        assertEquals("org.apache.camel.itest.jmh.LogEndpointTest.log", result.getBenchmark());
+        assertEquals(2, result.getThreads());
+        assertEquals(Map.of("size", "10"), result.getParams());
+        assertEquals(1000.5, result.getPrimaryMetric().getScore());
+        assertEquals(12.5, result.getPrimaryMetric().getScoreError());
+        assertEquals(List.of(990.0, 1011.0, 1000.0, 1001.0), result.getPrimaryMetric().getRawData());
+        assertFalse(result.getSecondaryMetrics().get("gc.alloc.rate.norm").hasScoreError());
+    }
+
+    @Test
+    public void testOverlappingIntervalsAreUnchanged() {
+        Comparison comparison = comparator.compare(result("thrpt", 1000, 100), result("thrpt", 900, 50));
+
+        assertEquals(Verdict.UNCHANGED, comparison.getVerdict());
+        assertEquals(-10.0, comparison.getChange(), 0.0001);
+    }
+
+    @Test
+    public void testThroughputRegression() {
+        assertEquals(Verdict.REGRESSION,
+                comparator.compare(result("thrpt", 1000, 10), result("thrpt", 800, 10)).getVerdict());
+        assertEquals(Verdict.IMPROVEMENT,
+                comparator.compare(result("thrpt", 800, 10), result("thrpt", 1000, 10)).getVerdict());
+    }
+
+    @Test
+    public void testAverageTimeRegression() {
+        assertEquals(Verdict.REGRESSION,
+                comparator.compare(result("avgt", 800, 10), result("avgt", 1000, 10)).getVerdict());
+        assertEquals(Verdict.IMPROVEMENT,
+                comparator.compare(result("avgt", 1000, 10), result("avgt", 800, 10)).getVerdict());
+    }
+
+    @Test
+    public void testSingleSampleBelowThresholdIsUnchanged() {
+        Comparison comparison
+                = comparator.compare(result("thrpt", 1000, Double.NaN), result("thrpt", 970, Double.NaN));
+
+        assertEquals(Verdict.UNCHANGED, comparison.getVerdict());
+    }
+
+    @Test
+    public void testUnitsAreConverted() {
+        BenchmarkResult baseline = result("thrpt", 1000, 10, "ops/s");
+        BenchmarkResult candidate = result("thrpt", 1, 0.01, "ops/ms");
+
+        assertEquals(Verdict.UNCHANGED, comparator.compare(baseline, candidate).getVerdict());
+        assertEquals(Verdict.INCOMPARABLE, comparator.compare(baseline, result("thrpt", 1, 0, "us/op")).getVerdict());
+    }
+
+    @Test
+    public void testMatchByKey() {
+        BenchmarkResult kept = result("thrpt", 1000, 10);
+        BenchmarkResult removed = new BenchmarkResult("org.example.Removed.run", "thrpt", 1, Map.of(),
+                new Metric(1, 0, "ops/s", List.of()), Map.of());
+        BenchmarkResult added = new BenchmarkResult("org.example.Test.run", "thrpt", 1, Map.of("size", "20"),
+                new Metric(1, 0, "ops/s", List.of()), Map.of());
+
+        List<Comparison> comparisons
+                = comparator.compare(List.of(kept, removed), List.of(added, result("thrpt", 500, 10)));
+
+        assertEquals(3, comparisons.size());
+        assertEquals(Verdict.REGRESSION, comparisons.get(0).getVerdict());
+        assertEquals(Verdict.MISSING, comparisons.get(1).getVerdict());
+        assertEquals(Verdict.NEW, comparisons.get(2).getVerdict());
+        assertTrue(JmhResultComparator.hasRegressions(comparisons));
+        assertTrue(comparator.report(comparisons).contains("1 regression"));
+    }
+
+    private static BenchmarkResult result(String mode, double score, double error) {
+        return result(mode, score, error, "thrpt".equals(mode) ? "ops/s" : "us/op");
+    }
+
+    private static BenchmarkResult result(String mode, double score, double error, String unit) {
+        return new BenchmarkResult("org.example.Test.run", mode, 1, Map.of("size", "10"),
+                new Metric(score, error, unit, List.of(score)), Map.of());
+    }
+}
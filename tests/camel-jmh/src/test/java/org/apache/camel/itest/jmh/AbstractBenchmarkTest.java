@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.itest.jmh;
+
+import java.util.Collection;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Launches the JMH benchmarks of the test class with the settings shared by all the camel-jmh tests: one fork, the
+ * results written to {@code <SimpleName>.jmh.json} and the GC profiler, so every benchmark reports the bytes allocated
+ * per operation (gc.alloc.rate.norm) next to its score.
+ * <p/>
+ * More profilers can be attached with the {@value #PROFILERS_PROPERTY} system property, as a comma separated list of
+ * JMH profiler names with optional options, for example {@code -Dcamel.jmh.profilers=stack,jfr:dir=target/jfr}.
+ * <p/>
+ * Subclasses override {@link #configure(ChainedOptionsBuilder)} to set their own options, and
+ * {@link #report(Collection)} to derive their own figures from the results.
+ */
+public abstract class AbstractBenchmarkTest {
+    public static final String PROFILERS_PROPERTY = "camel.jmh.profilers";
+
+    protected static final int DEFAULT_WARMUP_ITERATIONS = 5;
+    protected static final int DEFAULT_MEASUREMENT_ITERATIONS = 10;
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .include(this.getClass().getName() + ".*")
+                .forks(1)
+                .resultFormat(ResultFormatType.JSON)
+                .result(this.getClass().getSimpleName() + ".jmh.json")
+                .addProfiler(GCProfiler.class);
+
+        String profilers = System.getProperty(PROFILERS_PROPERTY, "");
+        for (String profiler : profilers.split(",")) {
+            profiler = profiler.trim();
+            if (profiler.isEmpty()) {
+                continue;
+            }
+            int pos = profiler.indexOf(':');
+            if (pos > 0) {
+                builder.addProfiler(profiler.substring(0, pos), profiler.substring(pos + 1));
+            } else {
+                builder.addProfiler(profiler);
+            }
+        }
+
+        configure(builder);
+
+        report(new Runner(builder.build()).run());
+    }
+
+    /**
+     * Sets the options of the benchmarks, by default the warm-up and measurement iterations
+     */
+    protected void configure(ChainedOptionsBuilder builder) throws Exception {
+        builder.warmupIterations(DEFAULT_WARMUP_ITERATIONS)
+                .measurementIterations(DEFAULT_MEASUREMENT_ITERATIONS);
+    }
+
+    /**
+     * Reports the results of the benchmarks once they all ran, by default nothing more than the output of JMH
+     */
+    protected void report(Collection<RunResult> results) throws Exception {
+    }
+}
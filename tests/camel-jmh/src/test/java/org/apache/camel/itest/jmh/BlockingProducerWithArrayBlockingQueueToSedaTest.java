@@ -27,7 +27,6 @@ import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.seda.ArrayBlockingQueueFactory;
 import org.apache.camel.component.seda.SedaComponent;
 import org.apache.camel.impl.DefaultCamelContext;
-import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Level;
@@ -38,29 +37,8 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.infra.Blackhole;
-import org.openjdk.jmh.results.format.ResultFormatType;
-import org.openjdk.jmh.runner.Runner;
-import org.openjdk.jmh.runner.options.Options;
-import org.openjdk.jmh.runner.options.OptionsBuilder;
-
-public class BlockingProducerWithArrayBlockingQueueToSedaTest {
-
-    @Test
-    public void launchBenchmark() throws Exception {
-        Options opt = new OptionsBuilder()
-                // Specify which benchmarks to run.
-                // You can be more specific if you'd like to run only one benchmark per test.
-                .include(this.getClass().getName() + ".*")
-                // Set the following options as needed
-                .measurementIterations(10)
-                .warmupIterations(5)
-                .forks(1)
-                .resultFormat(ResultFormatType.JSON)
-                .result(this.getClass().getSimpleName() + ".jmh.json")
-                .build();
-
-        new Runner(opt).run();
-    }
+
+public class BlockingProducerWithArrayBlockingQueueToSedaTest extends AbstractBenchmarkTest {
 
     // The JMH samples are the best documentation for how to use it
     // http://hg.openjdk.java.net/code-tools/jmh/file/tip/jmh-samples/src/main/java/org/openjdk/jmh/samples/
@@ -113,7 +91,6 @@ public class BlockingProducerWithArrayBlockingQueueToSedaTest {
         state.producerTemplate.sendBody(state.endpoint, "test");
     }
 
-
     @OutputTimeUnit(TimeUnit.MICROSECONDS)
     @BenchmarkMode(Mode.AverageTime)
     @Benchmark
@@ -135,5 +112,4 @@ public class BlockingProducerWithArrayBlockingQueueToSedaTest {
         state.producerTemplate.sendBody(state.endpoint, state.sampleFile);
     }
 
-
 }
@@ -23,7 +23,6 @@ import org.apache.camel.Exchange;
 import org.apache.camel.impl.DefaultCamelContext;
 import org.apache.camel.spi.Language;
 import org.apache.camel.support.DefaultExchange;
-import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
@@ -33,10 +32,7 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.infra.Blackhole;
-import org.openjdk.jmh.results.format.ResultFormatType;
-import org.openjdk.jmh.runner.Runner;
-import org.openjdk.jmh.runner.options.Options;
-import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
 import org.openjdk.jmh.runner.options.TimeValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,32 +40,21 @@ import org.slf4j.LoggerFactory;
 /**
  * Tests a Compiled Compile Simple operator expression
  */
-public class CSimpleOperatorTest {
+public class CSimpleOperatorTest extends AbstractBenchmarkTest {
 
     private static final Logger LOG = LoggerFactory.getLogger(CSimpleOperatorTest.class);
 
-    @Test
-    public void launchBenchmark() throws Exception {
-        Options opt = new OptionsBuilder()
-                // Specify which benchmarks to run.
-                // You can be more specific if you'd like to run only one benchmark per test.
-                .include(this.getClass().getName() + ".*")
-                // Set the following options as needed
-                .mode(Mode.All)
+    @Override
+    protected void configure(ChainedOptionsBuilder builder) {
+        builder.mode(Mode.All)
                 .timeUnit(TimeUnit.MICROSECONDS)
                 .warmupTime(TimeValue.seconds(1))
                 .warmupIterations(2)
                 .measurementTime(TimeValue.seconds(10))
                 .measurementIterations(2)
                 .threads(2)
-                .forks(1)
                 .shouldFailOnError(true)
-                .shouldDoGC(true)
-                .resultFormat(ResultFormatType.JSON)
-                .result(this.getClass().getSimpleName() + ".jmh.json")
-                .build();
-
-        new Runner(opt).run();
+                .shouldDoGC(true);
     }
 
     // The JMH samples are the best documentation for how to use it
@@ -23,7 +23,6 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import org.apache.camel.util.CaseInsensitiveMap;
-import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
@@ -31,9 +30,7 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.infra.Blackhole;
-import org.openjdk.jmh.runner.Runner;
-import org.openjdk.jmh.runner.options.Options;
-import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
 import org.openjdk.jmh.runner.options.TimeValue;
 
 import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
@@ -41,29 +38,20 @@ import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
 /**
  * Tests {@link CaseInsensitiveMap}
  */
-public class CaseInsensitiveMapTest {
-
-    @Test
-    public void launchBenchmark() throws Exception {
-        Options opt = new OptionsBuilder()
-                // Specify which benchmarks to run.
-                // You can be more specific if you'd like to run only one benchmark per test.
-                .include(this.getClass().getName() + ".*")
-                // Set the following options as needed
-                .mode(Mode.SampleTime)
+public class CaseInsensitiveMapTest extends AbstractBenchmarkTest {
+
+    @Override
+    protected void configure(ChainedOptionsBuilder builder) {
+        builder.mode(Mode.SampleTime)
                 .timeUnit(TimeUnit.MILLISECONDS)
                 .warmupTime(TimeValue.seconds(1))
                 .warmupIterations(2)
                 .measurementTime(TimeValue.seconds(5))
                 .measurementIterations(5)
                 .threads(1)
-                .forks(1)
                 .shouldFailOnError(true)
                 .shouldDoGC(true)
-                .measurementBatchSize(1000000)
-                .build();
-
-        new Runner(opt).run();
+                .measurementBatchSize(1000000);
     }
 
     // The JMH samples are the best documentation for how to use it
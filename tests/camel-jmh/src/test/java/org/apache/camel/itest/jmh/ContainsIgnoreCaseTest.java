@@ -19,7 +19,6 @@ package org.apache.camel.itest.jmh;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.camel.util.StringHelper;
-import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
@@ -28,9 +27,7 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.infra.Blackhole;
-import org.openjdk.jmh.runner.Runner;
-import org.openjdk.jmh.runner.options.Options;
-import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
 import org.openjdk.jmh.runner.options.TimeValue;
 
 /**
@@ -38,28 +35,19 @@ import org.openjdk.jmh.runner.options.TimeValue;
  * <p/>
  * Thanks to this SO answer: https://stackoverflow.com/questions/30485856/how-to-run-jmh-from-inside-junit-tests
  */
-public class ContainsIgnoreCaseTest {
+public class ContainsIgnoreCaseTest extends AbstractBenchmarkTest {
 
-    @Test
-    public void launchBenchmark() throws Exception {
-        Options opt = new OptionsBuilder()
-                // Specify which benchmarks to run.
-                // You can be more specific if you'd like to run only one benchmark per test.
-                .include(this.getClass().getName() + ".*")
-                // Set the following options as needed
-                .mode(Mode.All)
+    @Override
+    protected void configure(ChainedOptionsBuilder builder) {
+        builder.mode(Mode.All)
                 .timeUnit(TimeUnit.MICROSECONDS)
                 .warmupTime(TimeValue.seconds(1))
                 .warmupIterations(2)
                 .measurementTime(TimeValue.seconds(1))
                 .measurementIterations(2)
                 .threads(2)
-                .forks(1)
                 .shouldFailOnError(true)
-                .shouldDoGC(true)
-                .build();
-
-        new Runner(opt).run();
+                .shouldDoGC(true);
     }
 
     // The JMH samples are the best documentation for how to use it
@@ -21,7 +21,6 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.impl.DefaultCamelContext;
-import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
@@ -29,30 +28,16 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.infra.Blackhole;
-import org.openjdk.jmh.results.format.ResultFormatType;
-import org.openjdk.jmh.runner.Runner;
-import org.openjdk.jmh.runner.options.Options;
-import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
 
-public class ContextStartStopTest {
+public class ContextStartStopTest extends AbstractBenchmarkTest {
 
-    @Test
-    public void launchBenchmark() throws Exception {
-        Options opt = new OptionsBuilder()
-                // Specify which benchmarks to run.
-                // You can be more specific if you'd like to run only one benchmark per test.
-                .include(this.getClass().getName() + ".*")
-                // Set the following options as needed
-                .mode(Mode.Throughput)
+    @Override
+    protected void configure(ChainedOptionsBuilder builder) {
+        builder.mode(Mode.Throughput)
                 .timeUnit(TimeUnit.MICROSECONDS)
                 .measurementIterations(10)
-                .warmupIterations(5)
-                .forks(1)
-                .resultFormat(ResultFormatType.JSON)
-                .result(this.getClass().getSimpleName() + ".jmh.json")
-                .build();
-
-        new Runner(opt).run();
+                .warmupIterations(5);
     }
 
     // The JMH samples are the best documentation for how to use it
@@ -68,7 +53,6 @@ public class ContextStartStopTest {
         }
     }
 
-
     @Benchmark
     public void contextCycle(ContextStartStopTest.BenchmarkState state, Blackhole bh) {
         state.context.start();
@@ -77,5 +61,4 @@ public class ContextStartStopTest {
         bh.consume(state.context);
     }
 
-
 }
@@ -17,7 +17,6 @@
 package org.apache.camel.itest.jmh;
 
 import org.apache.camel.support.DefaultUuidGenerator;
-import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
@@ -27,10 +26,7 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.infra.Blackhole;
-import org.openjdk.jmh.results.format.ResultFormatType;
-import org.openjdk.jmh.runner.Runner;
-import org.openjdk.jmh.runner.options.Options;
-import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
 
 import java.util.concurrent.TimeUnit;
 
@@ -39,29 +35,18 @@ import java.util.concurrent.TimeUnit;
  * <p/>
  * Thanks to this SO answer: https://stackoverflow.com/questions/30485856/how-to-run-jmh-from-inside-junit-tests
  */
-public class DefaultUuidGeneratorTest {
+public class DefaultUuidGeneratorTest extends AbstractBenchmarkTest {
 
-    @Test
-    public void launchBenchmark() throws Exception {
-        Options opt = new OptionsBuilder()
-                // Specify which benchmarks to run.
-                // You can be more specific if you'd like to run only one benchmark per test.
-                .include(this.getClass().getName() + ".*")
-                // Set the following options as needed
-                .mode(Mode.SingleShotTime)
+    @Override
+    protected void configure(ChainedOptionsBuilder builder) {
+        builder.mode(Mode.SingleShotTime)
                 .timeUnit(TimeUnit.MILLISECONDS)
                 .warmupIterations(5)
                 .warmupBatchSize(5000)
                 .measurementIterations(2)
                 .threads(2)
-                .forks(1)
                 .shouldFailOnError(true)
-                .shouldDoGC(true)
-                .resultFormat(ResultFormatType.JSON)
-                .result(this.getClass().getSimpleName() + ".jmh.json")
-                .build();
-
-        new Runner(opt).run();
+                .shouldDoGC(true);
     }
 
     // The JMH samples are the best documentation for how to use it
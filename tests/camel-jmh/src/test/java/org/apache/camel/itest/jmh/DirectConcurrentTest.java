@@ -26,7 +26,6 @@ import org.apache.camel.Endpoint;
 import org.apache.camel.ProducerTemplate;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.impl.DefaultCamelContext;
-import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
@@ -35,36 +34,22 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.infra.Blackhole;
-import org.openjdk.jmh.results.format.ResultFormatType;
-import org.openjdk.jmh.runner.Runner;
-import org.openjdk.jmh.runner.options.Options;
-import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
 
 /**
  * Tests a simple Camel route
  */
-public class DirectConcurrentTest {
-
-    @Test
-    public void launchBenchmark() throws Exception {
-        Options opt = new OptionsBuilder()
-                // Specify which benchmarks to run.
-                // You can be more specific if you'd like to run only one benchmark per test.
-                .include(this.getClass().getName() + ".*")
-                // Set the following options as needed
-                .mode(Mode.AverageTime)
+public class DirectConcurrentTest extends AbstractBenchmarkTest {
+
+    @Override
+    protected void configure(ChainedOptionsBuilder builder) {
+        builder.mode(Mode.AverageTime)
                 .timeUnit(TimeUnit.MICROSECONDS)
                 .warmupIterations(1)
                 .measurementIterations(15)
                 .threads(4)
-                .forks(1)
                 .shouldFailOnError(true)
-                .shouldDoGC(true)
-                .resultFormat(ResultFormatType.JSON)
-                .result(this.getClass().getSimpleName() + ".jmh.json")
-                .build();
-
-        new Runner(opt).run();
+                .shouldDoGC(true);
     }
 
     // The JMH samples are the best documentation for how to use it
@@ -138,5 +123,4 @@ public class DirectConcurrentTest {
 
     }
 
-
 }
@@ -8,7 +8,6 @@ import org.apache.camel.ServiceStatus;
 import org.apache.camel.impl.DefaultCamelContext;
 import org.apache.camel.spi.EndpointRegistry;
 import org.apache.camel.support.NormalizedUri;
-import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Level;
@@ -19,32 +18,11 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.infra.Blackhole;
-import org.openjdk.jmh.results.format.ResultFormatType;
-import org.openjdk.jmh.runner.Runner;
-import org.openjdk.jmh.runner.options.Options;
-import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 /**
  * These tests specific operations of the Endpoint registry in multi-thread scenarios.
  */
-public class EndpointRegistryScalabilityTest {
-
-    @Test
-    public void launchBenchmark() throws Exception {
-        Options opt = new OptionsBuilder()
-                // Specify which benchmarks to run.
-                // You can be more specific if you'd like to run only one benchmark per test.
-                .include(this.getClass().getName() + ".*")
-                // Set the following options as needed
-                .measurementIterations(10)
-                .warmupIterations(5)
-                .forks(1)
-                .resultFormat(ResultFormatType.JSON)
-                .result(this.getClass().getSimpleName() + ".jmh.json")
-                .build();
-
-        new Runner(opt).run();
-    }
+public class EndpointRegistryScalabilityTest extends AbstractBenchmarkTest {
 
     @State(Scope.Benchmark)
     public static class BenchmarkState {
@@ -78,14 +56,12 @@ public class EndpointRegistryScalabilityTest {
         }
     }
 
-
     private static void doContainsCheck(BenchmarkState state, Blackhole bh) {
         for (NormalizedUri route : state.routes) {
             bh.consume(state.endpointRegistry.containsKey(route));
         }
     }
 
-
     @OutputTimeUnit(TimeUnit.MICROSECONDS)
     @BenchmarkMode(Mode.AverageTime)
     @Threads(2)
@@ -132,7 +108,6 @@ public class EndpointRegistryScalabilityTest {
         doContainsValueCheck(state, bh);
     }
 
-
     @OutputTimeUnit(TimeUnit.MICROSECONDS)
     @BenchmarkMode(Mode.AverageTime)
     @Threads(8)
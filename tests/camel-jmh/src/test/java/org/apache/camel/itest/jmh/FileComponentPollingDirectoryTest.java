@@ -33,22 +33,19 @@ import org.apache.camel.component.file.GenericFile;
 import org.apache.camel.component.file.GenericFileOperations;
 import org.apache.camel.component.file.GenericFileProcessStrategy;
 import org.apache.camel.impl.DefaultCamelContext;
-import org.junit.jupiter.api.Test;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
-import org.openjdk.jmh.runner.Runner;
-import org.openjdk.jmh.runner.options.Options;
-import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
 
 /**
  * Tests the {@link org.apache.camel.component.file.FileConsumer#pollDirectory} method
  */
 @State(Scope.Thread)
-public class FileComponentPollingDirectoryTest {
+public class FileComponentPollingDirectoryTest extends AbstractBenchmarkTest {
     private MyFileEndpoint endpoint;
     private CustomFileConsumer consumer;
     @Param(".")
@@ -117,20 +114,15 @@ public class FileComponentPollingDirectoryTest {
         System.out.println("Polled files: " + fileList.size());
     }
 
-    @Test
-    public void launchBenchmark() throws Exception {
+    @Override
+    protected void configure(ChainedOptionsBuilder builder) throws Exception {
         String inputDir = createFakeFiles();
 
-        Options opt = new OptionsBuilder()
-                .include(this.getClass().getName() + ".*")
-                .mode(Mode.SingleShotTime)
+        builder.mode(Mode.SingleShotTime)
                 .timeUnit(TimeUnit.MILLISECONDS)
                 .forks(15)
                 .shouldFailOnError(true)
                 .shouldDoGC(true)
-                .param("inputDir", inputDir)
-                .build();
-
-        new Runner(opt).run();
+                .param("inputDir", inputDir);
     }
 }
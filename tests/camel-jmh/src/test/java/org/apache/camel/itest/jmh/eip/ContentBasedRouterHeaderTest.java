@@ -28,7 +28,7 @@ import org.apache.camel.Processor;
 import org.apache.camel.ProducerTemplate;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.impl.DefaultCamelContext;
-import org.junit.jupiter.api.Test;
+import org.apache.camel.itest.jmh.AbstractBenchmarkTest;
 import org.openjdk.jmh.annotations.AuxCounters;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -40,36 +40,23 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Threads;
-import org.openjdk.jmh.results.format.ResultFormatType;
-import org.openjdk.jmh.runner.Runner;
-import org.openjdk.jmh.runner.options.Options;
-import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
 
 /**
  * This tests a content-based-router when using a text body for the routing decision. This is suitable for most cases when
  * a large machine with too many cores is not available (as it limits to a maximum of 4 consumers + 4 producers).
  */
-public class ContentBasedRouterHeaderTest {
+public class ContentBasedRouterHeaderTest extends AbstractBenchmarkTest {
     private static String COUNTER_HEADER = "counter";
     private static String TYPE_A_BODY = "typeA";
     private static String TYPE_B_BODY = "typeB";
 
-    @Test
-    public void launchBenchmark() throws Exception {
-        Options opt = new OptionsBuilder()
-                // Specify which benchmarks to run.
-                // You can be more specific if you'd like to run only one benchmark per test.
-                .include(this.getClass().getName() + ".*")
-                .warmupIterations(5)
+    @Override
+    protected void configure(ChainedOptionsBuilder builder) {
+        builder.warmupIterations(5)
                 .warmupBatchSize(5000)
                 .measurementIterations(10)
-                .measurementBatchSize(50000)
-                .forks(1)
-                .resultFormat(ResultFormatType.JSON)
-                .result(this.getClass().getSimpleName() + ".jmh.json")
-                .build();
-
-        new Runner(opt).run();
+                .measurementBatchSize(50000);
     }
 
     // The JMH samples are the best documentation for how to use it
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.itest.jmh.eip;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Endpoint;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.itest.jmh.AbstractBenchmarkTest;
+import org.apache.camel.model.ProcessorDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * This tests the cost of the steps of a route, as the timer-log profile chains ten disabled log endpoints, with routes
+ * of 1 to 1000 steps of the same type:
+ * <ul>
+ * <li>log: a log endpoint with the level OFF, as in the timer-log profile</li>
+ * <li>processor: a processor doing nothing</li>
+ * <li>bean: a method of a bean returning the body</li>
+ * <li>setHeader: a header set to a constant</li>
+ * </ul>
+ * Besides the time and the bytes allocated by a message going through the whole route, it reports the cost of one
+ * more step, from the difference with the route of a single step, which leaves out the cost of sending the message.
+ */
+public class PipelineDepthTest extends AbstractBenchmarkTest {
+    private static final String DATA = "HELLO";
+    private static final String ALLOCATED = "gc.alloc.rate.norm";
+
+    @Override
+    protected void configure(ChainedOptionsBuilder builder) {
+        builder.warmupTime(TimeValue.seconds(1))
+                .warmupIterations(3)
+                .measurementTime(TimeValue.seconds(1))
+                .measurementIterations(5);
+    }
+
+    // The JMH samples are the best documentation for how to use it
+    // http://hg.openjdk.java.net/code-tools/jmh/file/tip/jmh-samples/src/main/java/org/openjdk/jmh/samples/
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+        @Param({ "1", "10", "100", "1000" })
+        int depth;
+
+        @Param({ "log", "processor", "bean", "setHeader" })
+        String step;
+
+        CamelContext context;
+        ProducerTemplate producerTemplate;
+        Endpoint endpoint;
+
+        @Setup(Level.Trial)
+        public void initialize() throws Exception {
+            context = new DefaultCamelContext();
+            context.getRegistry().bind("echo", new Echo());
+
+            producerTemplate = context.createProducerTemplate();
+            endpoint = context.getEndpoint("direct:start");
+
+            context.addRoutes(new RouteBuilder() {
+                @Override
+                public void configure() {
+                    ProcessorDefinition<?> route = from(endpoint);
+                    for (int i = 0; i < depth; i++) {
+                        route = addStep(route, i);
+                    }
+                }
+
+                private ProcessorDefinition<?> addStep(ProcessorDefinition<?> route, int i) {
+                    switch (step) {
+                        case "log":
+                            return route.to("log:out" + i + "?level=OFF");
+                        case "processor":
+                            return route.process(exchange -> {
+                            });
+                        case "bean":
+                            return route.bean("echo", "echo");
+                        case "setHeader":
+                            return route.setHeader("step", constant(i));
+                        default:
+                            throw new IllegalArgumentException("Unknown step: " + step);
+                    }
+                }
+            });
+
+            context.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            context.stop();
+        }
+    }
+
+    public static class Echo {
+        public String echo(String body) {
+            return body;
+        }
+    }
+
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    @Benchmark
+    public void send(Blackhole bh, BenchmarkState state) {
+        bh.consume(state.producerTemplate.requestBody(state.endpoint, DATA));
+    }
+
+    /**
+     * Prints the time and the bytes of every route per step, and of one more step
+     */
+    @Override
+    protected void report(Collection<RunResult> results) {
+        List<RunResult> sorted = new ArrayList<>(results);
+        sorted.sort((a, b) -> {
+            int answer = a.getParams().getParam("step").compareTo(b.getParams().getParam("step"));
+            return answer != 0 ? answer : Integer.compare(depth(a), depth(b));
+        });
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-10s %6s %12s %10s %10s %10s %14s %14s%n", "Step", "Depth", "ns/op", "B/op",
+                "ns/step", "B/step", "ns/extra step", "B/extra step");
+        for (RunResult result : sorted) {
+            String step = result.getParams().getParam("step");
+            int depth = depth(result);
+            double nanos = result.getPrimaryResult().getScore();
+            double bytes = allocated(result);
+            RunResult single = sorted.stream()
+                    .filter(r -> r.getParams().getParam("step").equals(step) && depth(r) == 1)
+                    .findFirst().orElse(null);
+            String extraNanos = "";
+            String extraBytes = "";
+            if (single != null && depth > 1) {
+                extraNanos = String.format(Locale.ROOT, "%.1f",
+                        (nanos - single.getPrimaryResult().getScore()) / (depth - 1));
+                extraBytes = String.format(Locale.ROOT, "%.1f", (bytes - allocated(single)) / (depth - 1));
+            }
+            System.out.printf(Locale.ROOT, "%-10s %6d %12.1f %10.0f %10.1f %10.1f %14s %14s%n", step, depth, nanos,
+                    bytes, nanos / depth, bytes / depth, extraNanos, extraBytes);
+        }
+    }
+
+    private static int depth(RunResult result) {
+        return Integer.parseInt(result.getParams().getParam("depth"));
+    }
+
+    private static double allocated(RunResult result) {
+        Result<?> allocated = result.getSecondaryResults().get(ALLOCATED);
+        return allocated != null ? allocated.getScore() : Double.NaN;
+    }
+}
@@ -16,8 +16,18 @@
  */
 package org.apache.camel.test.perf;
 
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
 import org.apache.camel.component.mock.MockEndpoint;
 import org.apache.camel.test.junit5.CamelTestSupport;
+import org.apache.camel.tests.result.ResourceUsage;
+import org.apache.camel.tests.result.ResultRecord;
+import org.apache.camel.tests.result.ResultRecorder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.TestInfo;
 import org.junit.jupiter.api.TestInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,6 +52,21 @@ public abstract class AbstractBasePerformanceTest extends CamelTestSupport {
               + "</soapenv:Envelope>";
 
     protected final Logger log = LoggerFactory.getLogger(getClass());
+    protected final ResultRecorder recorder = new ResultRecorder(getClass());
+
+    private String testName;
+    private ResourceUsage usage;
+    private Histogram latency;
+
+    @BeforeEach
+    public void setTestName(TestInfo info) {
+        testName = info.getTestMethod().map(m -> m.getName()).orElse(info.getDisplayName());
+    }
+
+    @AfterAll
+    public void writeResults() throws IOException {
+        recorder.write();
+    }
 
     protected String getPayload() {
         return BODY_1KB_PAYLOAD;
@@ -55,10 +80,42 @@ public abstract class AbstractBasePerformanceTest extends CamelTestSupport {
         mock.expectedMessageCount(count);
     }
 
+    /**
+     * Starts measuring, recording the latency of every message sent by {@link #execute(int)} until
+     * {@link #stopMeasurement(int)} is called.
+     */
+    protected void startMeasurement() {
+        latency = new Histogram(3);
+        usage = ResourceUsage.start();
+    }
+
+    /**
+     * Stops measuring and records the result of the given number of messages with the {@link #recorder}.
+     */
+    protected void stopMeasurement(int count) {
+        usage.stop();
+        log.warn("Ran {} tests in {}ms", count, TimeUnit.NANOSECONDS.toMillis(usage.getElapsedNanos()));
+
+        ResultRecord record = new ResultRecord(getClass().getName() + "." + testName, count, 1,
+                usage.getElapsedNanos(), latency);
+        recorder.add(record.param("endpoint", template.getDefaultEndpoint().getEndpointUri()).usage(usage));
+        latency = null;
+    }
+
     protected void execute(int count) {
         for (int counter = 0; counter < count; counter++) {
-            template.sendBody(getPayload());
+            if (latency != null) {
+                long start = System.nanoTime();
+                send();
+                latency.recordValue(System.nanoTime() - start);
+            } else {
+                send();
+            }
         }
     }
 
+    protected void send() {
+        template.sendBody(getPayload());
+    }
+
 }
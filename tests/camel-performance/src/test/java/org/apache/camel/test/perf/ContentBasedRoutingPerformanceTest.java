@@ -18,7 +18,6 @@ package org.apache.camel.test.perf;
 
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.mock.MockEndpoint;
-import org.apache.camel.util.StopWatch;
 import org.junit.jupiter.api.Test;
 
 public class ContentBasedRoutingPerformanceTest extends AbstractBasePerformanceTest {
@@ -34,11 +33,11 @@ public class ContentBasedRoutingPerformanceTest extends AbstractBasePerformanceT
 
         resetMock(count);
 
-        StopWatch watch = new StopWatch();
+        startMeasurement();
         execute(count);
 
         MockEndpoint.assertIsSatisfied(context);
-        log.warn("Ran {} tests in {}ms", count, watch.taken());
+        stopMeasurement(count);
     }
 
     @Test
@@ -50,11 +49,11 @@ public class ContentBasedRoutingPerformanceTest extends AbstractBasePerformanceT
 
         resetMock(count);
 
-        StopWatch watch = new StopWatch();
+        startMeasurement();
         execute(count);
 
         MockEndpoint.assertIsSatisfied(context);
-        log.warn("Ran {} tests in {}ms", count, watch.taken());
+        stopMeasurement(count);
     }
 
     @Test
@@ -66,11 +65,11 @@ public class ContentBasedRoutingPerformanceTest extends AbstractBasePerformanceT
 
         resetMock(count);
 
-        StopWatch watch = new StopWatch();
+        startMeasurement();
         execute(count);
 
         MockEndpoint.assertIsSatisfied(context);
-        log.warn("Ran {} tests in {}ms", count, watch.taken());
+        stopMeasurement(count);
     }
 
     @Test
@@ -82,11 +81,11 @@ public class ContentBasedRoutingPerformanceTest extends AbstractBasePerformanceT
 
         resetMock(count);
 
-        StopWatch watch = new StopWatch();
+        startMeasurement();
         execute(count);
 
         MockEndpoint.assertIsSatisfied(context);
-        log.warn("Ran {} tests in {}ms", count, watch.taken());
+        stopMeasurement(count);
     }
 
     @Override
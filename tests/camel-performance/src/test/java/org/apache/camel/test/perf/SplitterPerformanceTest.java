@@ -18,7 +18,6 @@ package org.apache.camel.test.perf;
 
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.mock.MockEndpoint;
-import org.apache.camel.util.StopWatch;
 import org.junit.jupiter.api.Test;
 
 public class SplitterPerformanceTest extends AbstractBasePerformanceTest {
@@ -68,11 +67,11 @@ public class SplitterPerformanceTest extends AbstractBasePerformanceTest {
 
         resetMock(count);
 
-        StopWatch watch = new StopWatch();
+        startMeasurement();
         execute(1);
 
         MockEndpoint.assertIsSatisfied(context);
-        log.warn("Ran {} tests in {}ms", count, watch.taken());
+        stopMeasurement(count);
     }
 
     @Override
@@ -21,7 +21,6 @@ import java.util.Map;
 
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.mock.MockEndpoint;
-import org.apache.camel.util.StopWatch;
 import org.junit.jupiter.api.Test;
 
 public class XQueryBasedRoutingPerformanceTest extends AbstractBasePerformanceTest {
@@ -37,11 +36,11 @@ public class XQueryBasedRoutingPerformanceTest extends AbstractBasePerformanceTe
 
         resetMock(count);
 
-        StopWatch watch = new StopWatch();
+        startMeasurement();
         execute(count);
 
         MockEndpoint.assertIsSatisfied(context);
-        log.warn("Ran {} tests in {}ms", count, watch.taken());
+        stopMeasurement(count);
     }
 
     @Test
@@ -53,11 +52,11 @@ public class XQueryBasedRoutingPerformanceTest extends AbstractBasePerformanceTe
 
         resetMock(count);
 
-        StopWatch watch = new StopWatch();
+        startMeasurement();
         execute(count);
 
         MockEndpoint.assertIsSatisfied(context);
-        log.warn("Ran {} tests in {}ms", count, watch.taken());
+        stopMeasurement(count);
     }
 
     @Override